@@ -1,7 +1,14 @@
 import java.awt.Color;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
 
+import analysis.MazeDiameter;
 import edu.macalester.graphics.CanvasWindow;
 import edu.macalester.graphics.Ellipse;
 import edu.macalester.graphics.FontStyle;
@@ -11,9 +18,13 @@ import edu.macalester.graphics.Point;
 import edu.macalester.graphics.Polygon;
 import edu.macalester.graphics.events.KeyboardEvent;
 import edu.macalester.graphics.ui.Button;
-import generators.PrimsAlgorithmGenerator;
-import generators.RecursiveBacktrackingAlgorithmGenerator;
-import generators.WilsonsAlgorithmGenerator;
+import generators.Algorithm;
+import generators.ChunkedWorld;
+import generators.LivingMaze;
+import generators.MazeCache;
+import generators.MazeGrid;
+import generators.MazeStepper;
+import generators.NextMazePipeline;
 
 public class Maze {
     private final CanvasWindow canvas;
@@ -23,8 +34,27 @@ public class Maze {
     private static final double PLAYER_RADIUS = 8.0;
     private static final double PLAYER_SPEED = 1.0;
     private static final int GRID_SIZE = 10;
-
-    private List<Line> walls = new ArrayList<>();
+    /* change to Algorithm.PRIMS, WILSONS, GROWING_TREE, SIDEWINDER, BINARY_TREE, HUNT_AND_KILL, RECURSIVE_DIVISION, PARALLEL_WILSONS or WEIGHTED_PRIMS to use the other generators */
+    private static final Algorithm ALGORITHM = Algorithm.RECURSIVE_BACKTRACKING;
+    /* the probability of opening each remaining wall to add loops, try 0.20 */
+    private static final double BRAID_PROBABILITY = 0;
+    /* set to true to watch the first maze being carved before the game starts */
+    private static final boolean ANIMATE_GENERATION = false;
+    /* set to true to put the start and the flag at the two ends of the maze's longest path instead of the corners */
+    private static final boolean START_AT_LONGEST_PATH = false;
+    private static final int GENERATION_STEPS_PER_FRAME = 4;
+    private static final long GENERATION_FRAME_BUDGET_NANOS = 4_000_000; // leaves most of a 60fps frame for drawing
+    /* set to true to walk an endless maze made of chunks instead of playing rounds, there is no flag to reach */
+    private static final boolean ENDLESS_MODE = false;
+    private static final int CHUNK_SIZE = 16;
+    private static final int ENDLESS_PREFETCH_RADIUS = 1;
+    private static final int ENDLESS_MAX_CHUNKS = 16; // the 9 prefetched around the player and a few behind
+    /* set to true to have a wall open and another close every few seconds, the exit always stays reachable (needs BRAID_PROBABILITY 0) */
+    private static final boolean LIVING_MAZE = false;
+    private static final long WALL_SWAP_INTERVAL_MILLIS = 2000;
+    private static final MazeCache MAZE_CACHE = new MazeCache(16L * 1024 * 1024);
+
+    private Collection<Line> walls = new ArrayList<>();
     private Ellipse player;
     private double playerDX = 0; 
     private double playerDY = 0;
@@ -40,28 +70,42 @@ public class Maze {
     private double cellHeight = (double) CANVAS_HEIGHT / GRID_SIZE;
     private long messageRemoveTime = -1;
     private ArrayList<Point> pastPos;
+    private List<Line> pathLines = new ArrayList<>();
+    private Line flagPole;
+    private Polygon flagBody;
+    private Button nextRoundButton;
+    private final NextMazePipeline nextMaze;
+    private final Random seeds = new Random();
+    private boolean waitingForMaze = true;
+    private MazeStepper generation;
+    private ChunkedWorld world;
+    private long viewRow;
+    private long viewCol;
+    private LivingMaze living;
+    private final Map<Integer, Line> livingWalls = new HashMap<>(); // keyed by 2 * cell, plus 1 for a south wall
+    private long nextSwapMillis;
 
     
     public Maze(){
+        this(new Random().nextLong());
+    }
+
+    /*
+     * the same seed always gives the same maze, so a daily challenge can hand out one seed to everyone
+     * repeated seeds are served from the maze cache instead of being generated again
+     */
+    public Maze(long seed){
         canvas = new CanvasWindow("Maze", 800, 600);
-        /* generate a maze using Prim's algorithm */
-        // PrimsAlgorithmGenerator generator = new PrimsAlgorithmGenerator(GRID_SIZE); 
-        // generator.generateMaze();
-        // generator.addRandomEdges(0.20);
-        // walls = generator.generateMazeLines(CANVAS_WIDTH, CANVAS_HEIGHT, WALL_THICKNESS);
-        // generator.drawMaze(canvas, walls, CANVAS_WIDTH, CANVAS_HEIGHT, WALL_THICKNESS);
-
-        /* generate a maze using Wilson's algorithm */
-        // WilsonsAlgorithmGenerator generator = new WilsonsAlgorithmGenerator(GRID_SIZE); 
-        // generator.generateMaze();
-        // walls = generator.generateMazeLines(CANVAS_WIDTH, CANVAS_HEIGHT, WALL_THICKNESS);
-        // generator.drawMaze(canvas, walls, CANVAS_WIDTH, CANVAS_HEIGHT, WALL_THICKNESS);
-
-        /* generate a maze using Recursive Backtracking algorithm */
-
-        RecursiveBacktrackingAlgorithmGenerator rbGenerator = new RecursiveBacktrackingAlgorithmGenerator(GRID_SIZE);
-        rbGenerator.generateMaze(rbGenerator.getRandomNode());
-        walls = rbGenerator.drawMaze(canvas);
+        // the maze is generated on a background thread and put on the canvas by updateGame once it is ready,
+        // so the window is up straight away
+        nextMaze = new NextMazePipeline(MAZE_CACHE, ALGORITHM, GRID_SIZE, CANVAS_WIDTH, CANVAS_HEIGHT, BRAID_PROBABILITY, WALL_THICKNESS);
+        if (ENDLESS_MODE) {
+            world = new ChunkedWorld(ALGORITHM, CHUNK_SIZE, seed, ENDLESS_PREFETCH_RADIUS, ENDLESS_MAX_CHUNKS, 2);
+        } else if (ANIMATE_GENERATION) {
+            generation = ALGORITHM.stepper(GRID_SIZE, seed);
+        } else {
+            nextMaze.prepare(seed);
+        }
         
         startCellCenter = new Point(
             cellWidth * 0.5,
@@ -82,14 +126,263 @@ public class Maze {
 
         startButton = new Button("Start Game");
         startButton.setCenter(CANVAS_WIDTH / 2.0, CANVAS_HEIGHT / 2.0);
-        canvas.add(startButton);
+        nextRoundButton = new Button("Next Maze");
+        nextRoundButton.setCenter(CANVAS_WIDTH / 2.0, CANVAS_HEIGHT / 2.0);
 
         initializePlayer();
 
         startButton.onClick(() -> startGame());
+        nextRoundButton.onClick(() -> startNextRound());
         canvas.onKeyDown(this::handleKeyPress);
         canvas.animate(this::updateGame);
         drawEndFlag();
+        if (world != null) {
+            canvas.remove(flagPole);
+            canvas.remove(flagBody);
+            startCellCenter = new Point(
+                cellWidth * (GRID_SIZE / 2) + cellWidth * 0.5,
+                cellHeight * (GRID_SIZE / 2) + cellHeight * 0.5);
+            player.setCenter(startCellCenter);
+            world.prefetchAround(viewRow + GRID_SIZE / 2, viewCol + GRID_SIZE / 2);
+            showWalls(endlessWalls());
+            waitingForMaze = false;
+            canvas.add(startButton);
+        } else {
+            showMessage("Generating maze...", Color.GRAY, 0);
+        }
+    }
+
+    /*
+     * builds the walls of the part of the endless world in view, viewRow and viewCol are the world cell
+     * in the top left corner, the walls around the edge of the view are drawn too so openings out of it show
+     */
+    private List<Line> endlessWalls() {
+        double[] segments = new double[4 * 2 * (GRID_SIZE + 1) * (GRID_SIZE + 1)];
+        int i = 0;
+        for (int r = 0; r < GRID_SIZE; r++) {
+            for (int c = 0; c < GRID_SIZE; c++) {
+                double cellX = c * cellWidth;
+                double cellY = r * cellHeight;
+                if (r == 0 && !world.hasPassage(viewRow, viewCol + c, MazeGrid.NORTH)) {
+                    i = putSegment(segments, i, cellX, cellY, cellX + cellWidth, cellY);
+                }
+                if (c == 0 && !world.hasPassage(viewRow + r, viewCol, MazeGrid.WEST)) {
+                    i = putSegment(segments, i, cellX, cellY, cellX, cellY + cellHeight);
+                }
+                if (!world.hasPassage(viewRow + r, viewCol + c, MazeGrid.SOUTH)) {
+                    i = putSegment(segments, i, cellX, cellY + cellHeight, cellX + cellWidth, cellY + cellHeight);
+                }
+                if (!world.hasPassage(viewRow + r, viewCol + c, MazeGrid.EAST)) {
+                    i = putSegment(segments, i, cellX + cellWidth, cellY, cellX + cellWidth, cellY + cellHeight);
+                }
+            }
+        }
+        return MazeGrid.toLines(Arrays.copyOf(segments, i), WALL_THICKNESS);
+    }
+
+    private static int putSegment(double[] segments, int i, double x1, double y1, double x2, double y2) {
+        segments[i] = x1;
+        segments[i + 1] = y1;
+        segments[i + 2] = x2;
+        segments[i + 3] = y2;
+        return i + 4;
+    }
+
+    /*
+     * once the player reaches a cell on the edge of the view, scrolls the view so the player is back in the middle
+     * and asks for the chunks around the player to be generated in the background before they are walked into
+     */
+    private void followPlayerInEndlessWorld() {
+        Point center = player.getCenter();
+        int row = (int) Math.floor(center.getY() / cellHeight);
+        int col = (int) Math.floor(center.getX() / cellWidth);
+        if (row > 0 && row < GRID_SIZE - 1 && col > 0 && col < GRID_SIZE - 1) {
+            return;
+        }
+        int shiftRows = row - GRID_SIZE / 2;
+        int shiftCols = col - GRID_SIZE / 2;
+        viewRow += shiftRows;
+        viewCol += shiftCols;
+        player.setCenter(center.getX() - shiftCols * cellWidth, center.getY() - shiftRows * cellHeight);
+        world.prefetchAround(viewRow + GRID_SIZE / 2, viewCol + GRID_SIZE / 2);
+        showWalls(endlessWalls());
+    }
+
+    /*
+     * puts the prepared maze on the canvas if the background thread has finished it
+     * and starts preparing the maze for the round after, runs on the UI thread from updateGame
+     */
+    private void loadNextMazeIfReady() {
+        NextMazePipeline.PreparedMaze maze = nextMaze.poll();
+        if (maze == null) {
+            return;
+        }
+        waitingForMaze = false;
+        loadMaze(maze);
+        nextMaze.prepare(seeds.nextLong());
+
+        canvas.remove(messageText);
+        messageText.setText("");
+        canvas.add(startButton);
+    }
+
+    /*
+     * carves a little more of the maze each frame and redraws the walls, within a time budget
+     * so the window stays responsive, runs on the UI thread from updateGame
+     */
+    private void animateGeneration() {
+        boolean done = generation.stepFor(GENERATION_STEPS_PER_FRAME, GENERATION_FRAME_BUDGET_NANOS);
+        showWalls(MazeGrid.toLines(generation.getMazeGrid().wallSegments(CANVAS_WIDTH, CANVAS_HEIGHT), WALL_THICKNESS));
+        if (!done) {
+            return;
+        }
+        placeStartAndExit(generation.getMazeGrid());
+        player.setCenter(startCellCenter);
+        startLiving(generation.getMazeGrid());
+        generation = null;
+        waitingForMaze = false;
+        nextMaze.prepare(seeds.nextLong());
+
+        canvas.remove(messageText);
+        messageText.setText("");
+        canvas.add(startButton);
+    }
+
+    /*
+     * clears the last round's path, puts the player back at the start and shows the new maze's walls
+     */
+    private void loadMaze(NextMazePipeline.PreparedMaze maze) {
+        for (Line line : pathLines) {
+            canvas.remove(line);
+        }
+        pathLines.clear();
+        pastPos.clear();
+
+        placeStartAndExit(maze.getMaze().getGrid());
+        player.setCenter(startCellCenter);
+        showWalls(maze.getWalls());
+        startLiving(maze.getMaze().getGrid());
+    }
+
+    /*
+     * when LIVING_MAZE is on, puts the walls of the new maze in a map by wall so a swap
+     * only has to take one line off the canvas and add one, the cached maze itself is never changed
+     */
+    private void startLiving(MazeGrid grid) {
+        living = null;
+        if (!LIVING_MAZE || BRAID_PROBABILITY > 0) {
+            return;
+        }
+        living = new LivingMaze(grid, seeds.nextLong());
+        nextSwapMillis = System.currentTimeMillis() + WALL_SWAP_INTERVAL_MILLIS;
+        Map<Integer, Line> newWalls = new HashMap<>();
+        for (int cell = 0; cell < grid.getCellCount(); cell++) {
+            for (int direction : new int[] {MazeGrid.EAST, MazeGrid.SOUTH}) {
+                if (grid.neighbor(cell, direction) >= 0 && !grid.hasPassage(cell, direction)) {
+                    newWalls.put(wallKey(cell, direction), wallLine(cell, direction));
+                }
+            }
+        }
+        // wallSegments always ends with the four outer walls, which never change
+        double[] segments = grid.wallSegments(CANVAS_WIDTH, CANVAS_HEIGHT);
+        List<Line> outerWalls = MazeGrid.toLines(Arrays.copyOfRange(segments, segments.length - 16, segments.length), WALL_THICKNESS);
+        for (int i = 0; i < outerWalls.size(); i++) {
+            newWalls.put(-1 - i, outerWalls.get(i));
+        }
+        showWalls(new ArrayList<>());
+        livingWalls.clear();
+        livingWalls.putAll(newWalls);
+        showWalls(livingWalls.values());
+    }
+
+    /*
+     * opens one wall and closes another, keeping the player's own cell as it is so no wall closes on top of them
+     */
+    private void swapLivingWalls() {
+        Point center = player.getCenter();
+        int row = Math.max(0, Math.min(GRID_SIZE - 1, (int) (center.getY() / cellHeight)));
+        int col = Math.max(0, Math.min(GRID_SIZE - 1, (int) (center.getX() / cellWidth)));
+        LivingMaze.WallSwap swap = living.swap(row * GRID_SIZE + col);
+
+        canvas.remove(livingWalls.remove(wallKey(swap.getOpenedCell(), swap.getOpenedDirection())));
+        Line closed = wallLine(swap.getClosedCell(), swap.getClosedDirection());
+        livingWalls.put(wallKey(swap.getClosedCell(), swap.getClosedDirection()), closed);
+        canvas.add(closed);
+        canvas.remove(player);
+        canvas.add(player);
+        nextSwapMillis = System.currentTimeMillis() + WALL_SWAP_INTERVAL_MILLIS;
+    }
+
+    private static int wallKey(int cell, int direction) {
+        return 2 * cell + (direction == MazeGrid.SOUTH ? 1 : 0);
+    }
+
+    /*
+     * the wall on the east or south side of a cell, placed like MazeGrid.wallSegments places it
+     */
+    private Line wallLine(int cell, int direction) {
+        double cellX = (cell % GRID_SIZE) * cellWidth;
+        double cellY = (cell / GRID_SIZE) * cellHeight;
+        double[] segment = direction == MazeGrid.SOUTH
+            ? new double[] {cellX, cellY + cellHeight, cellX + cellWidth, cellY + cellHeight}
+            : new double[] {cellX + cellWidth, cellY, cellX + cellWidth, cellY + cellHeight};
+        return MazeGrid.toLines(segment, WALL_THICKNESS).get(0);
+    }
+
+    /*
+     * moves the start and the flag to the ends of the longest path through the maze when START_AT_LONGEST_PATH is on,
+     * otherwise they stay in the bottom-left and top-right corners
+     */
+    private void placeStartAndExit(MazeGrid grid) {
+        if (!START_AT_LONGEST_PATH) {
+            return;
+        }
+        MazeDiameter diameter = MazeDiameter.of(grid);
+        startCellCenter = cellCenter(grid, diameter.getStartCell());
+        endCellCenter = cellCenter(grid, diameter.getEndCell());
+        canvas.remove(flagPole);
+        canvas.remove(flagBody);
+        drawEndFlag();
+    }
+
+    private Point cellCenter(MazeGrid grid, int cell) {
+        return new Point(
+            cellWidth * grid.colOf(cell) + cellWidth * 0.5,
+            cellHeight * grid.rowOf(cell) + cellHeight * 0.5);
+    }
+
+    /*
+     * replaces the walls on the canvas, the flag and player are added again so they stay drawn above the walls
+     */
+    private void showWalls(Collection<Line> newWalls) {
+        for (Line wall : walls) {
+            canvas.remove(wall);
+        }
+        walls = newWalls;
+        for (Line wall : walls) {
+            canvas.add(wall);
+        }
+        canvas.remove(flagPole);
+        canvas.remove(flagBody);
+        if (world == null) {
+            canvas.add(flagPole);
+            canvas.add(flagBody);
+        }
+
+        canvas.remove(player);
+        canvas.add(player);
+    }
+
+    /*
+     * starts the next round, the maze was generated in the background while the last round was played
+     */
+    private void startNextRound() {
+        canvas.remove(nextRoundButton);
+        waitingForMaze = true;
+        loadNextMazeIfReady();
+        if (waitingForMaze) {
+            showMessage("Generating next maze...", Color.GRAY, 0);
+        }
     }
 
     // private List<Line> findWallsOnCanvas(CanvasWindow targetCanvas) {
@@ -158,6 +451,14 @@ public class Maze {
     }
 
     private void updateGame(double dt) {
+        if (generation != null) {
+            animateGeneration();
+            return;
+        }
+        if (waitingForMaze) {
+            loadNextMazeIfReady();
+            return;
+        }
          if (!gameStarted) {
             return;
         }
@@ -190,7 +491,9 @@ public class Maze {
         double nextX = currentCenter.getX() + playerDX;
         double nextY = currentCenter.getY() + playerDY;
 
-        pastPos.add(currentCenter); // gathers points for path player takes in maze
+        if (world == null) {
+            pastPos.add(currentCenter); // gathers points for path player takes in maze, not kept in the endless world
+        }
 
         boolean collision = checkCollision(nextX, nextY);
 
@@ -207,7 +510,12 @@ public class Maze {
             //      canvas.remove(messageText);
             //  }
         }
-        if (player.getCenter().distance(endCellCenter) < WALL_THICKNESS/2.0) {
+        if (living != null && System.currentTimeMillis() >= nextSwapMillis) {
+            swapLivingWalls();
+        }
+        if (world != null) {
+            followPlayerInEndlessWorld();
+        } else if (player.getCenter().distance(endCellCenter) < WALL_THICKNESS/2.0) {
             winGame();
         }
     }
@@ -269,6 +577,7 @@ public class Maze {
 
     canvas.remove(player);
     drawPlayerPath();
+    canvas.add(nextRoundButton);
 }
 
 private void drawEndFlag() {
@@ -278,17 +587,17 @@ private void drawEndFlag() {
     double flagWidth = cellWidth * 0.4;
     double flagHeight = cellHeight * 0.3;
 
-    Line pole = new Line(poleX, poleBottomY, poleX, poleTopY);
-    pole.setStrokeColor(Color.BLACK);
-    pole.setStrokeWidth(2); 
-    canvas.add(pole);
+    flagPole = new Line(poleX, poleBottomY, poleX, poleTopY);
+    flagPole.setStrokeColor(Color.BLACK);
+    flagPole.setStrokeWidth(2); 
+    canvas.add(flagPole);
 
     List<Point> flagPoints = List.of(
         new Point(poleX, poleTopY),                      
         new Point(poleX + flagWidth, poleTopY + flagHeight / 2.0),
         new Point(poleX, poleTopY + flagHeight)        
     );
-    Polygon flagBody = new Polygon(flagPoints);
+    flagBody = new Polygon(flagPoints);
     flagBody.setFillColor(Color.RED);
     flagBody.setStroked(false); 
     canvas.add(flagBody);
@@ -307,12 +616,17 @@ private void drawPlayerPath(){
             l.setStrokeColor(Color.RED);
             l.setStrokeWidth(5);
             canvas.add(l);
+            pathLines.add(l);
     }
 }
 
 
     
     public static void main(String[] args) {
-        new Maze();  
+        if (args.length > 0 && args[0].equals("daily")) {
+            new Maze(LocalDate.now().toEpochDay()); // everyone gets the same maze today
+        } else {
+            new Maze();  
+        }
     }
 }
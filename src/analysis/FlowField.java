@@ -0,0 +1,93 @@
+package analysis;
+import java.util.Arrays;
+
+import generators.MazeGrid;
+
+/**
+ * Which way to go from every cell to reach one target cell (usually the exit),
+ * worked out once so any number of agents can look up their next move in O(1)
+ * without searching or keeping any state of their own.
+ *
+ * Built with one breadth-first search from the target: each cell records the
+ * direction of the neighbor it was found from, so following the directions from any
+ * cell walks a shortest path to the target. The directions live in one byte per cell,
+ * numbered like the cells of the MazeGrid. The field never changes after it is built,
+ * so it can be read from many threads at once.
+ */
+public class FlowField {
+    /** the direction stored for the target cell itself */
+    public static final byte AT_TARGET = 4;
+    /** the direction stored for cells that cannot reach the target */
+    public static final byte UNREACHABLE = -1;
+
+    private final MazeGrid grid;
+    private final int target;
+    private final byte[] directions;
+
+    /**
+     * constructor, builds the field
+     * @param grid the maze, later carving does not change the field
+     * @param target the cell every direction leads to
+     */
+    public FlowField(MazeGrid grid, int target) {
+        this.grid = grid;
+        this.target = target;
+        this.directions = new byte[grid.getCellCount()];
+        Arrays.fill(directions, UNREACHABLE);
+
+        int[] queue = new int[grid.getCellCount()];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = target;
+        directions[target] = AT_TARGET;
+        while (head < tail) {
+            int cell = queue[head++];
+            for (int d = MazeGrid.NORTH; d <= MazeGrid.WEST; d++) {
+                if (grid.hasPassage(cell, d)) {
+                    int next = grid.neighbor(cell, d);
+                    if (directions[next] == UNREACHABLE) {
+                        directions[next] = (byte) ((d + 2) & 3); // back the way the search came
+                        queue[tail++] = next;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * method to look up the move toward the target
+     * @param cell the cell an agent is in
+     * @return NORTH, EAST, SOUTH or WEST, AT_TARGET on the target, UNREACHABLE if the target cannot be reached
+     */
+    public byte directionAt(int cell) {
+        return directions[cell];
+    }
+
+    /**
+     * method to look up the cell to move to next
+     * @param cell the cell an agent is in
+     * @return the next cell on a shortest path, the cell itself on the target, -1 if the target cannot be reached
+     */
+    public int nextCell(int cell) {
+        byte direction = directions[cell];
+        if (direction == AT_TARGET) {
+            return cell;
+        }
+        if (direction == UNREACHABLE) {
+            return -1;
+        }
+        return grid.neighbor(cell, direction);
+    }
+
+    public boolean canReachTarget(int cell) {
+        return directions[cell] != UNREACHABLE;
+    }
+
+    public int getTarget() {
+        return target;
+    }
+
+    public MazeGrid getMazeGrid() {
+        return grid;
+    }
+}
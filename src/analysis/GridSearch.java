@@ -0,0 +1,107 @@
+package analysis;
+import java.util.Arrays;
+
+import generators.MazeGrid;
+
+/**
+ * Breadth-first search through the open passages of a MazeGrid, kept to an int
+ * queue and a visited bitset so it stays cheap on very large mazes. One GridSearch
+ * can be reused for many searches, and for other grids of the same size, but not
+ * from several threads at once.
+ */
+public class GridSearch {
+    private MazeGrid grid;
+    private final int[] queue;
+    private final long[] visited;
+    private int lastCell = -1;
+
+    public GridSearch(MazeGrid grid) {
+        this(grid.getCellCount());
+        this.grid = grid;
+    }
+
+    /**
+     * constructor for a search with no grid yet, call setMazeGrid before searching
+     * @param cellCount the number of cells in the grids it will search
+     */
+    public GridSearch(int cellCount) {
+        this.queue = new int[cellCount];
+        this.visited = new long[(cellCount + 63) >>> 6];
+    }
+
+    /**
+     * method to search another grid with the same buffers
+     * @param grid a grid with as many cells as this search was made for
+     */
+    public void setMazeGrid(MazeGrid grid) {
+        if (grid.getCellCount() != queue.length) {
+            throw new IllegalArgumentException("This search is sized for " + queue.length
+                + " cells, the grid has " + grid.getCellCount() + ".");
+        }
+        this.grid = grid;
+    }
+
+    /**
+     * method to find how far apart two cells are
+     * @param from the cell to start at
+     * @param to the cell to reach
+     * @return the number of moves on the shortest path, or -1 if to cannot be reached
+     */
+    public int distance(int from, int to) {
+        return search(from, to);
+    }
+
+    /**
+     * method to find the cell furthest from a cell, ties go to the one found first
+     * @param from the cell to start at
+     * @return the number of moves to the furthest reachable cell, see getLastCell for which cell that is
+     */
+    public int eccentricity(int from) {
+        return search(from, -1);
+    }
+
+    /**
+     * @return the last cell the previous search reached, for eccentricity the furthest one
+     */
+    public int getLastCell() {
+        return lastCell;
+    }
+
+    private int search(int from, int to) {
+        Arrays.fill(visited, 0L);
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = from;
+        mark(from);
+        int depth = 0;
+        while (head < tail) {
+            int levelEnd = tail;
+            while (head < levelEnd) {
+                int cell = queue[head++];
+                lastCell = cell;
+                if (cell == to) {
+                    return depth;
+                }
+                for (int d = MazeGrid.NORTH; d <= MazeGrid.WEST; d++) {
+                    if (grid.hasPassage(cell, d)) {
+                        int next = grid.neighbor(cell, d);
+                        if (!isMarked(next)) {
+                            mark(next);
+                            queue[tail++] = next;
+                        }
+                    }
+                }
+            }
+            depth++;
+        }
+        return to < 0 ? depth - 1 : -1;
+    }
+
+    private void mark(int cell) {
+        visited[cell >>> 6] |= 1L << cell;
+    }
+
+    private boolean isMarked(int cell) {
+        return (visited[cell >>> 6] & (1L << cell)) != 0;
+    }
+}
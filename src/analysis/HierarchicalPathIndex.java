@@ -0,0 +1,701 @@
+package analysis;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import generators.MazeGrid;
+
+/**
+ * HPA*-style index for answering many path queries on mazes with loops (braided
+ * mazes), where TreeDistanceIndex does not apply and a breadth-first search per
+ * query is too slow on big grids.
+ *
+ * The grid is cut into square clusters. Along each border between two clusters the
+ * open passages across it come in runs of neighboring crossings, and each run is
+ * merged into one entrance, the crossing in its middle. Crossings of a run are only
+ * merged when they join the same connected piece of each cluster, so every cell can
+ * still get out through an entrance if it could get out at all. Each entrance is one
+ * node of the abstract graph, shared by the two clusters it joins, and for each
+ * cluster the index stores the distance between every pair of its entrances, staying
+ * inside the cluster. A query searches only the cluster of each end cell, then runs
+ * A* over the entrances, guided by the Manhattan distance to the target cell, and
+ * refines the result back into cells when a path is wanted. On a perfect maze no two crossings can be merged, so distances are exact;
+ * on a braided maze a query can come back a few moves longer than the shortest path,
+ * like HPA*, but always follows real passages.
+ *
+ * Clusters are built independently, in parallel. When a wall is opened or closed,
+ * wallChanged rebuilds only the clusters around it. Queries only read the index and
+ * keep their search buffers per thread, so they may run on several threads at once,
+ * but not while it is being updated.
+ */
+public class HierarchicalPathIndex {
+    public static final int DEFAULT_CLUSTER_SIZE = 16;
+    private static final int UNREACHED = -1;
+
+    private final MazeGrid grid;
+    private final int gridSize;
+    private final int clusterSize;
+    private final int clustersPerSide;
+    private final int[][] components;  // per cluster, the connected piece of each cell by local index
+    private final int[][] crossings;   // per cluster, the cell on its side of the entrances on its east border, then its south border
+    private final int[] eastCrossings; // per cluster, how many of its crossings are on the east border
+    private final int[][] touchCells;  // per cluster, the cell on its side of every entrance it touches, its own crossings first
+    private final int[][] touchNodes;  // per cluster, the abstract node of each entrance in touchCells
+    private final int[][] distances;   // per cluster, k * k distances between the cells in touchCells, UNREACHED if none
+    private int[] nodeClusters;        // node g joins clusters nodeClusters[2g] and nodeClusters[2g + 1]
+    private int[] nodeSlots;           // at touchCells slots nodeSlots[2g] and nodeSlots[2g + 1]
+    private int[] nodeCells;           // with the cells nodeCells[2g] and nodeCells[2g + 1] on either side
+    private int nodeCount;
+    private final ThreadLocal<Scratch> scratch;
+
+    public HierarchicalPathIndex(MazeGrid grid) {
+        this(grid, DEFAULT_CLUSTER_SIZE);
+    }
+
+    /**
+     * constructor, builds the index for every cluster in parallel
+     * @param grid the maze, it is read again by queries and wallChanged
+     * @param clusterSize the number of rows and columns in each cluster
+     */
+    public HierarchicalPathIndex(MazeGrid grid, int clusterSize) {
+        if (clusterSize <= 0) {
+            throw new IllegalArgumentException("clusterSize must be positive, got " + clusterSize);
+        }
+        this.grid = grid;
+        this.gridSize = grid.getGridSize();
+        this.clusterSize = clusterSize;
+        this.clustersPerSide = (gridSize + clusterSize - 1) / clusterSize;
+        int clusters = clustersPerSide * clustersPerSide;
+        this.components = new int[clusters][];
+        this.crossings = new int[clusters][];
+        this.eastCrossings = new int[clusters];
+        this.touchCells = new int[clusters][];
+        this.touchNodes = new int[clusters][];
+        this.distances = new int[clusters][];
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(clusterSize * clusterSize));
+        // each step only reads what the one before it wrote for the neighboring clusters
+        IntStream.range(0, clusters).parallel().forEach(this::labelCluster);
+        IntStream.range(0, clusters).parallel().forEach(this::findCrossings);
+        IntStream.range(0, clusters).parallel().forEach(this::buildCluster);
+        numberNodes();
+    }
+
+    /**
+     * method to bring the index up to date after the wall between two cells was opened or closed
+     * @param cellA a cell on one side of the wall
+     * @param cellB the cell on the other side
+     */
+    public void wallChanged(int cellA, int cellB) {
+        int clusterA = clusterOf(cellA);
+        int clusterB = clusterOf(cellB);
+        labelCluster(clusterA);
+        labelCluster(clusterB);
+        // the borders of A and B are owned by A, B and the clusters west and north of them,
+        // and every cluster next to one of those owners touches what they own
+        int[] owners = {clusterA, clusterB, west(clusterA), north(clusterA), west(clusterB), north(clusterB)};
+        boolean[] rebuild = new boolean[clustersPerSide * clustersPerSide];
+        for (int owner : owners) {
+            if (owner >= 0) {
+                findCrossings(owner);
+                rebuild[owner] = true;
+                if (east(owner) >= 0) {
+                    rebuild[east(owner)] = true;
+                }
+                if (south(owner) >= 0) {
+                    rebuild[south(owner)] = true;
+                }
+            }
+        }
+        for (int cluster = 0; cluster < rebuild.length; cluster++) {
+            if (rebuild[cluster]) {
+                buildCluster(cluster);
+            }
+        }
+        numberNodes();
+    }
+
+    /**
+     * method to find the path length between two cells
+     * @param from the cell to start at
+     * @param to the cell to reach
+     * @return the number of moves on the path found, or -1 if there is none
+     */
+    public int distance(int from, int to) {
+        Query query = new Query(from, to);
+        return query.run();
+    }
+
+    /**
+     * method to find a path between two cells, the same length distance gives
+     * @param from the cell to start at
+     * @param to the cell to reach
+     * @return the cells on the path from from to to, both included, or an empty array if there is none
+     */
+    public int[] path(int from, int to) {
+        Query query = new Query(from, to);
+        if (query.run() < 0) {
+            return new int[0];
+        }
+        return query.refine();
+    }
+
+    public int getClusterCount() {
+        return touchCells.length;
+    }
+
+    /**
+     * @return the number of entrances, the nodes of the graph queries search
+     */
+    public int getEntranceCount() {
+        return nodeCount;
+    }
+
+    int clusterOf(int cell) {
+        int row = cell / gridSize;
+        int col = cell % gridSize;
+        return (row / clusterSize) * clustersPerSide + col / clusterSize;
+    }
+
+    private int east(int cluster) {
+        return cluster % clustersPerSide + 1 < clustersPerSide ? cluster + 1 : -1;
+    }
+
+    private int south(int cluster) {
+        return cluster + clustersPerSide < clustersPerSide * clustersPerSide ? cluster + clustersPerSide : -1;
+    }
+
+    private int west(int cluster) {
+        return cluster % clustersPerSide > 0 ? cluster - 1 : -1;
+    }
+
+    private int north(int cluster) {
+        return cluster >= clustersPerSide ? cluster - clustersPerSide : -1;
+    }
+
+    private int localIndex(int cluster, int cell) {
+        int rowStart = (cluster / clustersPerSide) * clusterSize;
+        int colStart = (cluster % clustersPerSide) * clusterSize;
+        return (cell / gridSize - rowStart) * clusterSize + (cell % gridSize - colStart);
+    }
+
+    /**
+     * Numbers the connected pieces of one cluster, moving only inside it. Each piece
+     * is flood filled from its first unlabeled cell, labeling cells as they are reached,
+     * so every cell is looked at once.
+     */
+    private void labelCluster(int cluster) {
+        int[] label = new int[clusterSize * clusterSize];
+        Arrays.fill(label, UNREACHED);
+        int[] queue = scratch.get().queue;
+        int rowStart = (cluster / clustersPerSide) * clusterSize;
+        int colStart = (cluster % clustersPerSide) * clusterSize;
+        int rows = Math.min(clusterSize, gridSize - rowStart);
+        int cols = Math.min(clusterSize, gridSize - colStart);
+        int next = 0;
+        for (int start = 0; start < label.length; start++) {
+            if (start % clusterSize >= cols || start / clusterSize >= rows || label[start] != UNREACHED) {
+                continue;
+            }
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = start;
+            label[start] = next;
+            while (head < tail) {
+                int local = queue[head++];
+                int r = local / clusterSize;
+                int c = local % clusterSize;
+                int cell = (rowStart + r) * gridSize + colStart + c;
+                if (r > 0 && label[local - clusterSize] == UNREACHED && grid.hasPassage(cell, MazeGrid.NORTH)) {
+                    label[local - clusterSize] = next;
+                    queue[tail++] = local - clusterSize;
+                }
+                if (c + 1 < cols && label[local + 1] == UNREACHED && grid.hasPassage(cell, MazeGrid.EAST)) {
+                    label[local + 1] = next;
+                    queue[tail++] = local + 1;
+                }
+                if (r + 1 < rows && label[local + clusterSize] == UNREACHED && grid.hasPassage(cell, MazeGrid.SOUTH)) {
+                    label[local + clusterSize] = next;
+                    queue[tail++] = local + clusterSize;
+                }
+                if (c > 0 && label[local - 1] == UNREACHED && grid.hasPassage(cell, MazeGrid.WEST)) {
+                    label[local - 1] = next;
+                    queue[tail++] = local - 1;
+                }
+            }
+            next++;
+        }
+        components[cluster] = label;
+    }
+
+    /**
+     * Finds the entrances on the east and south borders of one cluster. Reads the
+     * pieces of this cluster and its neighbors and writes only this cluster's slots.
+     */
+    private void findCrossings(int cluster) {
+        IntList found = new IntList();
+        int rowStart = (cluster / clustersPerSide) * clusterSize;
+        int colStart = (cluster % clustersPerSide) * clusterSize;
+        int rowEnd = Math.min(rowStart + clusterSize, gridSize);
+        int colEnd = Math.min(colStart + clusterSize, gridSize);
+        if (east(cluster) >= 0) {
+            mergeRuns(cluster, east(cluster), MazeGrid.EAST, grid.cellAt(rowStart, colEnd - 1), gridSize, rowEnd - rowStart, found);
+        }
+        eastCrossings[cluster] = found.size();
+        if (south(cluster) >= 0) {
+            mergeRuns(cluster, south(cluster), MazeGrid.SOUTH, grid.cellAt(rowEnd - 1, colStart), 1, colEnd - colStart, found);
+        }
+        crossings[cluster] = found.toArray();
+    }
+
+    /*
+     * walks one border, cell by cell from first, and adds the middle crossing of each
+     * run of neighboring crossings that join the same two pieces
+     */
+    private void mergeRuns(int cluster, int other, int direction, int first, int step, int length, IntList found) {
+        int[] run = new int[length];
+        int position = 0;
+        while (position < length) {
+            int size = 0;
+            while (position < length && grid.hasPassage(first + position * step, direction)) {
+                run[size++] = first + position * step;
+                position++;
+            }
+            // a run whose crossings lead into different pieces keeps one entrance per pair of pieces
+            for (int i = 0; i < size; i++) {
+                if (run[i] < 0) {
+                    continue;
+                }
+                int mine = components[cluster][localIndex(cluster, run[i])];
+                int theirs = components[other][localIndex(other, grid.neighbor(run[i], direction))];
+                int members = 0;
+                for (int j = i; j < size; j++) {
+                    if (run[j] >= 0 && components[cluster][localIndex(cluster, run[j])] == mine
+                        && components[other][localIndex(other, grid.neighbor(run[j], direction))] == theirs) {
+                        members++;
+                    }
+                }
+                int middle = members / 2;
+                for (int j = i; j < size; j++) {
+                    if (run[j] >= 0 && components[cluster][localIndex(cluster, run[j])] == mine
+                        && components[other][localIndex(other, grid.neighbor(run[j], direction))] == theirs) {
+                        if (middle-- == 0) {
+                            found.add(run[j]);
+                        }
+                        run[j] = -1;
+                    }
+                }
+            }
+            position++;
+        }
+    }
+
+    /**
+     * Collects every entrance one cluster touches and the distances between them. Reads
+     * the crossings of this cluster and its west and north neighbors and writes only this
+     * cluster's slots, so clusters can be built at the same time.
+     */
+    private void buildCluster(int cluster) {
+        int west = west(cluster);
+        int north = north(cluster);
+        int own = crossings[cluster].length;
+        int fromWest = west < 0 ? 0 : eastCrossings[west];
+        int fromNorth = north < 0 ? 0 : crossings[north].length - eastCrossings[north];
+        int k = own + fromWest + fromNorth;
+        int[] cells = new int[k];
+        System.arraycopy(crossings[cluster], 0, cells, 0, own);
+        for (int i = 0; i < fromWest; i++) {
+            cells[own + i] = crossings[west][i] + 1;
+        }
+        for (int i = 0; i < fromNorth; i++) {
+            cells[own + fromWest + i] = crossings[north][eastCrossings[north] + i] + gridSize;
+        }
+
+        int[] between = new int[k * k];
+        int[] dist = scratch.get().dist;
+        for (int i = 0; i < k; i++) {
+            searchCluster(cluster, cells[i], dist);
+            for (int j = 0; j < k; j++) {
+                between[i * k + j] = dist[localIndex(cluster, cells[j])];
+            }
+        }
+        touchCells[cluster] = cells;
+        touchNodes[cluster] = new int[k];
+        distances[cluster] = between;
+    }
+
+    /*
+     * gives every crossing its node number and tells each node which two cluster slots it sits in
+     */
+    private void numberNodes() {
+        int clusters = crossings.length;
+        // crossing i of cluster c is node offsets[c] + i
+        int[] offsets = new int[clusters + 1];
+        for (int c = 0; c < clusters; c++) {
+            offsets[c + 1] = offsets[c] + crossings[c].length;
+        }
+        int count = offsets[clusters];
+        int[] clustersOf = new int[2 * count];
+        int[] slotsOf = new int[2 * count];
+        int[] cellsOf = new int[2 * count];
+        for (int c = 0; c < clusters; c++) {
+            int[] nodes = touchNodes[c];
+            int own = crossings[c].length;
+            int west = west(c);
+            int north = north(c);
+            int fromWest = west < 0 ? 0 : eastCrossings[west];
+            for (int j = 0; j < nodes.length; j++) {
+                int node;
+                int side;
+                if (j < own) {
+                    node = offsets[c] + j;
+                    side = 0;
+                } else if (j < own + fromWest) {
+                    node = offsets[west] + j - own;
+                    side = 1;
+                } else {
+                    node = offsets[north] + eastCrossings[north] + j - own - fromWest;
+                    side = 1;
+                }
+                nodes[j] = node;
+                clustersOf[2 * node + side] = c;
+                slotsOf[2 * node + side] = j;
+                cellsOf[2 * node + side] = touchCells[c][j];
+            }
+        }
+        nodeClusters = clustersOf;
+        nodeSlots = slotsOf;
+        nodeCells = cellsOf;
+        nodeCount = count;
+    }
+
+    /**
+     * breadth-first search from a cell that never leaves its cluster
+     * @param dist filled with distances by local index, UNREACHED for cells it cannot get to
+     */
+    private void searchCluster(int cluster, int source, int[] dist) {
+        Arrays.fill(dist, UNREACHED);
+        int[] queue = scratch.get().queue;
+        int rowStart = (cluster / clustersPerSide) * clusterSize;
+        int colStart = (cluster % clustersPerSide) * clusterSize;
+        int rows = Math.min(clusterSize, gridSize - rowStart);
+        int cols = Math.min(clusterSize, gridSize - colStart);
+        int head = 0;
+        int tail = 0;
+        int start = localIndex(cluster, source);
+        queue[tail++] = start;
+        dist[start] = 0;
+        while (head < tail) {
+            int local = queue[head++];
+            int r = local / clusterSize;
+            int c = local % clusterSize;
+            int cell = (rowStart + r) * gridSize + colStart + c;
+            int next = dist[local] + 1;
+            if (r > 0 && dist[local - clusterSize] == UNREACHED && grid.hasPassage(cell, MazeGrid.NORTH)) {
+                dist[local - clusterSize] = next;
+                queue[tail++] = local - clusterSize;
+            }
+            if (c + 1 < cols && dist[local + 1] == UNREACHED && grid.hasPassage(cell, MazeGrid.EAST)) {
+                dist[local + 1] = next;
+                queue[tail++] = local + 1;
+            }
+            if (r + 1 < rows && dist[local + clusterSize] == UNREACHED && grid.hasPassage(cell, MazeGrid.SOUTH)) {
+                dist[local + clusterSize] = next;
+                queue[tail++] = local + clusterSize;
+            }
+            if (c > 0 && dist[local - 1] == UNREACHED && grid.hasPassage(cell, MazeGrid.WEST)) {
+                dist[local - 1] = next;
+                queue[tail++] = local - 1;
+            }
+        }
+    }
+
+    /**
+     * walks from target back to the source of a searchCluster result, one step down in distance at a time
+     * @param out where the cells go, target first, the source is not added
+     */
+    private void walkBack(int cluster, int[] dist, int target, IntList out) {
+        int cell = target;
+        while (dist[localIndex(cluster, cell)] > 0) {
+            out.add(cell);
+            int want = dist[localIndex(cluster, cell)] - 1;
+            for (int d = MazeGrid.NORTH; d <= MazeGrid.WEST; d++) {
+                if (grid.hasPassage(cell, d)) {
+                    int neighbor = grid.neighbor(cell, d);
+                    if (clusterOf(neighbor) == cluster && dist[localIndex(cluster, neighbor)] == want) {
+                        cell = neighbor;
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * What one thread keeps between queries: the cluster searches, and the A*
+     * arrays, which are only trusted where stamp matches the current query, so they
+     * never need clearing.
+     */
+    private static class Scratch {
+        final int[] dist;
+        final int[] queue;
+        final int[] fromDist;
+        final int[] toDist;
+        final NodeHeap heap = new NodeHeap();
+        int[] nodeDist = new int[0];
+        int[] previous = new int[0];
+        int[] previousVia = new int[0];
+        int[] stamp = new int[0];
+        int currentStamp;
+
+        Scratch(int clusterCells) {
+            dist = new int[clusterCells];
+            queue = new int[clusterCells];
+            fromDist = new int[clusterCells];
+            toDist = new int[clusterCells];
+        }
+
+        void begin(int nodes) {
+            if (stamp.length < nodes) {
+                nodeDist = new int[nodes];
+                previous = new int[nodes];
+                previousVia = new int[nodes];
+                stamp = new int[nodes];
+                currentStamp = 0;
+            }
+            if (++currentStamp == Integer.MAX_VALUE) {
+                Arrays.fill(stamp, 0);
+                currentStamp = 1;
+            }
+            heap.clear();
+        }
+
+        int distanceOf(int node) {
+            return stamp[node] == currentStamp ? nodeDist[node] : Integer.MAX_VALUE;
+        }
+    }
+
+    /**
+     * One distance or path query: searches the end clusters, then A* over the entrances.
+     */
+    private class Query {
+        private final int from;
+        private final int to;
+        private final int fromCluster;
+        private final int toCluster;
+        private final Scratch own = scratch.get();
+        private int lastNode = -1;   // the entrance the best path leaves the graph from, -1 if it never enters it
+        private int best = Integer.MAX_VALUE;
+
+        Query(int from, int to) {
+            this.from = from;
+            this.to = to;
+            this.fromCluster = clusterOf(from);
+            this.toCluster = clusterOf(to);
+            searchCluster(fromCluster, from, own.fromDist);
+            searchCluster(toCluster, to, own.toDist);
+        }
+
+        /*
+         * a node stands for the middle of its crossing: reaching it from a cell next to it
+         * and leaving it to a cell next to it take one move between them. The heap is ordered
+         * by distance so far plus the straight-line (Manhattan) distance left, which no path
+         * can beat, so the search can stop as soon as that reaches the best path found
+         */
+        int run() {
+            if (fromCluster == toCluster && own.fromDist[localIndex(toCluster, to)] != UNREACHED) {
+                best = own.fromDist[localIndex(toCluster, to)];
+            }
+            own.begin(nodeCount);
+            int[] starts = touchCells[fromCluster];
+            for (int j = 0; j < starts.length; j++) {
+                int d = own.fromDist[localIndex(fromCluster, starts[j])];
+                if (d != UNREACHED) {
+                    relax(touchNodes[fromCluster][j], d + 1, -1, fromCluster);
+                }
+            }
+            while (!own.heap.isEmpty()) {
+                long top = own.heap.pop();
+                int estimate = (int) (top >>> 32);
+                int node = (int) top;
+                if (estimate >= best) {
+                    break;
+                }
+                int d = own.distanceOf(node);
+                if (estimate > d + distanceLeft(node)) {
+                    continue;
+                }
+                for (int side = 0; side < 2; side++) {
+                    int cluster = nodeClusters[2 * node + side];
+                    int i = nodeSlots[2 * node + side];
+                    if (cluster == toCluster) {
+                        int rest = own.toDist[localIndex(toCluster, nodeCells[2 * node + side])];
+                        if (rest != UNREACHED && d + rest < best) {
+                            best = d + rest;
+                            lastNode = node;
+                        }
+                    }
+                    int[] nodes = touchNodes[cluster];
+                    int[] between = distances[cluster];
+                    int k = nodes.length;
+                    for (int j = 0; j < k; j++) {
+                        int w = between[i * k + j];
+                        if (w != UNREACHED && j != i) {
+                            relax(nodes[j], d + w + 1, node, cluster);
+                        }
+                    }
+                }
+            }
+            return best == Integer.MAX_VALUE ? -1 : best;
+        }
+
+        private void relax(int next, int d, int node, int via) {
+            if (d < own.distanceOf(next)) {
+                own.stamp[next] = own.currentStamp;
+                own.nodeDist[next] = d;
+                own.previous[next] = node;
+                own.previousVia[next] = via;
+                own.heap.push(d + distanceLeft(next), next);
+            }
+        }
+
+        private int distanceLeft(int node) {
+            int toRow = to / gridSize;
+            int toCol = to % gridSize;
+            int a = nodeCells[2 * node];
+            int b = nodeCells[2 * node + 1];
+            int viaA = Math.abs(a / gridSize - toRow) + Math.abs(a % gridSize - toCol);
+            int viaB = Math.abs(b / gridSize - toRow) + Math.abs(b % gridSize - toCol);
+            return Math.min(viaA, viaB);
+        }
+
+        /**
+         * turns the best route through the entrances back into cells
+         */
+        int[] refine() {
+            // the cells to pass through in order: the two sides of each crossing used and the ends
+            IntList waypoints = new IntList();
+            waypoints.add(to);
+            if (lastNode >= 0) {
+                waypoints.add(cellIn(lastNode, toCluster));
+                int node = lastNode;
+                while (node >= 0) {
+                    int via = own.previousVia[node];
+                    int before = own.previous[node];
+                    waypoints.add(cellIn(node, via));
+                    waypoints.add(before >= 0 ? cellIn(before, via) : from);
+                    node = before;
+                }
+            } else {
+                waypoints.add(from);
+            }
+            reverseInPlace(waypoints);
+
+            IntList cells = new IntList();
+            for (int w = 1; w < waypoints.size(); w++) {
+                int a = waypoints.get(w - 1);
+                int b = waypoints.get(w);
+                int cluster = clusterOf(a);
+                if (a == b) {
+                    continue;
+                }
+                if (clusterOf(b) != cluster) {
+                    cells.add(a); // the two sides of a crossing
+                } else {
+                    searchCluster(cluster, b, own.dist);
+                    walkBack(cluster, own.dist, a, cells);
+                }
+            }
+            cells.add(to);
+            return cells.toArray();
+        }
+
+        private int cellIn(int node, int cluster) {
+            return nodeCells[nodeClusters[2 * node] == cluster ? 2 * node : 2 * node + 1];
+        }
+    }
+
+    private static void reverseInPlace(IntList list) {
+        for (int i = 0, j = list.size - 1; i < j; i++, j--) {
+            int swap = list.values[i];
+            list.values[i] = list.values[j];
+            list.values[j] = swap;
+        }
+    }
+
+    /**
+     * Growable int array, so searches do not box every cell.
+     */
+    private static class IntList {
+        int[] values = new int[16];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int get(int i) {
+            return values[i];
+        }
+
+        int size() {
+            return size;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    /**
+     * Binary min-heap of (distance, node) pairs packed into longs, distance in the high half.
+     */
+    private static class NodeHeap {
+        private long[] heap = new long[64];
+        private int size;
+
+        void push(int distance, int node) {
+            if (size == heap.length) {
+                heap = Arrays.copyOf(heap, size * 2);
+            }
+            long value = ((long) distance << 32) | (node & 0xFFFFFFFFL);
+            int i = size++;
+            while (i > 0 && heap[(i - 1) >>> 1] > value) {
+                heap[i] = heap[(i - 1) >>> 1];
+                i = (i - 1) >>> 1;
+            }
+            heap[i] = value;
+        }
+
+        long pop() {
+            long top = heap[0];
+            long last = heap[--size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && heap[child + 1] < heap[child]) {
+                    child++;
+                }
+                if (heap[child] >= last) {
+                    break;
+                }
+                heap[i] = heap[child];
+                i = child;
+            }
+            heap[i] = last;
+            return top;
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package analysis;
+
+import generators.MazeGrid;
+
+/**
+ * The two cells of a maze that are furthest apart by path, for putting the start
+ * and the exit as far from each other as the maze allows.
+ *
+ * Found with two breadth-first searches: the cell furthest from any cell is one end
+ * of the longest path, and the cell furthest from that is the other end. This is
+ * exact when the maze is a tree (a perfect maze). With loops (a braided maze) it is
+ * still a long path, just not always the longest. Both searches share one GridSearch,
+ * so the whole thing is O(cells) with a single int array and bitset.
+ */
+public class MazeDiameter {
+    private final int startCell;
+    private final int endCell;
+    private final int length;
+
+    private MazeDiameter(int startCell, int endCell, int length) {
+        this.startCell = startCell;
+        this.endCell = endCell;
+        this.length = length;
+    }
+
+    /**
+     * method to find the ends of the longest path through a maze
+     * @param grid the maze, every cell should be reachable
+     * @return the two ends and the path length between them
+     */
+    public static MazeDiameter of(MazeGrid grid) {
+        return of(new GridSearch(grid));
+    }
+
+    /**
+     * method to find the ends of the longest path, reusing a search that was already set up for the grid
+     * @param search a search over the maze
+     * @return the two ends and the path length between them
+     */
+    public static MazeDiameter of(GridSearch search) {
+        search.eccentricity(0);
+        int first = search.getLastCell();
+        int length = search.eccentricity(first);
+        return new MazeDiameter(first, search.getLastCell(), length);
+    }
+
+    public int getStartCell() {
+        return startCell;
+    }
+
+    public int getEndCell() {
+        return endCell;
+    }
+
+    /**
+     * @return the number of moves between the two ends
+     */
+    public int getLength() {
+        return length;
+    }
+}
@@ -0,0 +1,261 @@
+package analysis;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import generators.Algorithm;
+import generators.Algorithm.Generation;
+import generators.MazeGrid;
+import generators.MazeStepper;
+
+/**
+ * Picks a maze that meets a difficulty target, such as "solution at least 400 moves
+ * and at most 2000 dead ends", by generating candidates in parallel with different
+ * seeds and grading each one with MazeStatistics as soon as it is carved.
+ *
+ * Candidate i always gets the same seed for a given base seed, and the selector
+ * returns the lowest-numbered candidate that meets the target. Once one is found,
+ * workers stop starting candidates after it and give up the ones after it they are
+ * still carving, so the answer is the same however the threads happen to run. If none
+ * of maxCandidates meets the target, the one closest to it is returned.
+ *
+ * Each worker thread keeps its own search buffers between candidates so grading does
+ * not allocate a new queue per maze, and hands the generation of a maze it threw away
+ * to the next candidate, so the algorithms whose generators can start over (see
+ * Algorithm.start) carve into the same buffers every time. Nothing but the search
+ * buffers is kept once select returns.
+ */
+public class MazeSelector {
+    // how many generation steps a worker takes between checks that its candidate can still win
+    static final int STEPS_BETWEEN_CHECKS = 4096;
+
+    private final Algorithm algorithm;
+    private final int gridSize;
+    private final double braidProbability;
+    private final ExecutorService executor;
+    private final int parallelism;
+    private final ThreadLocal<Scratch> scratch;
+
+    /**
+     * constructor
+     * @param algorithm the algorithm to generate candidates with
+     * @param gridSize the size of the grid
+     * @param braidProbability the probability of opening extra walls, 0 for perfect mazes
+     * @param executor the threads to generate on
+     * @param parallelism how many candidates to work on at once
+     */
+    public MazeSelector(Algorithm algorithm, int gridSize, double braidProbability,
+                        ExecutorService executor, int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism must be positive, got " + parallelism);
+        }
+        this.algorithm = algorithm;
+        this.gridSize = gridSize;
+        this.braidProbability = braidProbability;
+        this.executor = executor;
+        this.parallelism = parallelism;
+        int cells = gridSize * gridSize;
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(new GridSearch(cells)));
+    }
+
+    /**
+     * method to find a maze that meets a target
+     * @param baseSeed the seed the candidate seeds are derived from
+     * @param target what the maze has to meet
+     * @param maxCandidates the most candidates to try
+     * @return the first candidate that meets the target, or the closest one if none does
+     * @throws InterruptedException if interrupted while waiting for the workers
+     */
+    public Selection select(long baseSeed, Target target, int maxCandidates) throws InterruptedException {
+        AtomicInteger nextCandidate = new AtomicInteger();
+        AtomicInteger firstMet = new AtomicInteger(Integer.MAX_VALUE);
+        List<Future<Selection>> workers = new ArrayList<>();
+        for (int w = 0; w < parallelism; w++) {
+            workers.add(executor.submit(() -> {
+                Selection best = null;
+                try {
+                    while (true) {
+                        int candidate = nextCandidate.getAndIncrement();
+                        // candidates after one that already met the target can never be the answer
+                        if (candidate >= maxCandidates || candidate > firstMet.get()) {
+                            return best;
+                        }
+                        Selection selection = evaluate(candidate, candidateSeed(baseSeed, candidate), target, firstMet);
+                        if (selection == null) {
+                            return best;
+                        }
+                        if (selection.meetsTarget()) {
+                            firstMet.accumulateAndGet(candidate, Math::min);
+                        }
+                        if (best == null || selection.isBetterThan(best)) {
+                            if (best != null) {
+                                scratch.get().spare = best.generation;
+                            }
+                            best = selection;
+                        } else {
+                            scratch.get().spare = selection.generation;
+                        }
+                    }
+                } finally {
+                    // the executor's threads outlive this call, so they must not keep a thrown away maze alive
+                    scratch.get().spare = null;
+                }
+            }));
+        }
+
+        Selection best = null;
+        for (Future<Selection> worker : workers) {
+            try {
+                Selection selection = worker.get();
+                if (selection != null && (best == null || selection.isBetterThan(best))) {
+                    best = selection;
+                }
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Generating a candidate maze failed.", e.getCause());
+            }
+        }
+        if (best != null) {
+            best.candidatesTried = Math.min(nextCandidate.get(), maxCandidates);
+        }
+        return best;
+    }
+
+    /*
+     * carves and grades one candidate, or returns null once an earlier candidate has met
+     * the target, since this one can no longer be the answer
+     */
+    private Selection evaluate(int candidate, long seed, Target target, AtomicInteger firstMet) {
+        Scratch own = scratch.get();
+        Generation generation = algorithm.start(gridSize, seed, own.spare);
+        own.spare = null;
+        MazeStepper stepper = generation.getStepper();
+        while (!stepper.step(STEPS_BETWEEN_CHECKS)) {
+            if (candidate > firstMet.get()) {
+                own.spare = generation;
+                return null;
+            }
+        }
+        generation.braid(braidProbability);
+        MazeGrid grid = generation.getMazeGrid();
+        MazeStatistics stats = MazeStatistics.of(grid, grid.cellAt(gridSize - 1, 0), grid.cellAt(0, gridSize - 1), own.search);
+        return new Selection(candidate, seed, generation, stats, target.shortfall(stats));
+    }
+
+    /**
+     * @return true if the calling thread holds on to a thrown away generation
+     */
+    boolean holdsSpare() {
+        return scratch.get().spare != null;
+    }
+
+    /**
+     * the seed for candidate i, spread out so neighboring candidates are unrelated
+     */
+    static long candidateSeed(long baseSeed, int candidate) {
+        long z = baseSeed + (candidate + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * What one worker thread keeps between candidates: its search buffers, and the
+     * generation of the last maze it threw away for the next candidate to carve into.
+     * The generation is only kept for the length of one select call.
+     */
+    private static class Scratch {
+        final GridSearch search;
+        Generation spare;
+
+        Scratch(GridSearch search) {
+            this.search = search;
+        }
+    }
+
+    /**
+     * What a maze has to meet: a solution at least minSolutionLength moves long and at most maxDeadEnds dead ends.
+     */
+    public static class Target {
+        private final int minSolutionLength;
+        private final int maxDeadEnds;
+
+        public Target(int minSolutionLength, int maxDeadEnds) {
+            this.minSolutionLength = minSolutionLength;
+            this.maxDeadEnds = maxDeadEnds;
+        }
+
+        /**
+         * @return how far the maze is from the target, 0 if it meets it
+         */
+        long shortfall(MazeStatistics stats) {
+            long tooShort = Math.max(0, minSolutionLength - Math.max(stats.getSolutionLength(), 0));
+            long tooManyDeadEnds = Math.max(0, stats.getDeadEnds() - maxDeadEnds);
+            return tooShort + tooManyDeadEnds;
+        }
+
+        public int getMinSolutionLength() {
+            return minSolutionLength;
+        }
+
+        public int getMaxDeadEnds() {
+            return maxDeadEnds;
+        }
+    }
+
+    /**
+     * The chosen maze, its seed (to make it again) and its statistics.
+     */
+    public static class Selection {
+        private final int candidate;
+        private final long seed;
+        private final Generation generation;
+        private final MazeStatistics statistics;
+        private final long shortfall;
+        private int candidatesTried;
+
+        Selection(int candidate, long seed, Generation generation, MazeStatistics statistics, long shortfall) {
+            this.candidate = candidate;
+            this.seed = seed;
+            this.generation = generation;
+            this.statistics = statistics;
+            this.shortfall = shortfall;
+        }
+
+        boolean isBetterThan(Selection other) {
+            return shortfall < other.shortfall || (shortfall == other.shortfall && candidate < other.candidate);
+        }
+
+        public boolean meetsTarget() {
+            return shortfall == 0;
+        }
+
+        public long getSeed() {
+            return seed;
+        }
+
+        public MazeGrid getMazeGrid() {
+            return generation.getMazeGrid();
+        }
+
+        public MazeStatistics getStatistics() {
+            return statistics;
+        }
+
+        /**
+         * @return which candidate this was, counting from 0
+         */
+        public int getCandidate() {
+            return candidate;
+        }
+
+        /**
+         * @return how many candidates were started before the search stopped
+         */
+        public int getCandidatesTried() {
+            return candidatesTried;
+        }
+    }
+}
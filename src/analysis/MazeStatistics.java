@@ -0,0 +1,239 @@
+package analysis;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import generators.GridScans;
+import generators.MazeGrid;
+
+/**
+ * Grades a finished maze: dead ends, junctions, how long its corridors are, its
+ * "river" factor and how long the solution is. Works on any MazeGrid, so it does
+ * not matter which generator made the maze.
+ *
+ * Cell degrees come from GridScans.degreeCounts, 64 cells at a time instead of
+ * cell by cell. Corridors are walked in bands of rows split across the common
+ * fork-join pool, starting next to the cells GridScans.nonCorridorBits finds.
+ */
+public class MazeStatistics {
+    /** corridors this long or longer all land in the last histogram bucket */
+    public static final int HISTOGRAM_LIMIT = 256;
+    private static final int ROWS_PER_TASK = 64;
+
+    private final int cells;
+    private final int deadEnds;
+    private final int junctions;
+    private final int corridorCells;
+    private final long[] corridorLengths;
+    private final int longestCorridor;
+    private final int solutionLength;
+
+    private MazeStatistics(int cells, long[] degrees, Partial totals, int solutionLength) {
+        this.cells = cells;
+        this.deadEnds = (int) degrees[1];
+        this.junctions = (int) (degrees[3] + degrees[4]);
+        this.corridorCells = (int) degrees[2];
+        this.corridorLengths = totals.corridorLengths;
+        this.longestCorridor = totals.longestCorridor;
+        this.solutionLength = solutionLength;
+    }
+
+    /**
+     * method to grade a maze with the start and end where Maze puts them,
+     * the bottom-left and top-right cells
+     * @param grid the maze
+     * @return its statistics
+     */
+    public static MazeStatistics of(MazeGrid grid) {
+        int size = grid.getGridSize();
+        if (size == 0) {
+            return of(grid, -1, -1);
+        }
+        return of(grid, grid.cellAt(size - 1, 0), grid.cellAt(0, size - 1));
+    }
+
+    /**
+     * method to grade a maze
+     * @param grid the maze
+     * @param startCell where the player starts
+     * @param endCell where the exit is
+     * @return its statistics
+     */
+    public static MazeStatistics of(MazeGrid grid, int startCell, int endCell) {
+        return of(grid, startCell, endCell, startCell < 0 ? null : new GridSearch(grid));
+    }
+
+    /**
+     * method to grade a maze, reusing the buffers of a search for the solution length,
+     * for callers that grade many mazes of the same size
+     * @param grid the maze
+     * @param startCell where the player starts
+     * @param endCell where the exit is
+     * @param search a search sized for the grid, it is pointed at this grid
+     * @return its statistics
+     */
+    public static MazeStatistics of(MazeGrid grid, int startCell, int endCell, GridSearch search) {
+        int size = grid.getGridSize();
+        int tasks = (size + ROWS_PER_TASK - 1) / ROWS_PER_TASK;
+        Partial totals = IntStream.range(0, tasks).parallel()
+            .mapToObj(task -> scanRows(grid, task * ROWS_PER_TASK, Math.min(size, (task + 1) * ROWS_PER_TASK)))
+            .reduce(new Partial(), Partial::merge);
+        int solution = -1;
+        if (startCell >= 0) {
+            search.setMazeGrid(grid);
+            solution = search.distance(startCell, endCell);
+        }
+        return new MazeStatistics(grid.getCellCount(), GridScans.degreeCounts(grid), totals, solution);
+    }
+
+    /**
+     * Walks every corridor that starts in a band of rows. A corridor is a run of cells
+     * with exactly two open sides; each one is walked from both ends and counted from
+     * the end with the lower cell number (so only once).
+     */
+    private static Partial scanRows(MazeGrid grid, int fromRow, int toRow) {
+        Partial partial = new Partial();
+        int wordsPerRow = grid.getWordsPerRow();
+
+        for (int row = fromRow; row < toRow; row++) {
+            for (int w = 0; w < wordsPerRow; w++) {
+                // corridors start next to every cell that is not itself inside a corridor
+                long ends = GridScans.nonCorridorBits(grid, row, w);
+                while (ends != 0) {
+                    int col = (w << 6) + Long.numberOfTrailingZeros(ends);
+                    ends &= ends - 1;
+                    walkCorridorsFrom(grid, grid.cellAt(row, col), partial);
+                }
+            }
+        }
+        return partial;
+    }
+
+    private static void walkCorridorsFrom(MazeGrid grid, int start, Partial partial) {
+        for (int dir = MazeGrid.NORTH; dir <= MazeGrid.WEST; dir++) {
+            if (!grid.hasPassage(start, dir)) {
+                continue;
+            }
+            int previous = start;
+            int current = grid.neighbor(start, dir);
+            int length = 0;
+            while (degree(grid, current) == 2) {
+                length++;
+                int next = -1;
+                for (int d = MazeGrid.NORTH; d <= MazeGrid.WEST; d++) {
+                    int candidate = grid.neighbor(current, d);
+                    if (candidate != previous && grid.hasPassage(current, d)) {
+                        next = candidate;
+                        break;
+                    }
+                }
+                previous = current;
+                current = next;
+            }
+            // current is now the cell at the far end; count the corridor from its lower-numbered end
+            if (length > 0 && (start < current || (start == current && dir < backDirection(grid, current, previous)))) {
+                partial.corridorLengths[Math.min(length, HISTOGRAM_LIMIT)]++;
+                partial.longestCorridor = Math.max(partial.longestCorridor, length);
+            }
+        }
+    }
+
+    /**
+     * the direction from cell to its neighbor previous
+     */
+    private static int backDirection(MazeGrid grid, int cell, int previous) {
+        for (int d = MazeGrid.NORTH; d <= MazeGrid.WEST; d++) {
+            if (grid.neighbor(cell, d) == previous) {
+                return d;
+            }
+        }
+        return -1;
+    }
+
+    static int degree(MazeGrid grid, int cell) {
+        int degree = 0;
+        for (int d = MazeGrid.NORTH; d <= MazeGrid.WEST; d++) {
+            if (grid.hasPassage(cell, d)) {
+                degree++;
+            }
+        }
+        return degree;
+    }
+
+    public int getCellCount() {
+        return cells;
+    }
+
+    /**
+     * @return cells with exactly one open side
+     */
+    public int getDeadEnds() {
+        return deadEnds;
+    }
+
+    /**
+     * @return cells with three or four open sides
+     */
+    public int getJunctions() {
+        return junctions;
+    }
+
+    /**
+     * @return cells with exactly two open sides
+     */
+    public int getCorridorCells() {
+        return corridorCells;
+    }
+
+    /**
+     * How many corridors there are of each length, index i counts corridors of i cells
+     * (index 0 is always 0), the last index counts every corridor of HISTOGRAM_LIMIT
+     * cells or more. Loops made only of corridor cells have no ends and are not counted.
+     * @return a copy of the histogram
+     */
+    public long[] getCorridorLengthHistogram() {
+        return Arrays.copyOf(corridorLengths, corridorLengths.length);
+    }
+
+    public int getLongestCorridor() {
+        return longestCorridor;
+    }
+
+    /**
+     * The share of cells that sit inside a corridor (exactly two open sides). A maze with
+     * a high river factor flows in long winding passages, one with a low river factor
+     * branches constantly into short dead ends.
+     * @return a number from 0 to 1
+     */
+    public double getRiverFactor() {
+        return cells == 0 ? 0 : corridorCells / (double) cells;
+    }
+
+    /**
+     * @return the number of moves on the shortest path from start to end, or -1 if there is none
+     */
+    public int getSolutionLength() {
+        return solutionLength;
+    }
+
+    public String toString() {
+        return String.format("cells=%d deadEnds=%d junctions=%d river=%.3f longestCorridor=%d solution=%d",
+            cells, deadEnds, junctions, getRiverFactor(), longestCorridor, solutionLength);
+    }
+
+    /**
+     * Corridors found in one band of rows, merged together at the end.
+     */
+    private static class Partial {
+        int longestCorridor;
+        final long[] corridorLengths = new long[HISTOGRAM_LIMIT + 1];
+
+        Partial merge(Partial other) {
+            Partial merged = new Partial();
+            merged.longestCorridor = Math.max(longestCorridor, other.longestCorridor);
+            for (int i = 0; i < corridorLengths.length; i++) {
+                merged.corridorLengths[i] = corridorLengths[i] + other.corridorLengths[i];
+            }
+            return merged;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package analysis;
+import java.util.Arrays;
+
+import generators.MazeGrid;
+
+/**
+ * Answers "how far apart are these two cells" and "which way do I go from here"
+ * on a perfect maze without searching. A perfect maze is a spanning tree, so the
+ * path between two cells always goes through their lowest common ancestor (LCA)
+ * and its length is depth(a) + depth(b) - 2 * depth(lca).
+ *
+ * The index roots the tree at cell 0, numbers the cells in depth-first order and
+ * keeps a sparse table of the shallowest cell over every power-of-two range of that
+ * order. An LCA is then two table lookups, so distance is O(1) and the next step
+ * toward a cell is O(1) as well (a cell has at most four neighbors to check).
+ * Everything is kept in int arrays; the table takes about n log2 n ints.
+ *
+ * Built once and never changed, so any number of threads can query it at once.
+ */
+public class TreeDistanceIndex {
+    private final int cellCount;
+    private final int[] parent;
+    private final int[] depth;
+    private final int[] order;      // order[i] is the i-th cell in depth-first order
+    private final int[] entry;      // entry[cell] is its position in order
+    private final int[] exit;       // the last position in order inside the cell's subtree
+    private final int[] childStart; // the children of cell are children[childStart[cell] .. childStart[cell + 1])
+    private final int[] children;
+    private final int[][] shallowest;
+
+    /**
+     * constructor, builds the index
+     * @param grid a perfect maze, every cell reachable by exactly one path
+     * @throws IllegalArgumentException if the maze has loops or cells that cannot be reached
+     */
+    public TreeDistanceIndex(MazeGrid grid) {
+        cellCount = grid.getCellCount();
+        if (cellCount > 0 && grid.countPassages() != cellCount - 1) {
+            throw new IllegalArgumentException("The maze is not a spanning tree: " + grid.countPassages()
+                + " passages for " + cellCount + " cells. Braided mazes need a graph index instead.");
+        }
+        parent = new int[cellCount];
+        depth = new int[cellCount];
+        order = new int[cellCount];
+        entry = new int[cellCount];
+        exit = new int[cellCount];
+        childStart = new int[cellCount + 1];
+        children = new int[Math.max(cellCount - 1, 0)];
+        if (cellCount == 0) {
+            shallowest = new int[0][];
+            return;
+        }
+        linkParents(grid);
+        numberDepthFirst();
+        shallowest = buildSparseTable();
+    }
+
+    /**
+     * Finds each cell's parent with a breadth-first search from cell 0 (reusing order as
+     * the queue), then lays the children out in one array, grouped by parent.
+     */
+    private void linkParents(MazeGrid grid) {
+        int[] queue = order;
+        int head = 0;
+        int tail = 0;
+        parent[0] = -1;
+        queue[tail++] = 0;
+        Arrays.fill(entry, -1); // entry doubles as "not seen yet" while searching
+        entry[0] = 0;
+        while (head < tail) {
+            int cell = queue[head++];
+            for (int d = MazeGrid.NORTH; d <= MazeGrid.WEST; d++) {
+                if (grid.hasPassage(cell, d)) {
+                    int next = grid.neighbor(cell, d);
+                    if (entry[next] < 0) {
+                        entry[next] = 0;
+                        parent[next] = cell;
+                        depth[next] = depth[cell] + 1;
+                        queue[tail++] = next;
+                    }
+                }
+            }
+        }
+        if (tail != cellCount) {
+            throw new IllegalArgumentException("The maze is not a spanning tree: only " + tail + " of "
+                + cellCount + " cells can be reached.");
+        }
+
+        for (int cell = 1; cell < cellCount; cell++) {
+            childStart[parent[cell] + 1]++;
+        }
+        for (int cell = 0; cell < cellCount; cell++) {
+            childStart[cell + 1] += childStart[cell];
+        }
+        int[] fill = exit; // borrowed as the write cursor for each parent, overwritten below
+        System.arraycopy(childStart, 0, fill, 0, cellCount);
+        for (int cell = 1; cell < cellCount; cell++) {
+            children[fill[parent[cell]]++] = cell;
+        }
+    }
+
+    /**
+     * Numbers the cells in depth-first order with an explicit stack, so deep mazes
+     * (a long corridor is a very deep tree) cannot overflow the call stack.
+     */
+    private void numberDepthFirst() {
+        int[] stack = exit; // a cell's exit is only written after it leaves the stack
+        int top = 0;
+        stack[top++] = 0;
+        int next = 0;
+        while (top > 0) {
+            int cell = stack[--top];
+            entry[cell] = next;
+            order[next++] = cell;
+            // push in reverse so the first child is numbered first
+            for (int i = childStart[cell + 1] - 1; i >= childStart[cell]; i--) {
+                stack[top++] = children[i];
+            }
+        }
+        // subtree sizes, children always come after their parent in depth-first order
+        int[] size = new int[cellCount];
+        for (int i = cellCount - 1; i >= 0; i--) {
+            int cell = order[i];
+            size[cell]++;
+            if (parent[cell] >= 0) {
+                size[parent[cell]] += size[cell];
+            }
+        }
+        for (int cell = 0; cell < cellCount; cell++) {
+            exit[cell] = entry[cell] + size[cell] - 1;
+        }
+    }
+
+    private int[][] buildSparseTable() {
+        int levels = 32 - Integer.numberOfLeadingZeros(cellCount);
+        int[][] table = new int[levels][];
+        table[0] = order.clone();
+        for (int k = 1; k < levels; k++) {
+            int half = 1 << (k - 1);
+            int[] below = table[k - 1];
+            int[] level = new int[cellCount - (1 << k) + 1];
+            for (int i = 0; i < level.length; i++) {
+                level[i] = shallower(below[i], below[i + half]);
+            }
+            table[k] = level;
+        }
+        return table;
+    }
+
+    private int shallower(int a, int b) {
+        return depth[a] <= depth[b] ? a : b;
+    }
+
+    /**
+     * method to find the lowest common ancestor of two cells
+     * @param a a cell
+     * @param b another cell
+     * @return the cell where the paths from a and b up to cell 0 meet
+     */
+    public int lowestCommonAncestor(int a, int b) {
+        if (a == b) {
+            return a;
+        }
+        int from = Math.min(entry[a], entry[b]) + 1;
+        int to = Math.max(entry[a], entry[b]);
+        // the shallowest cell strictly after the earlier one and up to the later one is a child of the LCA
+        int k = 31 - Integer.numberOfLeadingZeros(to - from + 1);
+        return parent[shallower(shallowest[k][from], shallowest[k][to - (1 << k) + 1])];
+    }
+
+    /**
+     * method to find the path length between two cells
+     * @param a a cell
+     * @param b another cell
+     * @return the number of moves from a to b
+     */
+    public int distance(int a, int b) {
+        return depth[a] + depth[b] - 2 * depth[lowestCommonAncestor(a, b)];
+    }
+
+    /**
+     * method to find the first move on the path from one cell to another
+     * @param from the cell to move from
+     * @param to the cell to reach
+     * @return the neighbor of from on the path to to, or from itself if they are the same cell
+     */
+    public int nextStepToward(int from, int to) {
+        if (from == to) {
+            return from;
+        }
+        if (!isAncestor(from, to)) {
+            return parent[from];
+        }
+        // to is below from: step into the child whose subtree holds it (at most four to check)
+        for (int i = childStart[from]; i < childStart[from + 1]; i++) {
+            if (isAncestor(children[i], to)) {
+                return children[i];
+            }
+        }
+        throw new IllegalStateException("Cell " + to + " is below " + from + " but under none of its children.");
+    }
+
+    /**
+     * @return true if a is b or lies on the path from b up to cell 0
+     */
+    public boolean isAncestor(int a, int b) {
+        return entry[a] <= entry[b] && entry[b] <= exit[a];
+    }
+
+    /**
+     * @return the number of moves from cell 0 to the cell
+     */
+    public int depthOf(int cell) {
+        return depth[cell];
+    }
+
+    public int getCellCount() {
+        return cellCount;
+    }
+}
@@ -0,0 +1,336 @@
+package export;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import generators.MazeGrid;
+
+/**
+ * Writes a maze out as a PNG or SVG file without a window and without building Line
+ * objects, so it works headless and for mazes far too big to draw on a canvas.
+ *
+ * The PNG is a 1-bit black and white image written in horizontal strips. A batch of
+ * strips (one per pool thread) is rasterized and compressed in parallel, then the
+ * batch is written out in order before the next one starts, so memory follows the
+ * strip size, not the image size. A strip is cellRowsPerStrip rows of cells, cut
+ * down to as many pixel rows as fit in a byte budget (at least one) when the image
+ * is wide. Each strip is compressed on its own and flushed to
+ * a byte boundary, and the compressed strips are joined into one zlib stream: the
+ * writer adds the header, and the checksum is built by combining each strip's.
+ *
+ * Walls are wallPixels thick and cells are cellPixels apart, so the image is
+ * gridSize * cellPixels + wallPixels pixels square. The SVG uses the same layout.
+ */
+public class MazeImageExporter {
+    public static final int DEFAULT_CELL_ROWS_PER_STRIP = 64;
+    /** the most raw bytes a strip holds, unless a single pixel row is bigger */
+    public static final int DEFAULT_STRIP_BYTES = 16 << 20;
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final int ADLER_BASE = 65521;
+
+    private final int cellPixels;
+    private final int wallPixels;
+    private final int cellRowsPerStrip;
+    private final int stripBytes;
+
+    /**
+     * constructor
+     * @param cellPixels the distance between walls, in pixels
+     * @param wallPixels how thick the walls are, in pixels
+     */
+    public MazeImageExporter(int cellPixels, int wallPixels) {
+        this(cellPixels, wallPixels, DEFAULT_CELL_ROWS_PER_STRIP);
+    }
+
+    /**
+     * constructor
+     * @param cellPixels the distance between walls, in pixels
+     * @param wallPixels how thick the walls are, in pixels
+     * @param cellRowsPerStrip how many rows of cells each PNG strip holds
+     */
+    public MazeImageExporter(int cellPixels, int wallPixels, int cellRowsPerStrip) {
+        this(cellPixels, wallPixels, cellRowsPerStrip, DEFAULT_STRIP_BYTES);
+    }
+
+    /**
+     * constructor
+     * @param cellPixels the distance between walls, in pixels
+     * @param wallPixels how thick the walls are, in pixels
+     * @param cellRowsPerStrip how many rows of cells each PNG strip holds at most
+     * @param stripBytes how many raw bytes each PNG strip holds at most, though a strip
+     *        always gets at least one pixel row
+     */
+    public MazeImageExporter(int cellPixels, int wallPixels, int cellRowsPerStrip, int stripBytes) {
+        if (wallPixels < 1 || cellPixels <= wallPixels) {
+            throw new IllegalArgumentException("Need 1 <= wallPixels < cellPixels, got " + wallPixels + " and " + cellPixels);
+        }
+        if (cellRowsPerStrip < 1) {
+            throw new IllegalArgumentException("cellRowsPerStrip must be positive, got " + cellRowsPerStrip);
+        }
+        if (stripBytes < 1) {
+            throw new IllegalArgumentException("stripBytes must be positive, got " + stripBytes);
+        }
+        this.cellPixels = cellPixels;
+        this.wallPixels = wallPixels;
+        this.cellRowsPerStrip = cellRowsPerStrip;
+        this.stripBytes = stripBytes;
+    }
+
+    /**
+     * @return the width and height of the image for a maze, in pixels
+     */
+    public long imageSize(MazeGrid grid) {
+        return (long) grid.getGridSize() * cellPixels + wallPixels;
+    }
+
+    /**
+     * method to write a maze as a PNG, strips are rendered on the common ForkJoinPool
+     * @param grid the maze
+     * @param out where the PNG goes, it is not closed
+     * @throws IOException if writing fails
+     */
+    public void writePng(MazeGrid grid, OutputStream out) throws IOException {
+        writePng(grid, out, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * method to write a maze as a PNG
+     * @param grid the maze
+     * @param out where the PNG goes, it is not closed
+     * @param pool the pool to render strips on, as many strips are held at once as it has threads
+     * @throws IOException if writing fails
+     */
+    public void writePng(MazeGrid grid, OutputStream out, ForkJoinPool pool) throws IOException {
+        long size = imageSize(grid);
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("A " + size + " pixel wide image is too big for PNG.");
+        }
+        int pixels = (int) size;
+        // each row is a filter byte (0, none) and the packed pixels
+        int rowBytes = 1 + (pixels + 7) / 8;
+        long cellRowPixels = (long) cellRowsPerStrip * cellPixels;
+        int stripPixelRows = (int) Math.min(cellRowPixels, Math.max(1, stripBytes / rowBytes));
+        int strips = (pixels - 1) / stripPixelRows + 1;
+        int batch = Math.max(1, pool.getParallelism());
+
+        DataOutputStream data = new DataOutputStream(out);
+        data.write(PNG_SIGNATURE);
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        DataOutputStream headerData = new DataOutputStream(header);
+        headerData.writeInt(pixels);
+        headerData.writeInt(pixels);
+        // 1 bit per pixel, grayscale, deflate, no filtering choice, not interlaced
+        headerData.write(new byte[] {1, 0, 0, 0, 0});
+        writeChunk(data, "IHDR", header.toByteArray(), header.size());
+        // the zlib header: deflate with a 32K window, default level
+        writeChunk(data, "IDAT", new byte[] {0x78, (byte) 0x9C}, 2);
+
+        long adler = 1;
+        for (int first = 0; first < strips; first += batch) {
+            int from = first;
+            int to = Math.min(strips, first + batch);
+            Strip[] done = pool.submit(() -> IntStream.range(from, to).parallel()
+                .mapToObj(strip -> renderStrip(grid, pixels, rowBytes, strip, stripPixelRows, strip == strips - 1))
+                .toArray(Strip[]::new)).join();
+            for (Strip strip : done) {
+                adler = combineAdler(adler, strip.adler, strip.rawLength);
+                if (strip.last) {
+                    strip.compressed.write(new byte[] {
+                        (byte) (adler >>> 24), (byte) (adler >>> 16), (byte) (adler >>> 8), (byte) adler});
+                }
+                writeChunk(data, "IDAT", strip.compressed.toByteArray(), strip.compressed.size());
+            }
+        }
+        writeChunk(data, "IEND", new byte[0], 0);
+        data.flush();
+    }
+
+    /**
+     * One rendered strip: its compressed bytes and what the checksum needs to know about the raw ones.
+     */
+    private static class Strip {
+        final ByteArrayOutputStream compressed;
+        final long adler;
+        final long rawLength;
+        final boolean last;
+
+        Strip(ByteArrayOutputStream compressed, long adler, long rawLength, boolean last) {
+            this.compressed = compressed;
+            this.adler = adler;
+            this.rawLength = rawLength;
+            this.last = last;
+        }
+    }
+
+    private Strip renderStrip(MazeGrid grid, int pixels, int rowBytes, int strip, int stripPixelRows, boolean last) {
+        int firstRow = Math.multiplyExact(strip, stripPixelRows);
+        int rows = Math.min(stripPixelRows, pixels - firstRow);
+        byte[] raw = new byte[Math.multiplyExact(rows, rowBytes)];
+        for (int i = 0; i < rows; i++) {
+            int y = firstRow + i;
+            int offset = i * rowBytes;
+            boolean repeat = i > 0 && y % cellPixels > wallPixels;
+            if (repeat) {
+                // every row inside a cell row looks the same
+                System.arraycopy(raw, offset - rowBytes, raw, offset, rowBytes);
+            } else {
+                renderRow(grid, y, raw, offset, rowBytes);
+            }
+        }
+
+        Adler32 checksum = new Adler32();
+        checksum.update(raw);
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        deflater.setInput(raw);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(raw.length / 8 + 64);
+        byte[] buffer = new byte[8192];
+        if (last) {
+            deflater.finish();
+            while (!deflater.finished()) {
+                compressed.write(buffer, 0, deflater.deflate(buffer));
+            }
+        } else {
+            // a sync flush ends on a byte boundary, so the next strip's bytes can follow straight on
+            int written;
+            do {
+                written = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+                compressed.write(buffer, 0, written);
+            } while (written == buffer.length);
+        }
+        deflater.end();
+        return new Strip(compressed, checksum.getValue(), raw.length, last);
+    }
+
+    /*
+     * draws pixel row y: white everywhere, then black posts and walls
+     */
+    private void renderRow(MazeGrid grid, int y, byte[] raw, int offset, int rowBytes) {
+        Arrays.fill(raw, offset + 1, offset + rowBytes, (byte) 0xFF);
+        raw[offset] = 0;
+        int size = grid.getGridSize();
+        int cellRow = y / cellPixels;
+        boolean onHorizontalWall = y % cellPixels < wallPixels;
+        for (int col = 0; col <= size; col++) {
+            int x = col * cellPixels;
+            if (onHorizontalWall) {
+                black(raw, offset + 1, x, x + wallPixels);
+                boolean wall = cellRow == 0 || cellRow == size || !grid.hasPassage(cellRow - 1, col, MazeGrid.SOUTH);
+                if (col < size && wall) {
+                    black(raw, offset + 1, x + wallPixels, x + cellPixels);
+                }
+            } else if (col == 0 || col == size || !grid.hasPassage(cellRow, col - 1, MazeGrid.EAST)) {
+                black(raw, offset + 1, x, x + wallPixels);
+            }
+        }
+    }
+
+    /*
+     * clears pixels [from, to) of a packed row, most significant bit first
+     */
+    private static void black(byte[] row, int start, int from, int to) {
+        while (from < to && (from & 7) != 0) {
+            row[start + (from >>> 3)] &= (byte) ~(0x80 >>> (from & 7));
+            from++;
+        }
+        while (from + 8 <= to) {
+            row[start + (from >>> 3)] = 0;
+            from += 8;
+        }
+        while (from < to) {
+            row[start + (from >>> 3)] &= (byte) ~(0x80 >>> (from & 7));
+            from++;
+        }
+    }
+
+    private static void writeChunk(DataOutputStream out, String type, byte[] data, int length) throws IOException {
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(data, 0, length);
+        out.writeInt(length);
+        out.write(typeBytes);
+        out.write(data, 0, length);
+        out.writeInt((int) crc.getValue());
+    }
+
+    /**
+     * the Adler-32 of two byte runs one after the other, from the checksum of each
+     * and the length of the second (the same sums zlib's adler32_combine does)
+     */
+    static long combineAdler(long first, long second, long secondLength) {
+        long remainder = secondLength % ADLER_BASE;
+        long sum1 = first & 0xFFFF;
+        long sum2 = (remainder * sum1) % ADLER_BASE;
+        sum1 += (second & 0xFFFF) + ADLER_BASE - 1;
+        sum2 += ((first >>> 16) & 0xFFFF) + ((second >>> 16) & 0xFFFF) + ADLER_BASE - remainder;
+        sum1 %= ADLER_BASE;
+        sum2 %= ADLER_BASE;
+        return sum1 | (sum2 << 16);
+    }
+
+    /**
+     * method to write a maze as an SVG, a single path holding every wall with each
+     * straight run drawn as one segment, the horizontal runs first and then the vertical ones
+     * @param grid the maze
+     * @param out where the SVG goes, it is not closed
+     * @throws IOException if writing fails
+     */
+    public void writeSvg(MazeGrid grid, OutputStream out) throws IOException {
+        int size = grid.getGridSize();
+        long pixels = imageSize(grid);
+        double half = wallPixels / 2.0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"" + pixels + "\" height=\"" + pixels
+            + "\" viewBox=\"0 0 " + pixels + " " + pixels + "\">\n");
+        writer.write("<rect width=\"100%\" height=\"100%\" fill=\"white\"/>\n");
+        writer.write("<path stroke=\"black\" stroke-width=\"" + wallPixels + "\" stroke-linecap=\"square\" fill=\"none\" d=\"");
+
+        // horizontal walls: boundary b sits above row b
+        for (int boundary = 0; boundary <= size; boundary++) {
+            int runStart = -1;
+            for (int col = 0; col <= size; col++) {
+                boolean wall = col < size && (boundary == 0 || boundary == size
+                    || !grid.hasPassage(boundary - 1, col, MazeGrid.SOUTH));
+                if (wall && runStart < 0) {
+                    runStart = col;
+                } else if (!wall && runStart >= 0) {
+                    writer.write("M" + format(runStart * (double) cellPixels + half) + " " + format(boundary * (double) cellPixels + half)
+                        + "h" + ((col - runStart) * cellPixels));
+                    runStart = -1;
+                }
+            }
+        }
+        // vertical walls: boundary b sits left of column b
+        for (int boundary = 0; boundary <= size; boundary++) {
+            int runStart = -1;
+            for (int row = 0; row <= size; row++) {
+                boolean wall = row < size && (boundary == 0 || boundary == size
+                    || !grid.hasPassage(row, boundary - 1, MazeGrid.EAST));
+                if (wall && runStart < 0) {
+                    runStart = row;
+                } else if (!wall && runStart >= 0) {
+                    writer.write("M" + format(boundary * (double) cellPixels + half) + " " + format(runStart * (double) cellPixels + half)
+                        + "v" + ((row - runStart) * cellPixels));
+                    runStart = -1;
+                }
+            }
+        }
+        writer.write("\"/>\n</svg>\n");
+        writer.flush();
+    }
+
+    private static String format(double value) {
+        return value == Math.rint(value) ? Long.toString((long) value) : Double.toString(value);
+    }
+}
@@ -0,0 +1,230 @@
+package generators;
+import java.util.function.DoubleConsumer;
+import java.util.function.Supplier;
+
+/**
+ * The maze generation algorithms, each able to produce a finished MazeGrid from a
+ * grid size and a seed. The same algorithm, size, seed and braid probability always
+ * give the same maze.
+ */
+public enum Algorithm {
+    PRIMS((gridSize, seed) -> {
+        PrimsAlgorithmGenerator generator = new PrimsAlgorithmGenerator(gridSize, seed);
+        return new Generation(generator, generator::generateMaze, generator::stepper,
+            generator::addRandomEdges, generator::getMazeGrid);
+    }),
+    WILSONS((gridSize, seed) -> {
+        WilsonsAlgorithmGenerator generator = new WilsonsAlgorithmGenerator(gridSize, seed);
+        return new Generation(generator, generator::generateMaze, generator::stepper,
+            generator::addRandomEdges, generator::getMazeGrid);
+    }),
+    RECURSIVE_BACKTRACKING((gridSize, seed) -> {
+        RecursiveBacktrackingAlgorithmGenerator generator = new RecursiveBacktrackingAlgorithmGenerator(gridSize, seed);
+        Supplier<MazeStepper> stepper = () -> generator.stepper(gridSize > 1 ? generator.getRandomNode() : null);
+        // the stepper keeps the backtracking on its own stack, generateMaze recurses once per cell
+        // and overflows the call stack on big grids
+        Runnable wholeMaze = () -> {
+            MazeStepper steps = stepper.get();
+            while (!steps.step(Integer.MAX_VALUE)) {
+                // runs to the end in one go
+            }
+        };
+        return new Generation(generator, wholeMaze, stepper, generator::addRandomEdges, generator::getMazeGrid);
+    }),
+    GROWING_TREE((gridSize, seed) -> {
+        GrowingTreeGenerator generator = new GrowingTreeGenerator(gridSize, GrowingTreeGenerator.Policy.MIXED, seed);
+        return new Generation(generator, generator::generateMaze, generator::stepper,
+            generator::addRandomEdges, generator::getMazeGrid);
+    }) {
+        @Override
+        public Generation start(int gridSize, long seed, Generation reuse) {
+            GrowingTreeGenerator generator = reusable(reuse, GrowingTreeGenerator.class, gridSize);
+            if (generator == null) {
+                return super.start(gridSize, seed, null);
+            }
+            generator.reseed(seed);
+            return reuse.again();
+        }
+    },
+    SIDEWINDER((gridSize, seed) -> {
+        SidewinderGenerator generator = new SidewinderGenerator(gridSize, seed);
+        return new Generation(generator, generator::generateMaze, generator::stepper,
+            generator::addRandomEdges, generator::getMazeGrid);
+    }),
+    BINARY_TREE((gridSize, seed) -> {
+        BinaryTreeGenerator generator = new BinaryTreeGenerator(gridSize, seed);
+        return new Generation(generator, generator::generateMaze, generator::stepper,
+            generator::addRandomEdges, generator::getMazeGrid);
+    }),
+    HUNT_AND_KILL((gridSize, seed) -> {
+        HuntAndKillGenerator generator = new HuntAndKillGenerator(gridSize, seed);
+        return new Generation(generator, generator::generateMaze, generator::stepper,
+            generator::addRandomEdges, generator::getMazeGrid);
+    }) {
+        @Override
+        public Generation start(int gridSize, long seed, Generation reuse) {
+            HuntAndKillGenerator generator = reusable(reuse, HuntAndKillGenerator.class, gridSize);
+            if (generator == null) {
+                return super.start(gridSize, seed, null);
+            }
+            generator.reseed(seed);
+            return reuse.again();
+        }
+    },
+    RECURSIVE_DIVISION((gridSize, seed) -> {
+        RecursiveDivisionGenerator generator = new RecursiveDivisionGenerator(gridSize, seed);
+        return new Generation(generator, generator::generateMaze, generator::stepper,
+            generator::addRandomEdges, generator::getMazeGrid);
+    }),
+    PARALLEL_WILSONS((gridSize, seed) -> {
+        ParallelWilsonsGenerator generator = new ParallelWilsonsGenerator(gridSize, seed);
+        return new Generation(generator, generator::generateMaze, generator::stepper,
+            generator::addRandomEdges, generator::getMazeGrid);
+    }),
+    WEIGHTED_PRIMS((gridSize, seed) -> {
+        WeightedPrimsGenerator generator = new WeightedPrimsGenerator(gridSize, seed);
+        return new Generation(generator, generator::generateMaze, generator::stepper,
+            generator::addRandomEdges, generator::getMazeGrid);
+    }) {
+        @Override
+        public Generation start(int gridSize, long seed, Generation reuse) {
+            WeightedPrimsGenerator generator = reusable(reuse, WeightedPrimsGenerator.class, gridSize);
+            if (generator == null) {
+                return super.start(gridSize, seed, null);
+            }
+            generator.reseed(seed);
+            return reuse.again();
+        }
+    };
+
+    private final Factory factory;
+
+    Algorithm(Factory factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * method to generate a maze with this algorithm
+     * @param gridSize the size of the grid
+     * @param seed the seed for the random number generator
+     * @param braidProbability the probability of opening each remaining wall afterwards, 0 for a perfect maze
+     * @return the finished maze
+     */
+    public MazeGrid generate(int gridSize, long seed, double braidProbability) {
+        Generation generation = factory.create(gridSize, seed);
+        generation.wholeMaze.run();
+        generation.braid(braidProbability);
+        return generation.getMazeGrid();
+    }
+
+    /**
+     * method to start a generation that can be advanced a few steps at a time,
+     * it carves the same maze generate would for the same size and seed
+     * @param gridSize the size of the grid
+     * @param seed the seed for the random number generator
+     * @return the stepper, nothing is carved until it is stepped
+     */
+    public MazeStepper stepper(int gridSize, long seed) {
+        return factory.create(gridSize, seed).getStepper();
+    }
+
+    /**
+     * method to start a maze that can be stepped, given up part way, and braided once
+     * finished; stepping it to the end then braiding gives the maze generate makes for
+     * the same size, seed and braid probability
+     * @param gridSize the size of the grid
+     * @param seed the seed for the random number generator
+     * @param reuse an earlier generation of this algorithm whose maze is no longer needed, or null.
+     *              Growing tree, hunt and kill and weighted Prim's carve the new maze with its
+     *              generator and buffers when the size matches, the other algorithms ignore it
+     * @return the generation, nothing is carved until its stepper is stepped
+     */
+    public Generation start(int gridSize, long seed, Generation reuse) {
+        return factory.create(gridSize, seed);
+    }
+
+    private static <T> T reusable(Generation reuse, Class<T> type, int gridSize) {
+        if (reuse == null || !type.isInstance(reuse.generator) || reuse.getMazeGrid().getGridSize() != gridSize) {
+            return null;
+        }
+        return type.cast(reuse.generator);
+    }
+
+    /**
+     * method to generate a perfect maze (no loops) with this algorithm
+     * @param gridSize the size of the grid
+     * @param seed the seed for the random number generator
+     * @return the finished maze
+     */
+    public MazeGrid generate(int gridSize, long seed) {
+        return generate(gridSize, seed, 0);
+    }
+
+    /**
+     * Makes a new generator for a size and seed, wrapped in a Generation.
+     */
+    private interface Factory {
+        Generation create(int gridSize, long seed);
+    }
+
+    /**
+     * A maze being generated, see start. Its maze is carved in place, so passing it as
+     * reuse to the next start overwrites the maze.
+     */
+    public static final class Generation {
+        private final Object generator;
+        private final Runnable wholeMaze;
+        private final Supplier<MazeStepper> newStepper;
+        private final DoubleConsumer braid;
+        private final Supplier<MazeGrid> grid;
+        private MazeStepper stepper;
+
+        /**
+         * constructor
+         * @param generator the generator, kept so start can reuse it
+         * @param wholeMaze generates the maze in one go
+         * @param newStepper starts the generator over and returns a stepper for it
+         * @param braid opens extra walls with a probability
+         * @param grid the generator's maze
+         */
+        Generation(Object generator, Runnable wholeMaze, Supplier<MazeStepper> newStepper,
+                   DoubleConsumer braid, Supplier<MazeGrid> grid) {
+            this.generator = generator;
+            this.wholeMaze = wholeMaze;
+            this.newStepper = newStepper;
+            this.braid = braid;
+            this.grid = grid;
+        }
+
+        /**
+         * a new generation on the same generator, its stepper starts over
+         */
+        Generation again() {
+            return new Generation(generator, wholeMaze, newStepper, braid, grid);
+        }
+
+        /**
+         * @return the stepper, made the first time it is asked for
+         */
+        public MazeStepper getStepper() {
+            if (stepper == null) {
+                stepper = newStepper.get();
+            }
+            return stepper;
+        }
+
+        /**
+         * method to open extra walls once the stepper is done, like generate does
+         * @param probability the probability of opening each remaining wall
+         */
+        public void braid(double probability) {
+            if (probability > 0) {
+                braid.accept(probability);
+            }
+        }
+
+        public MazeGrid getMazeGrid() {
+            return grid.get();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package generators;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The binary tree algorithm: every cell opens either its north or its east wall at
+ * random (top row cells can only go east, right column cells only north). No cell
+ * looks at any other, so a whole 64-cell word is decided with one random long and
+ * every row can be carved at the same time. The mazes have a strong diagonal bias
+ * and an open top row and right column, but nothing is faster for bulk mazes.
+ */
+public class BinaryTreeGenerator {
+    private final int gridSize;
+    private final long seed;
+    private final MazeGrid passages;
+    private final Random random;
+    private long stepCount;
+
+    /**
+     * constructor
+     * @param gridSize the size of the grid
+     */
+    public BinaryTreeGenerator(int gridSize) {
+        this(gridSize, new Random().nextLong());
+    }
+
+    /**
+     * seeded constructor, the same seed always carves the same maze
+     * @param gridSize the size of the grid
+     * @param seed the seed for the random number generator
+     */
+    public BinaryTreeGenerator(int gridSize, long seed) {
+        this.gridSize = gridSize;
+        this.seed = seed;
+        this.passages = new MazeGrid(gridSize);
+        this.random = new Random(seed);
+    }
+
+    /**
+     * method to generate the maze in one go, rows are split across the common ForkJoinPool
+     */
+    public void generateMaze() {
+        generateMaze(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * method to generate the maze in one go, the carve listener is not told about passages carved this way
+     * @param pool the pool to split the rows across
+     */
+    public void generateMaze(ForkJoinPool pool) {
+        RowParallel.carveAll(passages, pool, this::carveRow);
+        stepCount = gridSize;
+    }
+
+    /**
+     * method to generate the maze a few steps at a time, one step carves one row
+     * starts over from an empty maze, like generateMaze
+     * @return a stepper that carves into this generator
+     */
+    public MazeStepper stepper() {
+        stepCount = 0;
+        return new RowParallel.RowStepper(passages, this::carveRow, () -> stepCount++);
+    }
+
+    /*
+     * one random long decides a word of cells: a set bit goes east, a clear bit goes north
+     */
+    private void carveRow(int row, long[] east, int eastAt, long[] north, int northAt) {
+        long state = RowParallel.rowState(seed, row);
+        for (int w = 0; w < passages.getWordsPerRow(); w++) {
+            long valid = RowParallel.validBits(gridSize, w);
+            long canGoEast = valid & ~RowParallel.lastColumnBit(gridSize, w);
+            if (row == 0) {
+                east[eastAt + w] = canGoEast;
+                continue;
+            }
+            state += RowParallel.GOLDEN_GAMMA;
+            long goEast = RowParallel.mix(state) & canGoEast;
+            east[eastAt + w] = goEast;
+            north[northAt + w] = valid & ~goEast;
+        }
+    }
+
+    /**
+     * method to add random edges to the maze after it is generated, making loops
+     * @param probability the probability of opening each remaining wall
+     */
+    public void addRandomEdges(double probability) {
+        Braiding.chooseWalls(passages, probability, random, (cell, direction) ->
+            passages.carve(passages.rowOf(cell), passages.colOf(cell), direction));
+    }
+
+    /**
+     * method to get the maze in the compact form shared by every generator
+     * @return the passages carved so far
+     */
+    public MazeGrid getMazeGrid() {
+        return passages;
+    }
+
+    /**
+     * @return the number of rows carved during the last generation
+     */
+    public long getStepCount() {
+        return stepCount;
+    }
+}
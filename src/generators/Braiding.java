@@ -0,0 +1,72 @@
+package generators;
+import java.util.Random;
+
+/**
+ * Picks which remaining walls to knock down when braiding a maze (adding loops),
+ * shared by every generator's addRandomEdges.
+ *
+ * Each interior wall is opened with the given probability. Rather than drawing a
+ * random number per wall, it draws the gap to the next chosen wall from a geometric
+ * distribution and jumps straight there, so the cost follows the number of walls
+ * chosen, not the size of the grid. The interior walls are numbered east walls
+ * first (row by row, gridSize - 1 per row) then south walls (gridSize per row).
+ */
+class Braiding {
+
+    private Braiding() {
+    }
+
+    /**
+     * method to choose walls to open, the caller opens them so it can keep its own
+     * structures in step with the grid
+     * @param grid the maze, only read
+     * @param probability the chance each wall is chosen
+     * @param random the random number generator
+     * @param open told about each chosen wall that is still closed, as the cell on its west
+     *             or north side and EAST or SOUTH
+     * @return the number of walls chosen that were still closed
+     */
+    static int chooseWalls(MazeGrid grid, double probability, Random random, MazeGrid.CarveListener open) {
+        int size = grid.getGridSize();
+        long eastWalls = (long) size * (size - 1);
+        long walls = 2 * eastWalls;
+        if (probability <= 0 || walls <= 0) {
+            return 0;
+        }
+        double logMiss = probability >= 1 ? 0 : Math.log1p(-probability);
+        int opened = 0;
+        long wall = nextGap(random, logMiss);
+        while (wall < walls) {
+            int row;
+            int col;
+            int direction;
+            if (wall < eastWalls) {
+                row = (int) (wall / (size - 1));
+                col = (int) (wall % (size - 1));
+                direction = MazeGrid.EAST;
+            } else {
+                row = (int) ((wall - eastWalls) / size);
+                col = (int) ((wall - eastWalls) % size);
+                direction = MazeGrid.SOUTH;
+            }
+            if (!grid.hasPassage(row, col, direction)) {
+                open.carved(grid.cellAt(row, col), direction);
+                opened++;
+            }
+            wall += 1 + nextGap(random, logMiss);
+        }
+        return opened;
+    }
+
+    /**
+     * the number of walls skipped before the next chosen one, geometric with
+     * success probability p, where logMiss is log(1 - p) (0 when every wall is chosen)
+     */
+    private static long nextGap(Random random, double logMiss) {
+        if (logMiss == 0) {
+            return 0;
+        }
+        double gap = Math.floor(Math.log1p(-random.nextDouble()) / logMiss);
+        return gap >= Long.MAX_VALUE / 2 ? Long.MAX_VALUE / 2 : (long) gap;
+    }
+}
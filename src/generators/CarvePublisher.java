@@ -0,0 +1,177 @@
+package generators;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+
+/**
+ * Streams the passages of a maze out while it is being generated, so renderers,
+ * exporters and validators on other threads can start on the first passages before
+ * the last ones are carved.
+ *
+ * Passages are published in batches (one CarveBatch holds up to batchSize passages).
+ * Publishing blocks while any subscriber's buffer is full, so a slow subscriber holds
+ * the generator back instead of letting batches pile up in memory. Subscribe before
+ * calling run(): only subscribers present when a batch is submitted receive it.
+ */
+public class CarvePublisher extends SubmissionPublisher<CarvePublisher.CarveBatch> {
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+
+    private final Algorithm algorithm;
+    private final int gridSize;
+    private final long seed;
+    private final int batchSize;
+    private CarveBatch batch;
+
+    /**
+     * constructor
+     * @param algorithm the algorithm to generate with
+     * @param gridSize the size of the grid
+     * @param seed the seed for the generator
+     * @param batchSize how many passages go into each published batch
+     * @param executor the executor that delivers batches to subscribers
+     * @param maxBufferedBatches how many batches each subscriber may fall behind before generation waits
+     */
+    public CarvePublisher(Algorithm algorithm, int gridSize, long seed, int batchSize,
+                          Executor executor, int maxBufferedBatches) {
+        super(executor, maxBufferedBatches);
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive, got " + batchSize);
+        }
+        this.algorithm = algorithm;
+        this.gridSize = gridSize;
+        this.seed = seed;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Generates the maze on the calling thread, publishing passages as they are carved,
+     * then completes every subscriber. If generation fails, subscribers get the error.
+     */
+    public void run() {
+        try {
+            MazeStepper stepper = algorithm.stepper(gridSize, seed);
+            batch = new CarveBatch(batchSize);
+            stepper.getMazeGrid().setCarveListener(this::carved);
+            while (!stepper.step(Integer.MAX_VALUE)) {
+                // every carve is published from the listener
+            }
+            stepper.getMazeGrid().setCarveListener(null);
+            if (batch.size > 0) {
+                submit(batch);
+            }
+            batch = null;
+            close();
+        } catch (RuntimeException e) {
+            closeExceptionally(e);
+        }
+    }
+
+    public int getGridSize() {
+        return gridSize;
+    }
+
+    private void carved(int cell, int direction) {
+        batch.cells[batch.size] = cell;
+        batch.directions[batch.size] = (byte) direction;
+        batch.size++;
+        if (batch.size == batchSize) {
+            submit(batch); // blocks while a subscriber's buffer is full
+            batch = new CarveBatch(batchSize);
+        }
+    }
+
+    /**
+     * A run of carved passages, in the order they were carved. Passage i opens the wall
+     * on the directions[i] side (EAST or SOUTH) of cells[i]. Batches are never changed
+     * after they are published.
+     */
+    public static class CarveBatch {
+        private final int[] cells;
+        private final byte[] directions;
+        private int size;
+
+        CarveBatch(int capacity) {
+            cells = new int[capacity];
+            directions = new byte[capacity];
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public int cellAt(int i) {
+            return cells[i];
+        }
+
+        public int directionAt(int i) {
+            return directions[i];
+        }
+
+        /**
+         * method to carve every passage in this batch into a grid
+         * @param grid the grid to carve into, the same size as the one being generated
+         */
+        public void applyTo(MazeGrid grid) {
+            for (int i = 0; i < size; i++) {
+                grid.carve(grid.rowOf(cells[i]), grid.colOf(cells[i]), directions[i]);
+            }
+        }
+    }
+
+    /**
+     * A subscriber that rebuilds the maze from the stream, one batch at a time.
+     * Handy as a base for validators or as a way to get the finished grid on another thread.
+     */
+    public static class GridBuilder implements Flow.Subscriber<CarveBatch> {
+        private final MazeGrid grid;
+        private Flow.Subscription subscription;
+        private volatile boolean complete;
+        private volatile Throwable error;
+
+        public GridBuilder(int gridSize) {
+            grid = new MazeGrid(gridSize);
+        }
+
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
+
+        public void onNext(CarveBatch batch) {
+            batch.applyTo(grid);
+            carved(batch);
+            subscription.request(1); // only ask for the next batch once this one is done
+        }
+
+        /**
+         * called after each batch is carved into the grid, for subclasses that want to
+         * look at the passages as they arrive
+         * @param batch the batch just applied
+         */
+        protected void carved(CarveBatch batch) {
+        }
+
+        public void onError(Throwable throwable) {
+            error = throwable;
+        }
+
+        public void onComplete() {
+            complete = true;
+        }
+
+        /**
+         * @return the rebuilt grid, only complete once isComplete() is true
+         */
+        public MazeGrid getGrid() {
+            return grid;
+        }
+
+        public boolean isComplete() {
+            return complete;
+        }
+
+        public Throwable getError() {
+            return error;
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package generators;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * An endless maze made of square chunks. Each chunk is a perfect maze of
+ * chunkSize by chunkSize cells generated with one of the existing algorithms from a
+ * hash of the world seed and the chunk's coordinates, so any chunk can be made on
+ * its own, in any order, and always comes out the same.
+ *
+ * Chunks are joined through one opening in each border. Where the opening goes is
+ * hashed from the world seed and the chunk coordinates too, so both chunks agree
+ * on it without either having been generated. Every chunk is connected inside and
+ * to all four neighbors, so the whole world is connected.
+ *
+ * World cells are addressed by row and column, which may be negative, with rows
+ * growing south like in MazeGrid. Chunks are kept in a bounded least-recently-used
+ * cache, and prefetchAround generates the chunks around a position on background
+ * threads before they are needed. Memory stays the same however far the player goes.
+ *
+ * Safe to share between threads. After shutdown, chunks are still generated on the
+ * calling thread when asked for, only prefetching stops.
+ */
+public class ChunkedWorld {
+    private final Algorithm algorithm;
+    private final int chunkSize;
+    private final long worldSeed;
+    private final int prefetchRadius;
+    private final int maxChunks;
+    private final ExecutorService workers;
+    private final LinkedHashMap<Long, Chunk> chunks = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Long, Future<Chunk>> pending = new HashMap<>();
+    private long generated;
+
+    /**
+     * constructor
+     * @param algorithm the algorithm to generate each chunk with
+     * @param chunkSize how many cells wide and high a chunk is
+     * @param worldSeed the seed the whole world is made from
+     * @param prefetchRadius how many chunks around a position prefetchAround makes ready
+     * @param maxChunks how many chunks to keep, at least the (2 * prefetchRadius + 1)^2 that get prefetched
+     * @param threads how many background threads generate chunks
+     */
+    public ChunkedWorld(Algorithm algorithm, int chunkSize, long worldSeed, int prefetchRadius, int maxChunks, int threads) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be positive, got " + chunkSize);
+        }
+        int prefetched = (2 * prefetchRadius + 1) * (2 * prefetchRadius + 1);
+        if (prefetchRadius < 0 || maxChunks < prefetched) {
+            throw new IllegalArgumentException("Prefetching " + prefetched + " chunks needs maxChunks of at least that, got " + maxChunks);
+        }
+        this.algorithm = algorithm;
+        this.chunkSize = chunkSize;
+        this.worldSeed = worldSeed;
+        this.prefetchRadius = prefetchRadius;
+        this.maxChunks = maxChunks;
+        this.workers = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "world-chunks");
+            thread.setDaemon(true); // never keeps the game running after the window closes
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        });
+    }
+
+    /**
+     * method to check for an opening on one side of a world cell, generating the chunk if needed
+     * @param row the world row
+     * @param col the world column
+     * @param direction one of MazeGrid.NORTH, EAST, SOUTH, WEST
+     * @return true if the cell is open on that side
+     */
+    public boolean hasPassage(long row, long col, int direction) {
+        switch (direction) {
+            case MazeGrid.NORTH: return hasPassage(row - 1, col, MazeGrid.SOUTH);
+            case MazeGrid.WEST:  return hasPassage(row, col - 1, MazeGrid.EAST);
+            case MazeGrid.EAST:
+            case MazeGrid.SOUTH:
+                break;
+            default: throw new IllegalArgumentException("Unknown direction: " + direction);
+        }
+        int chunkX = chunkOf(col);
+        int chunkY = chunkOf(row);
+        int localRow = (int) Math.floorMod(row, (long) chunkSize);
+        int localCol = (int) Math.floorMod(col, (long) chunkSize);
+        if (direction == MazeGrid.EAST && localCol == chunkSize - 1) {
+            return localRow == eastOpening(chunkX, chunkY);
+        }
+        if (direction == MazeGrid.SOUTH && localRow == chunkSize - 1) {
+            return localCol == southOpening(chunkX, chunkY);
+        }
+        return getChunk(chunkX, chunkY).getGrid().hasPassage(localRow, localCol, direction);
+    }
+
+    /**
+     * method to get a chunk, waiting for it if it is being prefetched and generating it here if nobody is
+     * @param chunkX the chunk's column, counted in chunks
+     * @param chunkY the chunk's row, counted in chunks
+     * @return the chunk
+     */
+    public Chunk getChunk(int chunkX, int chunkY) {
+        long key = key(chunkX, chunkY);
+        Future<Chunk> inFlight;
+        synchronized (this) {
+            Chunk chunk = chunks.get(key);
+            if (chunk != null) {
+                return chunk;
+            }
+            inFlight = pending.get(key);
+        }
+        if (inFlight != null) {
+            try {
+                return inFlight.get();
+            } catch (CancellationException e) {
+                // dropped by shutdown before it ran, made here instead
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Generating chunk " + chunkX + "," + chunkY + " failed.", e.getCause());
+            }
+        }
+        return store(key, build(chunkX, chunkY));
+    }
+
+    /**
+     * method to make the chunks around a world cell ready on the background threads, and
+     * mark the ones already cached as recently used so they are not the ones evicted
+     * @param row the world row, usually the player's
+     * @param col the world column, usually the player's
+     */
+    public void prefetchAround(long row, long col) {
+        int centerX = chunkOf(col);
+        int centerY = chunkOf(row);
+        synchronized (this) {
+            for (int dy = -prefetchRadius; dy <= prefetchRadius; dy++) {
+                for (int dx = -prefetchRadius; dx <= prefetchRadius; dx++) {
+                    int chunkX = centerX + dx;
+                    int chunkY = centerY + dy;
+                    long key = key(chunkX, chunkY);
+                    if (chunks.get(key) != null || pending.containsKey(key)) {
+                        continue;
+                    }
+                    CompletableFuture<Chunk> future = new CompletableFuture<>();
+                    try {
+                        workers.execute(() -> {
+                            try {
+                                future.complete(store(key, build(chunkX, chunkY)));
+                            } catch (RuntimeException e) {
+                                future.completeExceptionally(e);
+                            } finally {
+                                synchronized (this) {
+                                    pending.remove(key);
+                                }
+                            }
+                        });
+                    } catch (RejectedExecutionException e) {
+                        // shut down, getChunk makes chunks on the caller's thread from now on
+                        return;
+                    }
+                    // still holding the lock, so the task cannot remove the key before it is added
+                    pending.put(key, future);
+                }
+            }
+        }
+    }
+
+    private Chunk build(int chunkX, int chunkY) {
+        long seed = hash(chunkX, chunkY, 0);
+        return new Chunk(chunkX, chunkY, algorithm.generate(chunkSize, seed, 0));
+    }
+
+    private synchronized Chunk store(long key, Chunk chunk) {
+        Chunk raced = chunks.get(key);
+        if (raced != null) {
+            return raced;
+        }
+        generated++;
+        chunks.put(key, chunk);
+        Iterator<Chunk> eldest = chunks.values().iterator();
+        while (chunks.size() > maxChunks) {
+            eldest.next();
+            eldest.remove();
+        }
+        return chunk;
+    }
+
+    /**
+     * method to find the row of the opening between a chunk and the chunk east of it
+     * @return the row inside the chunk, 0 to chunkSize - 1
+     */
+    public int eastOpening(int chunkX, int chunkY) {
+        return (int) (((hash(chunkX, chunkY, 1) >>> 32) * chunkSize) >>> 32);
+    }
+
+    /**
+     * method to find the column of the opening between a chunk and the chunk south of it
+     * @return the column inside the chunk, 0 to chunkSize - 1
+     */
+    public int southOpening(int chunkX, int chunkY) {
+        return (int) (((hash(chunkX, chunkY, 2) >>> 32) * chunkSize) >>> 32);
+    }
+
+    /*
+     * what: 0 for the chunk's seed, 1 for its east opening, 2 for its south opening
+     */
+    private long hash(int chunkX, int chunkY, int what) {
+        long h = RowParallel.mix(worldSeed + key(chunkX, chunkY) * RowParallel.GOLDEN_GAMMA);
+        return RowParallel.mix(h + (what + 1) * RowParallel.GOLDEN_GAMMA);
+    }
+
+    /**
+     * method to find which chunk a world row or column falls in
+     */
+    public int chunkOf(long rowOrCol) {
+        return Math.toIntExact(Math.floorDiv(rowOrCol, (long) chunkSize));
+    }
+
+    private static long key(int chunkX, int chunkY) {
+        return ((long) chunkX << 32) | (chunkY & 0xFFFFFFFFL);
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * @return how many chunks are cached right now
+     */
+    public synchronized int getCachedChunkCount() {
+        return chunks.size();
+    }
+
+    /**
+     * @return how many chunks have been generated and cached, counting ones made again after eviction
+     */
+    public synchronized long getGeneratedCount() {
+        return generated;
+    }
+
+    /**
+     * @return true if the chunk is in the cache, without counting as a use
+     */
+    public synchronized boolean isCached(int chunkX, int chunkY) {
+        return chunks.containsKey(key(chunkX, chunkY));
+    }
+
+    /**
+     * method to stop the background threads. Prefetches that had not started are dropped,
+     * and anyone waiting on one makes the chunk itself instead
+     */
+    public synchronized void shutdown() {
+        workers.shutdownNow();
+        for (Future<Chunk> dropped : pending.values()) {
+            dropped.cancel(false);
+        }
+        pending.clear();
+    }
+
+    /**
+     * One generated chunk. Its grid is shared with everyone who asks, so it should not be modified.
+     */
+    public static class Chunk {
+        private final int chunkX;
+        private final int chunkY;
+        private final MazeGrid grid;
+
+        Chunk(int chunkX, int chunkY, MazeGrid grid) {
+            this.chunkX = chunkX;
+            this.chunkY = chunkY;
+            this.grid = grid;
+        }
+
+        public int getChunkX() {
+            return chunkX;
+        }
+
+        public int getChunkY() {
+            return chunkY;
+        }
+
+        public MazeGrid getGrid() {
+            return grid;
+        }
+    }
+}
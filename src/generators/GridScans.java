@@ -0,0 +1,142 @@
+package generators;
+
+/**
+ * Bulk scans over a MazeGrid's passage bitsets: counting set bits and counting
+ * cells by how many open sides they have (dead ends have one, corridor cells two,
+ * junctions three or four). Degrees are worked out 64 cells at a time with bitwise
+ * adders over the east, west, south and north passage words.
+ *
+ * When the jdk.incubator.vector module is present (run with
+ * --add-modules jdk.incubator.vector) the scans run on SIMD lanes of longs,
+ * otherwise on one long at a time. Both give the same counts. The SIMD scans are
+ * in VectorScans, which is built in a source set of its own and only looked up by
+ * name here, so this class compiles without the module.
+ */
+public class GridScans {
+    private static final Scans SCALAR = new ScalarScans();
+    private static final Scans SCANS = loadScans();
+
+    private GridScans() {
+    }
+
+    /**
+     * @return true if the scans run on the Vector API
+     */
+    public static boolean isVectorized() {
+        return SCANS != SCALAR;
+    }
+
+    /**
+     * method to count the set bits in an array of words, such as a visited set
+     * @param words the words
+     * @return the number of set bits
+     */
+    public static long countBits(long[] words) {
+        return SCANS.countBits(words);
+    }
+
+    /**
+     * method to count cells by their number of open sides
+     * @param grid the maze
+     * @return a 5 long array, index k is the number of cells with exactly k open sides
+     */
+    public static long[] degreeCounts(MazeGrid grid) {
+        return SCANS.degreeCounts(grid);
+    }
+
+    /**
+     * method to find the cells in one word of a row that are not inside a corridor,
+     * the ones with other than exactly two open sides
+     * @param grid the maze
+     * @param row the row
+     * @param w the word of the row, covering columns 64 * w to 64 * w + 63
+     * @return a mask with bit i set if the cell in column 64 * w + i is in the grid
+     *         and does not have two open sides
+     */
+    public static long nonCorridorBits(MazeGrid grid, int row, int w) {
+        return RowParallel.validBits(grid.getGridSize(), w) & ~addWord(grid, row, w, null);
+    }
+
+    static long countBitsScalar(long[] words) {
+        long count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    static long[] degreeCountsScalar(MazeGrid grid) {
+        long[] counts = new long[5];
+        int wordsPerRow = grid.getWordsPerRow();
+        for (int row = 0; row < grid.getGridSize(); row++) {
+            for (int w = 0; w < wordsPerRow; w++) {
+                addWord(grid, row, w, counts);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * adds one word of cells to the degree counts, shared by the scalar scan, the
+     * words at the edges of each row that the vector scan leaves out and nonCorridorBits
+     * (which passes no counts)
+     * @return the cells of the word with exactly two open sides
+     */
+    static long addWord(MazeGrid grid, int row, int w, long[] counts) {
+        long[] east = grid.getEastPassageWords();
+        long[] south = grid.getSouthPassageWords();
+        int wordsPerRow = grid.getWordsPerRow();
+        int word = row * wordsPerRow + w;
+        long e = east[word];
+        long west = (e << 1) | (w > 0 ? east[word - 1] >>> 63 : 0);
+        long s = south[word];
+        long north = row > 0 ? south[word - wordsPerRow] : 0;
+        long valid = RowParallel.validBits(grid.getGridSize(), w);
+
+        // bit-sliced e + west + s + north as a three bit number (bit2, bit1, bit0)
+        long sum1 = e ^ west, carry1 = e & west;
+        long sum2 = s ^ north, carry2 = s & north;
+        long bit0 = sum1 ^ sum2;
+        long carry0 = sum1 & sum2;
+        long bit1 = carry1 ^ carry2 ^ carry0;
+        long bit2 = (carry1 & carry2) | ((carry1 ^ carry2) & carry0);
+
+        long two = valid & ~bit0 & bit1 & ~bit2;
+        if (counts != null) {
+            counts[0] += Long.bitCount(valid & ~(bit0 | bit1 | bit2));
+            counts[1] += Long.bitCount(valid & bit0 & ~bit1 & ~bit2);
+            counts[2] += Long.bitCount(two);
+            counts[3] += Long.bitCount(valid & bit0 & bit1 & ~bit2);
+            counts[4] += Long.bitCount(valid & bit2);
+        }
+        return two;
+    }
+
+    private static Scans loadScans() {
+        try {
+            return (Scans) Class.forName("generators.VectorScans").getDeclaredConstructor().newInstance();
+        } catch (Throwable e) {
+            // not built, module not added, or no usable vector shape on this machine
+            return SCALAR;
+        }
+    }
+
+    /**
+     * The two bulk scans, done one long at a time or on vector lanes.
+     */
+    interface Scans {
+        long countBits(long[] words);
+
+        long[] degreeCounts(MazeGrid grid);
+    }
+
+    private static class ScalarScans implements Scans {
+        public long countBits(long[] words) {
+            return countBitsScalar(words);
+        }
+
+        public long[] degreeCounts(MazeGrid grid) {
+            return degreeCountsScalar(grid);
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package generators;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * The growing-tree algorithm: keep a list of active cells, pick one, carve to a
+ * random unvisited neighbor and make that neighbor active, or retire the cell once
+ * it has no unvisited neighbors left. Which cell gets picked decides the texture:
+ * always the newest gives recursive backtracking's long winding corridors, a random
+ * one gives Prim's short branchy dead ends, and mixing the two lands in between.
+ *
+ * The active cells live in one int array with a head and a tail, so picking and
+ * retiring a cell is O(1) for every policy and there is no recursion to run out of
+ * stack on big grids.
+ */
+public class GrowingTreeGenerator {
+    /**
+     * Which active cell to carve from next.
+     */
+    public enum Policy {
+        /** the most recently added cell, like recursive backtracking */
+        NEWEST,
+        /** any active cell, like Prim's */
+        RANDOM,
+        /** the cell that has been active longest, gives long straight runs */
+        OLDEST,
+        /** the newest cell with probability newestRatio, otherwise a random one */
+        MIXED
+    }
+
+    public static final double DEFAULT_NEWEST_RATIO = 0.5;
+
+    private final int gridSize;
+    private final Policy policy;
+    private final double newestRatio;
+    private final Random random;
+    private final MazeGrid passages;
+    // made by the first stepper and kept for the ones after it
+    private int[] active;
+    private boolean[] visited;
+    private long stepCount;
+
+    /**
+     * constructor
+     * @param gridSize the size of the grid
+     * @param policy how to pick the next cell
+     */
+    public GrowingTreeGenerator(int gridSize, Policy policy) {
+        this(gridSize, policy, DEFAULT_NEWEST_RATIO, new Random());
+    }
+
+    /**
+     * seeded constructor, the same seed always carves the same maze
+     * @param gridSize the size of the grid
+     * @param policy how to pick the next cell
+     * @param seed the seed for the random number generator
+     */
+    public GrowingTreeGenerator(int gridSize, Policy policy, long seed) {
+        this(gridSize, policy, DEFAULT_NEWEST_RATIO, new Random(seed));
+    }
+
+    /**
+     * seeded constructor for the MIXED policy
+     * @param gridSize the size of the grid
+     * @param policy how to pick the next cell
+     * @param newestRatio for MIXED, the share of picks that take the newest cell
+     * @param seed the seed for the random number generator
+     */
+    public GrowingTreeGenerator(int gridSize, Policy policy, double newestRatio, long seed) {
+        this(gridSize, policy, newestRatio, new Random(seed));
+    }
+
+    private GrowingTreeGenerator(int gridSize, Policy policy, double newestRatio, Random random) {
+        if (newestRatio < 0 || newestRatio > 1) {
+            throw new IllegalArgumentException("newestRatio must be between 0 and 1, got " + newestRatio);
+        }
+        this.gridSize = gridSize;
+        this.policy = policy;
+        this.newestRatio = newestRatio;
+        this.random = random;
+        this.passages = new MazeGrid(gridSize);
+    }
+
+    /**
+     * method to carve the next maze from a new seed with this generator, so its buffers are
+     * reused instead of making a new generator per maze; the next stepper or generateMaze
+     * carves what a new generator with that seed would
+     * @param seed the seed for the random number generator
+     */
+    public void reseed(long seed) {
+        random.setSeed(seed);
+    }
+
+    /**
+     * method to generate the maze in one go
+     */
+    public void generateMaze() {
+        MazeStepper stepper = stepper();
+        while (!stepper.step(Integer.MAX_VALUE)) {
+            // runs to the end in one go
+        }
+    }
+
+    /**
+     * method to generate the maze a few steps at a time, one step carves from or retires one active cell
+     * starts over from an empty maze, like generateMaze, and takes over the buffers of any earlier stepper
+     * @return a stepper that carves into this generator
+     */
+    public MazeStepper stepper() {
+        return new GrowingTreeStepper();
+    }
+
+    /**
+     * method to add random edges to the maze after it is generated, making loops
+     * @param probability the probability of opening each remaining wall
+     */
+    public void addRandomEdges(double probability) {
+        Braiding.chooseWalls(passages, probability, random, (cell, direction) ->
+            passages.carve(passages.rowOf(cell), passages.colOf(cell), direction));
+    }
+
+    /**
+     * The growing tree as a resumable loop. Active cells are active[head .. tail).
+     * Every cell is added once, so the array never needs to grow.
+     */
+    private class GrowingTreeStepper implements MazeStepper {
+        private final int[] unvisited = new int[4];
+        private int head;
+        private int tail;
+        private boolean done;
+
+        GrowingTreeStepper() {
+            passages.clear();
+            if (active == null) {
+                active = new int[gridSize * gridSize];
+                visited = new boolean[gridSize * gridSize];
+            }
+            Arrays.fill(visited, false);
+            stepCount = 0;
+            if (active.length == 0) {
+                done = true;
+                return;
+            }
+            int start = random.nextInt(active.length);
+            visited[start] = true;
+            active[tail++] = start;
+        }
+
+        public boolean step(int maxSteps) {
+            for (int i = 0; i < maxSteps && head < tail; i++) {
+                stepCount++;
+                int index = pick();
+                int cell = active[index];
+
+                int count = 0;
+                for (int d = MazeGrid.NORTH; d <= MazeGrid.WEST; d++) {
+                    int neighbor = passages.neighbor(cell, d);
+                    if (neighbor >= 0 && !visited[neighbor]) {
+                        unvisited[count++] = neighbor;
+                    }
+                }
+                if (count == 0) {
+                    retire(index);
+                    continue;
+                }
+                int next = unvisited[random.nextInt(count)];
+                passages.carveBetween(cell, next);
+                visited[next] = true;
+                active[tail++] = next;
+            }
+            if (head == tail) {
+                done = true;
+            }
+            return done;
+        }
+
+        private int pick() {
+            switch (policy) {
+                case NEWEST: return tail - 1;
+                case OLDEST: return head;
+                case RANDOM: return head + random.nextInt(tail - head);
+                default:     return random.nextDouble() < newestRatio ? tail - 1 : head + random.nextInt(tail - head);
+            }
+        }
+
+        /*
+         * removes active[index] in O(1): the ends just move in, a cell from the middle
+         * (only RANDOM and MIXED pick those) has the oldest cell moved into its place,
+         * so active[tail - 1] stays the newest cell for the next newest pick
+         */
+        private void retire(int index) {
+            if (index == head) {
+                head++;
+            } else if (index == tail - 1) {
+                tail--;
+            } else {
+                active[index] = active[head++];
+            }
+        }
+
+        public boolean isDone() {
+            return done;
+        }
+
+        public MazeGrid getMazeGrid() {
+            return passages;
+        }
+    }
+
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * method to get the maze in the compact form shared by every generator
+     * @return the passages carved so far
+     */
+    public MazeGrid getMazeGrid() {
+        return passages;
+    }
+
+    /**
+     * @return the number of active cells picked during the last generation
+     */
+    public long getStepCount() {
+        return stepCount;
+    }
+}
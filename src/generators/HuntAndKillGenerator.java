@@ -0,0 +1,244 @@
+package generators;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * The hunt-and-kill algorithm: walk from cell to random unvisited neighbor, carving
+ * as it goes, and when the walk gets stuck "hunt" for an unvisited cell next to a
+ * visited one, join it to the maze and walk again from there. The mazes have the
+ * long winding corridors of recursive backtracking, but the walk only ever needs the
+ * current cell, so there is no stack to overflow on big grids.
+ *
+ * Visited cells are kept as a bitset laid out like MazeGrid's rows, so the hunt
+ * checks 64 cells at a time: it masks a word of unvisited cells with the visited
+ * words above, below and shifted sideways, and takes the lowest set bit. Rows above
+ * the first row with an unvisited cell are never scanned again.
+ */
+public class HuntAndKillGenerator {
+    private final int gridSize;
+    private final int wordsPerRow;
+    private final Random random;
+    private final MazeGrid passages;
+    private long[] visited; // made by the first stepper and kept for the ones after it
+    private long stepCount;
+
+    /**
+     * constructor
+     * @param gridSize the size of the grid
+     */
+    public HuntAndKillGenerator(int gridSize) {
+        this(gridSize, new Random());
+    }
+
+    /**
+     * seeded constructor, the same seed always carves the same maze
+     * @param gridSize the size of the grid
+     * @param seed the seed for the random number generator
+     */
+    public HuntAndKillGenerator(int gridSize, long seed) {
+        this(gridSize, new Random(seed));
+    }
+
+    private HuntAndKillGenerator(int gridSize, Random random) {
+        this.gridSize = gridSize;
+        this.random = random;
+        this.passages = new MazeGrid(gridSize);
+        this.wordsPerRow = passages.getWordsPerRow();
+    }
+
+    /**
+     * method to carve the next maze from a new seed with this generator, so its buffers are
+     * reused instead of making a new generator per maze; the next stepper or generateMaze
+     * carves what a new generator with that seed would
+     * @param seed the seed for the random number generator
+     */
+    public void reseed(long seed) {
+        random.setSeed(seed);
+    }
+
+    /**
+     * method to generate the maze in one go
+     */
+    public void generateMaze() {
+        MazeStepper stepper = stepper();
+        while (!stepper.step(Integer.MAX_VALUE)) {
+            // runs to the end in one go
+        }
+    }
+
+    /**
+     * method to generate the maze a few steps at a time, one step is one move of the walk or one hunt
+     * starts over from an empty maze, like generateMaze, and takes over the buffers of any earlier stepper
+     * @return a stepper that carves into this generator
+     */
+    public MazeStepper stepper() {
+        return new HuntAndKillStepper();
+    }
+
+    /**
+     * method to add random edges to the maze after it is generated, making loops
+     * @param probability the probability of opening each remaining wall
+     */
+    public void addRandomEdges(double probability) {
+        Braiding.chooseWalls(passages, probability, random, (cell, direction) ->
+            passages.carve(passages.rowOf(cell), passages.colOf(cell), direction));
+    }
+
+    /**
+     * The walk and the hunt as a resumable loop. current is the head of the walk,
+     * or -1 when the next step is a hunt.
+     */
+    private class HuntAndKillStepper implements MazeStepper {
+        private final int[] choices = new int[4];
+        private int current = -1;
+        private int remaining;
+        private int huntRow;
+        private boolean done;
+
+        HuntAndKillStepper() {
+            passages.clear();
+            if (visited == null) {
+                visited = new long[gridSize * wordsPerRow];
+            }
+            Arrays.fill(visited, 0L);
+            stepCount = 0;
+            int cells = gridSize * gridSize;
+            if (cells == 0) {
+                done = true;
+                return;
+            }
+            current = random.nextInt(cells);
+            markVisited(current);
+            remaining = cells - 1;
+            done = remaining == 0;
+        }
+
+        public boolean step(int maxSteps) {
+            for (int i = 0; i < maxSteps && !done; i++) {
+                stepCount++;
+                if (current >= 0) {
+                    walk();
+                } else {
+                    hunt();
+                }
+                done = remaining == 0;
+            }
+            return done;
+        }
+
+        private void walk() {
+            int count = 0;
+            for (int d = MazeGrid.NORTH; d <= MazeGrid.WEST; d++) {
+                int neighbor = passages.neighbor(current, d);
+                if (neighbor >= 0 && !isVisited(neighbor)) {
+                    choices[count++] = neighbor;
+                }
+            }
+            if (count == 0) {
+                current = -1;
+                return;
+            }
+            int next = choices[random.nextInt(count)];
+            passages.carveBetween(current, next);
+            markVisited(next);
+            remaining--;
+            current = next;
+        }
+
+        /*
+         * finds the first unvisited cell with a visited neighbor, word by word, and
+         * joins it to a random one of its visited neighbors
+         */
+        private void hunt() {
+            for (int row = huntRow; row < gridSize; row++) {
+                int rowStart = row * wordsPerRow;
+                boolean rowVisited = true;
+                for (int w = 0; w < wordsPerRow; w++) {
+                    long unvisited = ~visited[rowStart + w] & RowParallel.validBits(gridSize, w);
+                    if (unvisited == 0) {
+                        continue;
+                    }
+                    rowVisited = false;
+                    long candidates = unvisited & visitedNeighbors(row, w);
+                    if (candidates != 0) {
+                        join(passages.cellAt(row, (w << 6) + Long.numberOfTrailingZeros(candidates)));
+                        return;
+                    }
+                }
+                if (rowVisited && row == huntRow) {
+                    huntRow++;
+                }
+            }
+            throw new IllegalStateException("No unvisited cell borders the maze, " + remaining + " cells left.");
+        }
+
+        /*
+         * the cells of word w in the row that have a visited cell above, below, west or east of them
+         */
+        private long visitedNeighbors(int row, int w) {
+            int i = row * wordsPerRow + w;
+            long here = visited[i];
+            long adjacent = (here << 1) | (here >>> 1);
+            if (w > 0) {
+                adjacent |= visited[i - 1] >>> 63;
+            }
+            if (w < wordsPerRow - 1) {
+                adjacent |= visited[i + 1] << 63;
+            }
+            if (row > 0) {
+                adjacent |= visited[i - wordsPerRow];
+            }
+            if (row < gridSize - 1) {
+                adjacent |= visited[i + wordsPerRow];
+            }
+            return adjacent;
+        }
+
+        private void join(int cell) {
+            int count = 0;
+            for (int d = MazeGrid.NORTH; d <= MazeGrid.WEST; d++) {
+                int neighbor = passages.neighbor(cell, d);
+                if (neighbor >= 0 && isVisited(neighbor)) {
+                    choices[count++] = neighbor;
+                }
+            }
+            passages.carveBetween(cell, choices[random.nextInt(count)]);
+            markVisited(cell);
+            remaining--;
+            current = cell;
+        }
+
+        private boolean isVisited(int cell) {
+            int col = passages.colOf(cell);
+            return (visited[passages.rowOf(cell) * wordsPerRow + (col >>> 6)] & (1L << col)) != 0;
+        }
+
+        private void markVisited(int cell) {
+            int col = passages.colOf(cell);
+            visited[passages.rowOf(cell) * wordsPerRow + (col >>> 6)] |= 1L << col;
+        }
+
+        public boolean isDone() {
+            return done;
+        }
+
+        public MazeGrid getMazeGrid() {
+            return passages;
+        }
+    }
+
+    /**
+     * method to get the maze in the compact form shared by every generator
+     * @return the passages carved so far
+     */
+    public MazeGrid getMazeGrid() {
+        return passages;
+    }
+
+    /**
+     * @return the number of walk moves (including the one that finds the walk stuck) and hunts during the last generation
+     */
+    public long getStepCount() {
+        return stepCount;
+    }
+}
@@ -0,0 +1,314 @@
+package generators;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * A perfect maze that keeps changing: each swap opens one wall and closes another,
+ * and the maze is still a spanning tree afterwards, so every cell (the player's and
+ * the exit's included) can still reach every other.
+ *
+ * Opening a wall between u and v makes exactly one loop, the tree path from u to v
+ * plus the new passage. Closing any passage on that path breaks the loop again and
+ * leaves a tree. The path is found with a link-cut tree over the cells: re-root the
+ * tree at u, expose the path to v, and the splay tree holding that path can be
+ * indexed by position to pick a random passage on it. Re-rooting, exposing, linking
+ * and cutting are all amortized O(log n), so a swap never walks the whole maze.
+ *
+ * The link-cut tree is kept in parallel int arrays (left and right child, parent
+ * or path-parent, subtree size) and a reversal flag per cell, with no node objects.
+ */
+public class LivingMaze {
+    private static final int NONE = -1;
+
+    private final MazeGrid grid;
+    private final int gridSize;
+    private final Random random;
+    private final int[] left;
+    private final int[] right;
+    private final int[] parent;
+    private final int[] size;
+    private final boolean[] reversed;
+    private final int[] splayStack;
+    private long swapCount;
+
+    /**
+     * constructor, works on a copy of the grid so a cached maze is never changed
+     * @param maze a perfect maze, every cell reachable and no loops
+     * @param seed the seed for choosing which walls swap
+     */
+    public LivingMaze(MazeGrid maze, long seed) {
+        this.gridSize = maze.getGridSize();
+        this.grid = new MazeGrid(gridSize);
+        System.arraycopy(maze.getEastPassageWords(), 0, grid.getEastPassageWords(), 0, grid.getEastPassageWords().length);
+        System.arraycopy(maze.getSouthPassageWords(), 0, grid.getSouthPassageWords(), 0, grid.getSouthPassageWords().length);
+        grid.rehash();
+        this.random = new Random(seed);
+        int cells = grid.getCellCount();
+        this.left = new int[cells];
+        this.right = new int[cells];
+        this.parent = new int[cells];
+        this.size = new int[cells];
+        this.reversed = new boolean[cells];
+        this.splayStack = new int[cells];
+        buildFromTree();
+    }
+
+    /*
+     * every cell starts as its own splay tree whose path-parent is its parent in a
+     * breadth first tree from cell 0, which is a valid link-cut tree with no preferred paths
+     */
+    private void buildFromTree() {
+        int cells = grid.getCellCount();
+        Arrays.fill(left, NONE);
+        Arrays.fill(right, NONE);
+        Arrays.fill(parent, NONE);
+        Arrays.fill(size, 1);
+        if (grid.countPassages() != cells - 1) {
+            throw new IllegalArgumentException("A living maze needs a perfect maze, this one has " + grid.countPassages() + " passages for " + cells + " cells.");
+        }
+        int[] queue = new int[cells];
+        boolean[] seen = new boolean[cells];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = 0;
+        seen[0] = true;
+        while (head < tail) {
+            int cell = queue[head++];
+            for (int d = MazeGrid.NORTH; d <= MazeGrid.WEST; d++) {
+                int next = grid.neighbor(cell, d);
+                if (next >= 0 && !seen[next] && grid.hasPassage(cell, d)) {
+                    seen[next] = true;
+                    parent[next] = cell;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        if (tail != cells) {
+            throw new IllegalArgumentException("A living maze needs a perfect maze, only " + tail + " of " + cells + " cells are connected.");
+        }
+    }
+
+    /**
+     * method to open a random wall and close a random passage on the loop it makes
+     * @param keepCell a cell whose own passages are left alone, such as the player's, or -1
+     * @return the wall that opened and the one that closed
+     */
+    public WallSwap swap(int keepCell) {
+        if (gridSize < 2) {
+            throw new IllegalStateException("A maze with one cell has no walls to swap.");
+        }
+        int from;
+        int direction;
+        do {
+            from = random.nextInt(grid.getCellCount());
+            direction = random.nextBoolean() ? MazeGrid.EAST : MazeGrid.SOUTH;
+        } while (grid.neighbor(from, direction) < 0 || grid.hasPassage(from, direction));
+        int to = grid.neighbor(from, direction);
+
+        makeRoot(from);
+        access(to);
+        // the splay tree at "to" is now the path from "from" to "to", in order; a grid
+        // loop has at least 4 sides, so the path has at least 3 passages and at most 2 touch keepCell
+        int passages = size[to] - 1;
+        int index = random.nextInt(passages);
+        int a;
+        int b;
+        while (true) {
+            a = nodeAt(to, index);
+            b = nodeAt(a, index + 1);
+            if (a != keepCell && b != keepCell) {
+                break;
+            }
+            index = (index + 1) % passages;
+            to = b;
+        }
+
+        cut(a, b);
+        link(from, grid.neighbor(from, direction));
+        grid.closeBetween(a, b);
+        grid.carveBetween(from, grid.neighbor(from, direction));
+        swapCount++;
+        int closed = Math.min(a, b);
+        return new WallSwap(from, direction, closed, Math.max(a, b) == closed + 1 ? MazeGrid.EAST : MazeGrid.SOUTH);
+    }
+
+    /**
+     * method to count the passages on the way between two cells
+     * @return the length of the only path between them
+     */
+    public int pathLength(int cellA, int cellB) {
+        makeRoot(cellA);
+        access(cellB);
+        return size[cellB] - 1;
+    }
+
+    public MazeGrid getMazeGrid() {
+        return grid;
+    }
+
+    public long getSwapCount() {
+        return swapCount;
+    }
+
+    /*
+     * the node at a position of the in-order path held by the splay tree containing root,
+     * splayed to the top of that tree so later lookups near it stay cheap
+     */
+    private int nodeAt(int root, int position) {
+        while (!isSplayRoot(root)) {
+            root = parent[root];
+        }
+        int node = root;
+        while (true) {
+            push(node);
+            int leftSize = left[node] == NONE ? 0 : size[left[node]];
+            if (position < leftSize) {
+                node = left[node];
+            } else if (position == leftSize) {
+                splay(node);
+                return node;
+            } else {
+                position -= leftSize + 1;
+                node = right[node];
+            }
+        }
+    }
+
+    private void link(int child, int newParent) {
+        makeRoot(child);
+        parent[child] = newParent;
+    }
+
+    private void cut(int a, int b) {
+        makeRoot(a);
+        access(b);
+        // a and b are adjacent in the tree, so the path is just a then b
+        left[b] = NONE;
+        parent[a] = NONE;
+        pull(b);
+    }
+
+    private void makeRoot(int node) {
+        access(node);
+        reversed[node] = !reversed[node];
+    }
+
+    private void access(int node) {
+        int last = NONE;
+        for (int at = node; at != NONE; at = parent[at]) {
+            splay(at);
+            right[at] = last;
+            pull(at);
+            last = at;
+        }
+        splay(node);
+    }
+
+    private void splay(int node) {
+        int top = 0;
+        splayStack[top++] = node;
+        for (int at = node; !isSplayRoot(at); at = parent[at]) {
+            splayStack[top++] = parent[at];
+        }
+        while (top > 0) {
+            push(splayStack[--top]);
+        }
+        while (!isSplayRoot(node)) {
+            int up = parent[node];
+            if (!isSplayRoot(up)) {
+                int grand = parent[up];
+                boolean zigZig = (left[up] == node) == (left[grand] == up);
+                rotate(zigZig ? up : node);
+            }
+            rotate(node);
+        }
+    }
+
+    private void rotate(int node) {
+        int up = parent[node];
+        int grand = parent[up];
+        if (!isSplayRoot(up)) {
+            if (left[grand] == up) {
+                left[grand] = node;
+            } else {
+                right[grand] = node;
+            }
+        }
+        parent[node] = grand;
+        if (left[up] == node) {
+            left[up] = right[node];
+            if (right[node] != NONE) {
+                parent[right[node]] = up;
+            }
+            right[node] = up;
+        } else {
+            right[up] = left[node];
+            if (left[node] != NONE) {
+                parent[left[node]] = up;
+            }
+            left[node] = up;
+        }
+        parent[up] = node;
+        pull(up);
+        pull(node);
+    }
+
+    private boolean isSplayRoot(int node) {
+        int up = parent[node];
+        return up == NONE || (left[up] != node && right[up] != node);
+    }
+
+    private void push(int node) {
+        if (!reversed[node]) {
+            return;
+        }
+        int swap = left[node];
+        left[node] = right[node];
+        right[node] = swap;
+        if (left[node] != NONE) {
+            reversed[left[node]] = !reversed[left[node]];
+        }
+        if (right[node] != NONE) {
+            reversed[right[node]] = !reversed[right[node]];
+        }
+        reversed[node] = false;
+    }
+
+    private void pull(int node) {
+        size[node] = 1 + (left[node] == NONE ? 0 : size[left[node]]) + (right[node] == NONE ? 0 : size[right[node]]);
+    }
+
+    /**
+     * One swap: the wall that opened and the passage that closed, each given as the
+     * cell on its west or north side and EAST or SOUTH, like MazeGrid.CarveListener.
+     */
+    public static class WallSwap {
+        private final int openedCell;
+        private final int openedDirection;
+        private final int closedCell;
+        private final int closedDirection;
+
+        WallSwap(int openedCell, int openedDirection, int closedCell, int closedDirection) {
+            this.openedCell = openedCell;
+            this.openedDirection = openedDirection;
+            this.closedCell = closedCell;
+            this.closedDirection = closedDirection;
+        }
+
+        public int getOpenedCell() {
+            return openedCell;
+        }
+
+        public int getOpenedDirection() {
+            return openedDirection;
+        }
+
+        public int getClosedCell() {
+            return closedCell;
+        }
+
+        public int getClosedDirection() {
+            return closedDirection;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package generators;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Bounded cache of finished mazes together with their wall geometry, keyed by
+ * algorithm, dimensions, seed and braid probability. The least recently used mazes
+ * are dropped once the cached mazes take more than the byte limit. Cached mazes
+ * can also be looked up by their content, MazeGrid.getContentHash, whatever
+ * algorithm and seed made them.
+ *
+ * Safe to share between threads. Generation runs outside the lock, so two threads
+ * asking for the same missing maze at once may both generate it; the result is the
+ * same and only one copy is kept.
+ */
+public class MazeCache {
+    private final long maxBytes;
+    private final LinkedHashMap<Key, CachedMaze> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final HashMap<Long, Key> byContent = new HashMap<>();
+    private long currentBytes;
+    private long hits;
+    private long misses;
+
+    /**
+     * constructor
+     * @param maxBytes how many bytes the cached mazes may take in total
+     */
+    public MazeCache(long maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes must be positive, got " + maxBytes);
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * method to get a maze and its walls, generating them only if they are not cached
+     * @param algorithm the algorithm to generate with
+     * @param gridSize the size of the grid
+     * @param canvasWidth the width of canvas the walls are laid out for
+     * @param canvasHeight the height of canvas the walls are laid out for
+     * @param seed the seed for the generator
+     * @param braidProbability the probability of opening extra walls, 0 for a perfect maze
+     * @return the cached or newly generated maze
+     */
+    public CachedMaze get(Algorithm algorithm, int gridSize, int canvasWidth, int canvasHeight,
+                          long seed, double braidProbability) {
+        Key key = new Key(algorithm, gridSize, canvasWidth, canvasHeight, seed, braidProbability);
+        synchronized (this) {
+            CachedMaze cached = entries.get(key);
+            if (cached != null) {
+                hits++;
+                return cached;
+            }
+            misses++;
+        }
+
+        MazeGrid grid = algorithm.generate(gridSize, seed, braidProbability);
+        CachedMaze maze = new CachedMaze(grid, grid.wallSegments(canvasWidth, canvasHeight));
+
+        synchronized (this) {
+            CachedMaze raced = entries.get(key);
+            if (raced != null) {
+                return raced;
+            }
+            if (maze.estimateBytes() <= maxBytes) {
+                entries.put(key, maze);
+                byContent.put(grid.getContentHash(), key);
+                currentBytes += maze.estimateBytes();
+                evictOverLimit();
+            }
+        }
+        return maze;
+    }
+
+    /**
+     * method to find a cached maze by what it looks like instead of how it was made,
+     * counts as a use of that maze like get does
+     * @param contentHash the MazeGrid.getContentHash of the maze
+     * @return the cached maze with those passages most recently added, or null if none is cached
+     */
+    public synchronized CachedMaze getByContent(long contentHash) {
+        Key key = byContent.get(contentHash);
+        CachedMaze cached = key == null ? null : entries.get(key);
+        if (cached != null) {
+            hits++;
+        }
+        return cached;
+    }
+
+    /**
+     * Drops least recently used entries until the cache fits its byte limit.
+     */
+    private void evictOverLimit() {
+        Iterator<Map.Entry<Key, CachedMaze>> eldest = entries.entrySet().iterator();
+        while (currentBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<Key, CachedMaze> entry = eldest.next();
+            currentBytes -= entry.getValue().estimateBytes();
+            byContent.remove(entry.getValue().getGrid().getContentHash(), entry.getKey());
+            eldest.remove();
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getBytes() {
+        return currentBytes;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        byContent.clear();
+        currentBytes = 0;
+    }
+
+    /**
+     * A finished maze with its walls already laid out for a canvas size.
+     * Shared between everyone who asks for the same maze, so neither part should be modified.
+     */
+    public static class CachedMaze {
+        private final MazeGrid grid;
+        private final double[] wallSegments;
+
+        CachedMaze(MazeGrid grid, double[] wallSegments) {
+            this.grid = grid;
+            this.wallSegments = wallSegments;
+        }
+
+        public MazeGrid getGrid() {
+            return grid;
+        }
+
+        /**
+         * @return the walls packed as x1, y1, x2, y2 per wall, see MazeGrid.wallSegments
+         */
+        public double[] getWallSegments() {
+            return wallSegments;
+        }
+
+        long estimateBytes() {
+            return 32 + grid.estimateBytes() + 16 + 8L * wallSegments.length;
+        }
+    }
+
+    /**
+     * What identifies a cached maze.
+     */
+    private static final class Key {
+        final Algorithm algorithm;
+        final int gridSize;
+        final int canvasWidth;
+        final int canvasHeight;
+        final long seed;
+        final double braidProbability;
+
+        Key(Algorithm algorithm, int gridSize, int canvasWidth, int canvasHeight, long seed, double braidProbability) {
+            this.algorithm = algorithm;
+            this.gridSize = gridSize;
+            this.canvasWidth = canvasWidth;
+            this.canvasHeight = canvasHeight;
+            this.seed = seed;
+            this.braidProbability = braidProbability;
+        }
+
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return algorithm == key.algorithm && gridSize == key.gridSize
+                && canvasWidth == key.canvasWidth && canvasHeight == key.canvasHeight
+                && seed == key.seed && Double.compare(braidProbability, key.braidProbability) == 0;
+        }
+
+        public int hashCode() {
+            return Objects.hash(algorithm, gridSize, canvasWidth, canvasHeight, seed, braidProbability);
+        }
+    }
+}
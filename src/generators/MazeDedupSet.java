@@ -0,0 +1,53 @@
+package generators;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers which mazes have been seen by their content hash, for throwing away
+ * repeats when many mazes are generated at once. Mazes are never compared passage
+ * by passage, only their 64-bit hashes are, so two different mazes could in theory
+ * be taken as the same one. After n different mazes the chance that any two share
+ * a hash is about n * n / 2^65: negligible up to ten million or so mazes, but
+ * already about one in four by three billion.
+ *
+ * Any number of threads can add at the same time.
+ */
+public class MazeDedupSet {
+    private final Set<Long> seen = ConcurrentHashMap.newKeySet();
+    private final LongAdder repeats = new LongAdder();
+
+    /**
+     * method to record a maze
+     * @param grid the maze
+     * @return true if no maze with the same passages was added before
+     */
+    public boolean add(MazeGrid grid) {
+        if (seen.add(grid.getContentHash())) {
+            return true;
+        }
+        repeats.increment();
+        return false;
+    }
+
+    /**
+     * @return true if a maze with the same passages was added before
+     */
+    public boolean contains(MazeGrid grid) {
+        return seen.contains(grid.getContentHash());
+    }
+
+    /**
+     * @return the number of different mazes added
+     */
+    public int size() {
+        return seen.size();
+    }
+
+    /**
+     * @return the number of times add turned a maze away as a repeat
+     */
+    public long getRepeatCount() {
+        return repeats.sum();
+    }
+}
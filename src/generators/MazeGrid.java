@@ -0,0 +1,365 @@
+package generators;
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import edu.macalester.graphics.Line;
+
+/**
+ * Compact form of a maze that does not depend on which generator carved it.
+ * Every generator carves into one of these as it goes, so the finished maze can be
+ * cached, analysed and drawn the same way whatever algorithm made it.
+ *
+ * Cells are numbered row by row (cell = row * gridSize + col) with row 0 at the top.
+ * Open passages are stored as two bitsets, one bit per cell for the passage to its
+ * east neighbor and one for the passage to its south neighbor. Each row starts on a
+ * fresh 64-bit word, so different rows never share a word.
+ *
+ * The grid also keeps a 64-bit Zobrist hash of its open passages: every passage bit
+ * has a fixed random key (a splitmix64 hash of its position, so no key table is
+ * stored) and the hash is the XOR of the keys of the open ones. Opening or closing a
+ * passage XORs its key in or out, so the hash is always up to date and reading it is
+ * O(1). Two grids with the same passages have the same hash whatever carved them.
+ */
+public class MazeGrid {
+    public static final int NORTH = 0;
+    public static final int EAST = 1;
+    public static final int SOUTH = 2;
+    public static final int WEST = 3;
+
+    private final int gridSize;
+    private final int wordsPerRow;
+    private final long[] eastPassages;
+    private final long[] southPassages;
+    private CarveListener carveListener;
+    private long passageHash;
+
+    /**
+     * constructor, starts with every wall in place
+     * @param gridSize the number of rows and columns
+     */
+    public MazeGrid(int gridSize) {
+        this.gridSize = gridSize;
+        this.wordsPerRow = (gridSize + 63) >>> 6;
+        this.eastPassages = new long[gridSize * wordsPerRow];
+        this.southPassages = new long[gridSize * wordsPerRow];
+    }
+
+    public int getGridSize() {
+        return gridSize;
+    }
+
+    public int getCellCount() {
+        return gridSize * gridSize;
+    }
+
+    /**
+     * @return the number of 64-bit words used for each row of the passage bitsets
+     */
+    public int getWordsPerRow() {
+        return wordsPerRow;
+    }
+
+    /**
+     * The east passage bitset, bit (col & 63) of word row * wordsPerRow + (col >>> 6)
+     * is set when the cell has a passage to its east neighbor. This is the backing
+     * array, not a copy.
+     * @return the east passage words
+     */
+    public long[] getEastPassageWords() {
+        return eastPassages;
+    }
+
+    /**
+     * The south passage bitset, laid out like getEastPassageWords.
+     * This is the backing array, not a copy.
+     * @return the south passage words
+     */
+    public long[] getSouthPassageWords() {
+        return southPassages;
+    }
+
+    public int cellAt(int row, int col) {
+        return row * gridSize + col;
+    }
+
+    public int rowOf(int cell) {
+        return cell / gridSize;
+    }
+
+    public int colOf(int cell) {
+        return cell % gridSize;
+    }
+
+    /**
+     * method to get the neighbor of a cell in a direction
+     * @param cell the cell
+     * @param direction one of NORTH, EAST, SOUTH, WEST
+     * @return the neighboring cell, or -1 if it is outside the grid
+     */
+    public int neighbor(int cell, int direction) {
+        int row = cell / gridSize;
+        int col = cell - row * gridSize;
+        switch (direction) {
+            case NORTH: return row > 0 ? cell - gridSize : -1;
+            case EAST:  return col < gridSize - 1 ? cell + 1 : -1;
+            case SOUTH: return row < gridSize - 1 ? cell + gridSize : -1;
+            case WEST:  return col > 0 ? cell - 1 : -1;
+            default:    throw new IllegalArgumentException("Unknown direction: " + direction);
+        }
+    }
+
+    /**
+     * method to check if a cell has an open passage in a direction
+     * @param row the row of the cell
+     * @param col the column of the cell
+     * @param direction one of NORTH, EAST, SOUTH, WEST
+     * @return true if there is no wall on that side of the cell
+     */
+    public boolean hasPassage(int row, int col, int direction) {
+        switch (direction) {
+            case NORTH: return row > 0 && isSet(southPassages, row - 1, col);
+            case EAST:  return isSet(eastPassages, row, col);
+            case SOUTH: return isSet(southPassages, row, col);
+            case WEST:  return col > 0 && isSet(eastPassages, row, col - 1);
+            default:    throw new IllegalArgumentException("Unknown direction: " + direction);
+        }
+    }
+
+    public boolean hasPassage(int cell, int direction) {
+        return hasPassage(cell / gridSize, cell % gridSize, direction);
+    }
+
+    /**
+     * method to remove the wall on one side of a cell
+     * @param row the row of the cell
+     * @param col the column of the cell
+     * @param direction one of NORTH, EAST, SOUTH, WEST
+     */
+    public void carve(int row, int col, int direction) {
+        switch (direction) {
+            case NORTH: checkInside(row - 1, col); set(southPassages, row - 1, col); break;
+            case EAST:  checkInside(row, col + 1); set(eastPassages, row, col); break;
+            case SOUTH: checkInside(row + 1, col); set(southPassages, row, col); break;
+            case WEST:  checkInside(row, col - 1); set(eastPassages, row, col - 1); break;
+            default:    throw new IllegalArgumentException("Unknown direction: " + direction);
+        }
+    }
+
+    /**
+     * method to remove the wall between two adjacent cells
+     * @param cellA the first cell
+     * @param cellB the second cell, must be next to cellA
+     */
+    public void carveBetween(int cellA, int cellB) {
+        int low = Math.min(cellA, cellB);
+        int high = Math.max(cellA, cellB);
+        int row = low / gridSize;
+        int col = low % gridSize;
+        if (high == low + 1 && col < gridSize - 1) {
+            set(eastPassages, row, col);
+        } else if (high == low + gridSize) {
+            set(southPassages, row, col);
+        } else {
+            throw new IllegalArgumentException("Cells " + cellA + " and " + cellB + " are not adjacent.");
+        }
+    }
+
+    /**
+     * method to put back the wall between two adjacent cells, for mazes that change after they are generated
+     * @param cellA the first cell
+     * @param cellB the second cell, must be next to cellA
+     */
+    public void closeBetween(int cellA, int cellB) {
+        int low = Math.min(cellA, cellB);
+        int high = Math.max(cellA, cellB);
+        int row = low / gridSize;
+        int col = low % gridSize;
+        if (high == low + 1 && col < gridSize - 1) {
+            unset(eastPassages, row, col);
+        } else if (high == low + gridSize) {
+            unset(southPassages, row, col);
+        } else {
+            throw new IllegalArgumentException("Cells " + cellA + " and " + cellB + " are not adjacent.");
+        }
+    }
+
+    /**
+     * method to be told about every passage as it is carved, for streaming a maze
+     * out while it is still being generated
+     * @param listener called once per newly opened passage, or null to stop
+     */
+    public void setCarveListener(CarveListener listener) {
+        this.carveListener = listener;
+    }
+
+    /**
+     * method to put every wall back
+     */
+    public void clear() {
+        Arrays.fill(eastPassages, 0L);
+        Arrays.fill(southPassages, 0L);
+        passageHash = 0;
+    }
+
+    /**
+     * @return a 64-bit hash of the size and the open passages, equal for equal mazes, for dedup and content keyed caches
+     */
+    public long getContentHash() {
+        return passageHash ^ RowParallel.mix((gridSize + 1) * RowParallel.GOLDEN_GAMMA);
+    }
+
+    /**
+     * method for code that writes the passage words directly to account for the bits it changed
+     * @param keys the XOR of passageKey over every bit that was opened or closed
+     */
+    void toggleHash(long keys) {
+        passageHash ^= keys;
+    }
+
+    /**
+     * method to work the hash out again from the passage words, after they were copied or filled in bulk
+     */
+    void rehash() {
+        long hash = 0;
+        for (int word = 0; word < eastPassages.length; word++) {
+            hash ^= wordKeys(word, eastPassages[word], false) ^ wordKeys(word, southPassages[word], true);
+        }
+        passageHash = hash;
+    }
+
+    /**
+     * the Zobrist key of one passage bit, bit of word in the east or the south bitset
+     */
+    static long passageKey(int word, int bit, boolean south) {
+        long slot = ((((long) word << 6) | bit) << 1) | (south ? 1 : 0);
+        return RowParallel.mix((slot + 1) * RowParallel.GOLDEN_GAMMA);
+    }
+
+    /**
+     * the XOR of the keys of every set bit in one word of the east or the south bitset
+     */
+    static long wordKeys(int word, long bits, boolean south) {
+        long keys = 0;
+        for (; bits != 0; bits &= bits - 1) {
+            keys ^= passageKey(word, Long.numberOfTrailingZeros(bits), south);
+        }
+        return keys;
+    }
+
+    /**
+     * @return the number of open passages between cells
+     */
+    public int countPassages() {
+        return (int) (GridScans.countBits(eastPassages) + GridScans.countBits(southPassages));
+    }
+
+    /**
+     * @return a rough size of this grid in bytes, for caches with a memory limit
+     */
+    public long estimateBytes() {
+        return 32 + 2 * (16 + 8L * eastPassages.length);
+    }
+
+    /**
+     * Builds the walls of the maze as line segments packed into one array
+     * (x1, y1, x2, y2 for each wall), laid out like generateMazeLines in the generators:
+     * the south and east wall of every cell plus the outer boundary, with the openings
+     * at the bottom-left and top-right cells.
+     *
+     * @param canvasWidth the width of canvas to draw on
+     * @param canvasHeight the height of canvas to draw on
+     * @return the packed wall coordinates
+     */
+    public double[] wallSegments(int canvasWidth, int canvasHeight) {
+        double cellWidth = canvasWidth / (double) gridSize;
+        double cellHeight = canvasHeight / (double) gridSize;
+        int interiorWalls = 2 * gridSize * (gridSize - 1) - countPassages();
+        double[] segments = new double[4 * (Math.max(interiorWalls, 0) + 4)];
+        int i = 0;
+
+        for (int r = 0; r < gridSize; r++) {
+            for (int c = 0; c < gridSize; c++) {
+                double cellX = c * cellWidth;
+                double cellY = r * cellHeight;
+                if (r < gridSize - 1 && !isSet(southPassages, r, c)) {
+                    i = put(segments, i, cellX, cellY + cellHeight, cellX + cellWidth, cellY + cellHeight);
+                }
+                if (c < gridSize - 1 && !isSet(eastPassages, r, c)) {
+                    i = put(segments, i, cellX + cellWidth, cellY, cellX + cellWidth, cellY + cellHeight);
+                }
+            }
+        }
+        i = put(segments, i, 0, 0, canvasWidth - cellWidth, 0);
+        i = put(segments, i, 0, 0, 0, canvasHeight - cellHeight);
+        i = put(segments, i, cellWidth, canvasHeight, canvasWidth, canvasHeight);
+        put(segments, i, canvasWidth, cellHeight, canvasWidth, canvasHeight);
+        return segments;
+    }
+
+    /**
+     * Turns packed wall segments into Line objects ready to add to a canvas.
+     * @param segments the packed coordinates from wallSegments
+     * @param wallThickness The desired stroke width for the wall lines.
+     * @return A List of Line objects representing the maze walls.
+     */
+    public static List<Line> toLines(double[] segments, double wallThickness) {
+        List<Line> lines = new ArrayList<>(segments.length / 4);
+        for (int i = 0; i < segments.length; i += 4) {
+            Line wall = new Line(segments[i], segments[i + 1], segments[i + 2], segments[i + 3]);
+            wall.setStrokeColor(Color.BLACK);
+            wall.setStrokeWidth(wallThickness);
+            lines.add(wall);
+        }
+        return lines;
+    }
+
+    private static int put(double[] segments, int i, double x1, double y1, double x2, double y2) {
+        segments[i] = x1;
+        segments[i + 1] = y1;
+        segments[i + 2] = x2;
+        segments[i + 3] = y2;
+        return i + 4;
+    }
+
+    /**
+     * Told about each passage as it opens. Every passage is reported once, from the
+     * cell on its west or north side, so the direction is always EAST or SOUTH.
+     */
+    @FunctionalInterface
+    public interface CarveListener {
+        void carved(int cell, int direction);
+    }
+
+    private boolean isSet(long[] bits, int row, int col) {
+        return (bits[row * wordsPerRow + (col >>> 6)] & (1L << col)) != 0;
+    }
+
+    private void set(long[] bits, int row, int col) {
+        int word = row * wordsPerRow + (col >>> 6);
+        long before = bits[word];
+        if ((before & (1L << col)) != 0) {
+            return;
+        }
+        bits[word] = before | (1L << col);
+        passageHash ^= passageKey(word, col & 63, bits == southPassages);
+        if (carveListener != null) {
+            carveListener.carved(row * gridSize + col, bits == eastPassages ? EAST : SOUTH);
+        }
+    }
+
+    private void unset(long[] bits, int row, int col) {
+        int word = row * wordsPerRow + (col >>> 6);
+        if ((bits[word] & (1L << col)) != 0) {
+            bits[word] &= ~(1L << col);
+            passageHash ^= passageKey(word, col & 63, bits == southPassages);
+        }
+    }
+
+    private void checkInside(int row, int col) {
+        if (row < 0 || row >= gridSize || col < 0 || col >= gridSize) {
+            throw new IllegalArgumentException("Cannot carve out of the grid at (" + row + "," + col + ")");
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package generators;
+
+/**
+ * A maze generation that can be paused and resumed. Each call advances the
+ * generation a little and returns, so it can be driven from an animation callback
+ * (drawing the carving as it happens) without holding up the frame.
+ *
+ * What one step means depends on the algorithm, but it is always a small, bounded
+ * amount of work (one frontier edge, one walk move, one direction checked).
+ */
+public interface MazeStepper {
+    /** how many steps stepFor takes between looks at the clock */
+    int STEPS_PER_CLOCK_CHECK = 64;
+
+    /**
+     * method to advance the generation
+     * @param maxSteps the most steps to take before returning
+     * @return true once the maze is finished
+     */
+    boolean step(int maxSteps);
+
+    /**
+     * @return true once the maze is finished
+     */
+    boolean isDone();
+
+    /**
+     * @return the maze carved so far, it fills in as the stepper advances
+     */
+    MazeGrid getMazeGrid();
+
+    /**
+     * method to advance the generation until it finishes, maxSteps steps have been
+     * taken or nanoBudget nanoseconds have passed, whichever comes first
+     * @param maxSteps the most steps to take before returning
+     * @param nanoBudget how long it may run, in nanoseconds
+     * @return true once the maze is finished
+     */
+    default boolean stepFor(int maxSteps, long nanoBudget) {
+        long start = System.nanoTime();
+        int remaining = maxSteps;
+        while (remaining > 0) {
+            int batch = Math.min(remaining, STEPS_PER_CLOCK_CHECK);
+            if (step(batch)) {
+                return true;
+            }
+            remaining -= batch;
+            if (System.nanoTime() - start >= nanoBudget) {
+                break;
+            }
+        }
+        return isDone();
+    }
+}
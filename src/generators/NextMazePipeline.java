@@ -0,0 +1,157 @@
+package generators;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import edu.macalester.graphics.Line;
+
+/**
+ * Generates the maze for the next round on a background thread while the current
+ * round is being played, including the Line objects for its walls, so starting the
+ * next round only has to swap the walls on the canvas.
+ *
+ * The UI thread picks the finished maze up with poll(), which never blocks. The
+ * Future hands the maze over, so everything built on the background thread is
+ * visible to the UI thread once poll() returns it. The Lines are not on any canvas
+ * until the UI thread adds them.
+ */
+public class NextMazePipeline {
+    private final ExecutorService worker;
+    private final MazeCache cache;
+    private final Algorithm algorithm;
+    private final int gridSize;
+    private final int canvasWidth;
+    private final int canvasHeight;
+    private final double braidProbability;
+    private final double wallThickness;
+    private Future<PreparedMaze> next;
+
+    /**
+     * constructor
+     * @param cache the cache to generate through, so repeated seeds are lookups
+     * @param algorithm the algorithm to generate with
+     * @param gridSize the size of the grid
+     * @param canvasWidth the width of canvas the walls are laid out for
+     * @param canvasHeight the height of canvas the walls are laid out for
+     * @param braidProbability the probability of opening extra walls, 0 for a perfect maze
+     * @param wallThickness the stroke width of the wall lines
+     */
+    public NextMazePipeline(MazeCache cache, Algorithm algorithm, int gridSize, int canvasWidth, int canvasHeight,
+                            double braidProbability, double wallThickness) {
+        this.cache = cache;
+        this.algorithm = algorithm;
+        this.gridSize = gridSize;
+        this.canvasWidth = canvasWidth;
+        this.canvasHeight = canvasHeight;
+        this.braidProbability = braidProbability;
+        this.wallThickness = wallThickness;
+        this.worker = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "next-maze");
+            thread.setDaemon(true); // never keeps the game running after the window closes
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        });
+    }
+
+    /**
+     * method to start generating the maze for a seed in the background,
+     * replacing any maze that was prepared but not picked up yet
+     * @param seed the seed for the next maze
+     */
+    public synchronized void prepare(long seed) {
+        if (next != null) {
+            next.cancel(false);
+        }
+        next = worker.submit(() -> build(seed));
+    }
+
+    /**
+     * method to pick up the prepared maze without waiting, meant for the UI thread
+     * @return the prepared maze, or null if there is none or it is still being generated
+     */
+    public synchronized PreparedMaze poll() {
+        if (next == null || !next.isDone()) {
+            return null;
+        }
+        Future<PreparedMaze> done = next;
+        next = null;
+        try {
+            return done.get();
+        } catch (InterruptedException | CancellationException e) {
+            return null;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Generating the next maze failed.", e.getCause());
+        }
+    }
+
+    /**
+     * method to wait for the prepared maze, for callers that cannot carry on without it
+     * @return the prepared maze, or null if none was requested
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public PreparedMaze take() throws InterruptedException {
+        Future<PreparedMaze> pending;
+        synchronized (this) {
+            pending = next;
+            next = null;
+        }
+        if (pending == null) {
+            return null;
+        }
+        try {
+            return pending.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Generating the next maze failed.", e.getCause());
+        }
+    }
+
+    /**
+     * method to check whether a prepared maze is waiting to be picked up
+     * @return true if poll() would return a maze right now
+     */
+    public synchronized boolean isReady() {
+        return next != null && next.isDone() && !next.isCancelled();
+    }
+
+    /**
+     * method to stop the background thread, any maze still being generated is dropped
+     */
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    private PreparedMaze build(long seed) {
+        MazeCache.CachedMaze maze = cache.get(algorithm, gridSize, canvasWidth, canvasHeight, seed, braidProbability);
+        return new PreparedMaze(seed, maze, MazeGrid.toLines(maze.getWallSegments(), wallThickness));
+    }
+
+    /**
+     * A maze ready to be shown: the cached maze plus wall Lines built just for this round.
+     */
+    public static class PreparedMaze {
+        private final long seed;
+        private final MazeCache.CachedMaze maze;
+        private final List<Line> walls;
+
+        PreparedMaze(long seed, MazeCache.CachedMaze maze, List<Line> walls) {
+            this.seed = seed;
+            this.maze = maze;
+            this.walls = walls;
+        }
+
+        public long getSeed() {
+            return seed;
+        }
+
+        public MazeCache.CachedMaze getMaze() {
+            return maze;
+        }
+
+        public List<Line> getWalls() {
+            return walls;
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package generators;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Wilson's algorithm with several loop-erased walks running at once. Like
+ * WilsonsAlgorithmGenerator it picks uniformly among all spanning trees of the
+ * grid, so no maze is more likely than another, which is what competitive play needs.
+ *
+ * It uses the cycle-popping form of Wilson's algorithm: every cell has a fixed,
+ * endless list of random arrows (hashed from the seed, the cell and how many times
+ * its arrow has been replaced). A walk follows the current arrows, and when it runs
+ * into itself the loop is erased by moving each cell on the loop to its next arrow.
+ * The finished tree does not depend on which loops were erased first, so walks can
+ * run concurrently and the maze is the same for any number of threads.
+ *
+ * A walk owns the cells on its path. Running into another walk's cell is a conflict:
+ * the walk that started earlier waits for the other to finish or let go, the later
+ * one releases its path and starts again. Waits only ever go from earlier to later
+ * walks, so they cannot form a cycle. When a walk reaches the tree its whole path
+ * joins the tree at once.
+ */
+public class ParallelWilsonsGenerator {
+    private static final int FREE = 0;
+    private static final int TREE = -1;
+
+    private final int gridSize;
+    private final int cellCount;
+    private final long seed;
+    private final Random random;
+    private final MazeGrid passages;
+    private final LongAdder moves = new LongAdder();
+
+    // the shared state of a run, reset by each generation
+    private AtomicIntegerArray owner;
+    private int[] popCount;
+    private int[] pathIndex;
+    private byte[] treeDirection;
+    private AtomicInteger nextStart;
+    private AtomicInteger nextWalkId;
+
+    /**
+     * constructor
+     * @param gridSize the size of the grid
+     */
+    public ParallelWilsonsGenerator(int gridSize) {
+        this(gridSize, new Random().nextLong());
+    }
+
+    /**
+     * seeded constructor, the same seed always carves the same maze whatever the number of threads
+     * @param gridSize the size of the grid
+     * @param seed the seed for the random number generator
+     */
+    public ParallelWilsonsGenerator(int gridSize, long seed) {
+        this.gridSize = gridSize;
+        this.cellCount = gridSize * gridSize;
+        this.seed = seed;
+        this.random = new Random(seed);
+        this.passages = new MazeGrid(gridSize);
+    }
+
+    /**
+     * method to generate the maze in one go, with one walk per thread of the common ForkJoinPool
+     */
+    public void generateMaze() {
+        generateMaze(ForkJoinPool.commonPool(), ForkJoinPool.commonPool().getParallelism());
+    }
+
+    /**
+     * method to generate the maze in one go, the carve listener is not told about passages carved this way
+     * @param pool the pool to run the walks on
+     * @param walkers how many walks to run at once
+     */
+    public void generateMaze(ForkJoinPool pool, int walkers) {
+        if (walkers <= 0) {
+            throw new IllegalArgumentException("walkers must be positive, got " + walkers);
+        }
+        reset();
+        if (cellCount > 0) {
+            pool.invoke(new WalkersTask(walkers));
+        }
+        for (int cell = 0; cell < cellCount; cell++) {
+            if (treeDirection[cell] >= 0) {
+                passages.carve(passages.rowOf(cell), passages.colOf(cell), treeDirection[cell]);
+            }
+        }
+    }
+
+    /**
+     * method to generate the maze a few steps at a time with a single walk, one step is one walk move,
+     * passages are carved as each walk joins the tree. Carves the same maze as generateMaze.
+     * Starts over from an empty maze, like generateMaze
+     * @return a stepper that carves into this generator
+     */
+    public MazeStepper stepper() {
+        reset();
+        return new WalkStepper();
+    }
+
+    /**
+     * method to add random edges to the maze after it is generated, making loops
+     * @param probability the probability of opening each remaining wall
+     */
+    public void addRandomEdges(double probability) {
+        Braiding.chooseWalls(passages, probability, random, (cell, direction) ->
+            passages.carve(passages.rowOf(cell), passages.colOf(cell), direction));
+    }
+
+    private void reset() {
+        passages.clear();
+        moves.reset();
+        owner = new AtomicIntegerArray(cellCount);
+        popCount = new int[cellCount];
+        pathIndex = new int[cellCount];
+        treeDirection = new byte[cellCount];
+        Arrays.fill(treeDirection, (byte) -1);
+        nextStart = new AtomicInteger();
+        nextWalkId = new AtomicInteger(1);
+        if (cellCount > 0) {
+            // Wilson's is uniform for any root, this one is fixed by the seed
+            owner.set((int) Long.remainderUnsigned(RowParallel.mix(seed), cellCount), TREE);
+        }
+    }
+
+    @SuppressWarnings("serial") // fork-join tasks are never serialized
+    private class WalkersTask extends RecursiveAction {
+        private final int walkers;
+
+        WalkersTask(int walkers) {
+            this.walkers = walkers;
+        }
+
+        @Override
+        protected void compute() {
+            List<ForkJoinTask<?>> tasks = new ArrayList<>();
+            for (int w = 0; w < walkers; w++) {
+                tasks.add(ForkJoinTask.adapt(() -> {
+                    Walker walker = new Walker(false);
+                    while (walker.advance()) {
+                        // walks until no cell is left to start from
+                    }
+                    walker.finish();
+                }));
+            }
+            invokeAll(tasks);
+        }
+    }
+
+    /**
+     * One thread's walks, run a move at a time. The cells of the current walk are
+     * path[0 .. length), each owned by this walk's id, and pathIndex gives a cell's
+     * place on the path.
+     */
+    private class Walker {
+        private final boolean carveOnCommit;
+        private int[] path = new int[64];
+        private int length;
+        private int start = -1;
+        private int id;
+        private long walkerMoves;
+        private int waits;
+
+        Walker(boolean carveOnCommit) {
+            this.carveOnCommit = carveOnCommit;
+        }
+
+        /**
+         * method to make one move of the current walk, or start a new one
+         * @return false once every cell is in the tree or claimed by another walker's start
+         */
+        boolean advance() {
+            walkerMoves++;
+            if (length == 0) {
+                return begin();
+            }
+            int cell = path[length - 1];
+            int next = passages.neighbor(cell, arrow(cell));
+            int state = owner.get(next);
+            if (state == TREE) {
+                commit();
+            } else if (state == id) {
+                popLoop(pathIndex[next]);
+            } else if (state == FREE) {
+                if (owner.compareAndSet(next, FREE, id)) {
+                    push(next);
+                }
+            } else if (state < id) {
+                // an earlier walk has the cell, let go so it can finish, then start over
+                release(0);
+                id = nextWalkId.getAndIncrement();
+            } else {
+                // a later walk has the cell, it will finish or let go
+                backOff();
+            }
+            return true;
+        }
+
+        private boolean begin() {
+            while (start < 0 || owner.get(start) == TREE) {
+                start = nextStart.getAndIncrement();
+                if (start >= cellCount) {
+                    return false;
+                }
+            }
+            if (id == 0) {
+                id = nextWalkId.getAndIncrement();
+            }
+            if (owner.compareAndSet(start, FREE, id)) {
+                push(start);
+            } else {
+                // another walk is passing through the start cell, nothing is held so just wait
+                backOff();
+            }
+            return true;
+        }
+
+        /*
+         * erases the loop from path[from] back to path[from]: every cell on it moves on to its next arrow
+         */
+        private void popLoop(int from) {
+            for (int i = from; i < length; i++) {
+                popCount[path[i]]++;
+            }
+            release(from + 1);
+        }
+
+        private void commit() {
+            for (int i = 0; i < length; i++) {
+                int cell = path[i];
+                int direction = arrow(cell);
+                treeDirection[cell] = (byte) direction;
+                owner.set(cell, TREE);
+                if (carveOnCommit) {
+                    passages.carve(passages.rowOf(cell), passages.colOf(cell), direction);
+                }
+            }
+            length = 0;
+            id = 0;
+        }
+
+        /*
+         * spins while waiting, and now and then gives the core up in case the walk
+         * being waited for is not running
+         */
+        private void backOff() {
+            if (++waits % 64 == 0) {
+                Thread.yield();
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+
+        private void release(int from) {
+            for (int i = from; i < length; i++) {
+                owner.set(path[i], FREE);
+            }
+            length = from;
+        }
+
+        private void push(int cell) {
+            if (length == path.length) {
+                path = Arrays.copyOf(path, length * 2);
+            }
+            pathIndex[cell] = length;
+            path[length++] = cell;
+        }
+
+        void finish() {
+            moves.add(walkerMoves);
+            walkerMoves = 0;
+        }
+    }
+
+    private class WalkStepper implements MazeStepper {
+        private final Walker walker = new Walker(true);
+        private boolean done = cellCount == 0;
+
+        public boolean step(int maxSteps) {
+            for (int i = 0; i < maxSteps && !done; i++) {
+                done = !walker.advance();
+            }
+            if (done) {
+                walker.finish();
+            }
+            return done;
+        }
+
+        public boolean isDone() {
+            return done;
+        }
+
+        public MazeGrid getMazeGrid() {
+            return passages;
+        }
+    }
+
+    /*
+     * the current arrow out of a cell: a random direction to a neighbor inside the grid,
+     * hashed from the seed, the cell and how many times the cell's arrow has been popped
+     */
+    private int arrow(int cell) {
+        long hash = RowParallel.mix(seed + RowParallel.GOLDEN_GAMMA * ((((long) cell) << 32) + popCount[cell] + 1));
+        int row = passages.rowOf(cell);
+        int col = passages.colOf(cell);
+        int options = (row > 0 ? 1 : 0) + (col < gridSize - 1 ? 1 : 0) + (row < gridSize - 1 ? 1 : 0) + (col > 0 ? 1 : 0);
+        int pick = (int) (((hash >>> 32) * options) >>> 32);
+        for (int d = MazeGrid.NORTH; d <= MazeGrid.WEST; d++) {
+            if (passages.neighbor(cell, d) >= 0 && pick-- == 0) {
+                return d;
+            }
+        }
+        throw new IllegalStateException("Cell " + cell + " has no neighbors.");
+    }
+
+    /**
+     * method to get the maze in the compact form shared by every generator
+     * @return the passages carved so far
+     */
+    public MazeGrid getMazeGrid() {
+        return passages;
+    }
+
+    /**
+     * @return the number of walk moves during the last generation, across every thread
+     */
+    public long getStepCount() {
+        return moves.sum();
+    }
+}
@@ -16,16 +16,32 @@ public class PrimsAlgorithmGenerator {
     private final Random random;
     private final int gridSize;
     private Set<String> connections;
+    private final MazeGrid passages;
+    private long stepCount;
     /**
     * constractor
     * @param gridSize the size of the grid
     */
     public PrimsAlgorithmGenerator(int gridSize){
+        this(gridSize, new Random());
+    }
+
+    /**
+    * constractor with a fixed seed, so the same seed always gives the same maze
+    * @param gridSize the size of the grid
+    * @param seed the seed for the random number generator
+    */
+    public PrimsAlgorithmGenerator(int gridSize, long seed){
+        this(gridSize, new Random(seed));
+    }
+
+    private PrimsAlgorithmGenerator(int gridSize, Random random){
         this.gridSize = gridSize;
+        this.random = random;
         nodes = new ArrayList<>();
         edges = new ArrayList<>();
-        random = new Random();
         connections = new HashSet<>();
+        passages = new MazeGrid(gridSize);
         for (int row = 0; row < gridSize; row++) {
             for (int col = 0; col < gridSize; col++) {
                 nodes.add(new Node(row, col));
@@ -63,95 +79,111 @@ public class PrimsAlgorithmGenerator {
     * method to generate a maze using Prim's algorithm with a random starting point
     */
     public void generateMaze() {
-        edges.clear(); 
-        List<Node> inside = new ArrayList<>();
-        List<Node> outside = new ArrayList<>(nodes);
-
-        if (outside.isEmpty()) return; 
-
-        Node startNode = outside.remove(random.nextInt(outside.size()));
-        inside.add(startNode);
-
-        List<Edge> potentialEdges = new ArrayList<>();
-        findPotentialEdges(startNode, outside, potentialEdges);
+        MazeStepper stepper = stepper();
+        while (!stepper.step(Integer.MAX_VALUE)) {
+            // runs to the end in one go
+        }
+    }
 
-        while (!outside.isEmpty() && !potentialEdges.isEmpty()) {
-            Edge edge = potentialEdges.remove(random.nextInt(potentialEdges.size()));
-            Node nodeA = edge.nodeA;
-            Node nodeB = edge.nodeB;
+    /**
+    * method to generate the maze a few steps at a time, one step picks one frontier edge
+    * starts over from an empty maze, like generateMaze
+    * @return a stepper that carves into this generator
+    */
+    public MazeStepper stepper() {
+        return new PrimsStepper();
+    }
 
-            Node outsideNode = null;
-            if (inside.contains(nodeA) && !inside.contains(nodeB)) {
-                outsideNode = nodeB;
-            } else if (inside.contains(nodeB) && !inside.contains(nodeA)) {
-                outsideNode = nodeA;
+    /**
+     * Prim's algorithm as a resumable loop, the frontier and the inside nodes are
+     * kept between calls to step.
+     */
+    private class PrimsStepper implements MazeStepper {
+        private final boolean[] inside = new boolean[nodes.size()];
+        private final List<Edge> potentialEdges = new ArrayList<>();
+        private boolean done;
+
+        PrimsStepper() {
+            edges.clear(); 
+            passages.clear();
+            stepCount = 0;
+            if (nodes.isEmpty()) {
+                done = true;
+                return;
             }
+            Node startNode = nodes.get(random.nextInt(nodes.size()));
+            inside[startNode.row * gridSize + startNode.col] = true;
+            findPotentialEdges(startNode, inside, potentialEdges);
+        }
+
+        public boolean step(int maxSteps) {
+            for (int i = 0; i < maxSteps && !potentialEdges.isEmpty(); i++) {
+                stepCount++;
+                int pick = random.nextInt(potentialEdges.size());
+                Edge edge = potentialEdges.get(pick);
+                // swap the last edge into the gap so removal is O(1), the order of the frontier does not matter
+                int last = potentialEdges.size() - 1;
+                potentialEdges.set(pick, potentialEdges.get(last));
+                potentialEdges.remove(last);
+
+                // frontier edges always go from an inside node (nodeA) to an outside node (nodeB),
+                // but nodeB may have joined the maze through another edge since this one was added
+                Node outsideNode = edge.nodeB;
+                int outsideIndex = outsideNode.row * gridSize + outsideNode.col;
+                if (inside[outsideIndex]) continue;
 
-            if (outsideNode != null) {
                 edges.add(edge);
-                inside.add(outsideNode);
-                outside.remove(outsideNode);
-                potentialEdges.removeIf(e -> inside.contains(e.nodeA) && inside.contains(e.nodeB));
-                findPotentialEdges(outsideNode, outside, potentialEdges);
+                passages.carveBetween(edge.nodeA.row * gridSize + edge.nodeA.col, outsideIndex);
+                inside[outsideIndex] = true;
+                findPotentialEdges(outsideNode, inside, potentialEdges);
+            }
+            if (!done && potentialEdges.isEmpty()) {
+                buildConnectionsSet(); 
+                done = true;
             }
+            return done;
+        }
+
+        public boolean isDone() {
+            return done;
+        }
+
+        public MazeGrid getMazeGrid() {
+            return passages;
         }
-         buildConnectionsSet(); 
     }
 
 
     /**
-     * Finds potential edges connecting the given node to nodes in the outside list
-     * and adds them to the potentialEdges list.
+     * Finds potential edges connecting the given node to its neighbors that are not
+     * in the maze yet and adds them to the potentialEdges list.
      * @param node the node to check for potential edges
-     * @param outside the list of nodes outside the current maze
+     * @param inside which nodes (by row * gridSize + col) are already in the maze
      * @param potentialEdges the list to add potential edges to
      */
-    private void findPotentialEdges(Node node, List<Node> outside, List<Edge> potentialEdges) {
-        for (Node potentialNeighbor : outside) {
-            if (isNeighbor(node, potentialNeighbor)) {
-                boolean alreadyExists = false;
-                for(Edge existingEdge : potentialEdges) {
-                    if ((existingEdge.nodeA == node && existingEdge.nodeB == potentialNeighbor) ||
-                        (existingEdge.nodeA == potentialNeighbor && existingEdge.nodeB == node)) {
-                        alreadyExists = true;
-                        break;
-                    }
-                }
-                if (!alreadyExists) {
-                    potentialEdges.add(new Edge(node, potentialNeighbor));
-                }
+    private void findPotentialEdges(Node node, boolean[] inside, List<Edge> potentialEdges) {
+        for (Node potentialNeighbor : getPotentialNeighbors(node)) {
+            stepCount++;
+            if (!inside[potentialNeighbor.row * gridSize + potentialNeighbor.col]) {
+                potentialEdges.add(new Edge(node, potentialNeighbor));
             }
         }
     }
 
 
     /**
-     * method to check if two nodes are neighbors
-     * @param nodeA the first node
-     * @param nodeB the second node
-     * @return true if they are neighbors, false otherwise
-     */
-    private boolean isNeighbor(Node nodeA, Node nodeB) {
-        int rowDiff = Math.abs(nodeA.row - nodeB.row);
-        int colDiff = Math.abs(nodeA.col - nodeB.col);
-        return (rowDiff == 1 && colDiff == 0) || (rowDiff == 0 && colDiff == 1);
-    }
-
-    /**
-     * method to add random edges to the maze
-     * @param probability the probability of adding an edge
+     * method to add random edges to the maze, jumping straight from one chosen wall
+     * to the next so it costs time only for the walls it opens
+     * @param probability the probability of opening each remaining wall
      */
     public void addRandomEdges(double probability) {
-        int addedCount = 0;
-        for (Node node : nodes) {
-            for (Node neighbor : getPotentialNeighbors(node)) {
-                if (!connections.contains(getConnectionKey(node, neighbor)) && random.nextDouble() < probability) {
-                    edges.add(new Edge(node, neighbor));
-                    connections.add(getConnectionKey(node, neighbor));
-                    addedCount++;
-                }
-            }
-        }
+        Braiding.chooseWalls(passages, probability, random, (cell, direction) -> {
+            Node node = nodes.get(cell);
+            Node neighbor = nodes.get(passages.neighbor(cell, direction));
+            edges.add(new Edge(node, neighbor));
+            connections.add(getConnectionKey(node, neighbor));
+            passages.carve(node.row, node.col, direction);
+        });
     }
     
     /**
@@ -286,6 +318,24 @@ public class PrimsAlgorithmGenerator {
         return edges;
     }
 
+    /**
+     * method to get the maze in the generator independent MazeGrid form,
+     * kept up to date as passages are carved
+     * @return the carved passages
+     */
+    public MazeGrid getMazeGrid() {
+        return passages;
+    }
+
+    /**
+     * method to get the number of elementary steps the last generateMaze call took
+     * (frontier edges picked plus neighbors examined), used to check how generation scales
+     * @return the step count of the last generation
+     */
+    public long getStepCount() {
+        return stepCount;
+    }
+
     /**
      * class representing a node in the maze
      * each node has a row and column position
@@ -1,4 +1,5 @@
 package generators;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -25,13 +26,27 @@ public class RecursiveBacktrackingAlgorithmGenerator {
     private ArrayList <Line> lines;
     // int repeated = 0;
     Node startNode;
+    private final MazeGrid passages;
+    private long stepCount;
 
     public RecursiveBacktrackingAlgorithmGenerator(int size){
+        this(size, new Random());
+    }
+
+    /*
+     * seeded version so the same seed always carves the same maze
+     */
+    public RecursiveBacktrackingAlgorithmGenerator(int size, long seed){
+        this(size, new Random(seed));
+    }
+
+    private RecursiveBacktrackingAlgorithmGenerator(int size, Random random){
         this.size = size;
+        this.random = random;
 
         nodes = new ArrayList<>();
         edges = new ArrayList<>();
-        random = new Random();
+        passages = new MazeGrid(size);
         directions = new ArrayList<>();
         lines = new ArrayList<>();
         directions.add("N");
@@ -60,81 +75,146 @@ public class RecursiveBacktrackingAlgorithmGenerator {
         if (nodeStart == null){
             nodeStart = nodes.get(0);
         }
-        Collections.shuffle(directions); // randomizes directions for each node
-        System.out.println(directions);
-        Node nodeChecking = null;
+        // each call shuffles its own copy, the recursive calls below would otherwise
+        // reshuffle the list this loop is still walking through and skip directions
+        List<String> directions = new ArrayList<>(this.directions);
+        Collections.shuffle(directions, random); // randomizes directions for each node
         nodeStart.marked = true;
 
         for (int i = 0; i < directions.size(); i++){ // checks each direction for availablity
-            if (directions.get(i) == "N"){
-                if (insideBounds(nodeStart.x, nodeStart.y + 1)) { // if it is in bounds
-                    nodeChecking = getNode(nodeStart.x, nodeStart.y + 1);
-                    if (!nodeChecking.marked){ // if not allready marked
-                        north[nodeStart.x][nodeStart.y] = false; // remove the wall in the direction moved
-                        south[nodeStart.x][nodeStart.y + 1] = false; // remove for ajacent node to prevent gap being drawn over
-                        edges.add(new Edge(nodeStart,nodeChecking)); // create edge between nodes
-                        System.out.println("got here __North!__");
-                        System.out.println("X:");
-                        System.out.println(nodeStart.x);
-                        System.out.println("Y:");
-                        System.out.println(nodeStart.y);
-                        nodeChecking.marked = true;
-                        generateMaze(nodeChecking);
-                    } 
+            stepCount++;
+            Node carved = carveToward(nodeStart, directions.get(i));
+            if (carved != null){
+                generateMaze(carved);
+            }
+        }
+    }
+
+    /*
+     * same carving as generateMaze, but one direction check per step so it can be paused
+     * between animation frames, the recursion is kept on an explicit stack instead of the call stack
+     */
+    public MazeStepper stepper(Node nodeStart){
+        if (nodeStart == null && !nodes.isEmpty()){
+            nodeStart = nodes.get(0);
+        }
+        return new BacktrackingStepper(nodeStart);
+    }
+
+    private class BacktrackingStepper implements MazeStepper {
+        private final ArrayDeque<Frame> stack = new ArrayDeque<>();
+
+        BacktrackingStepper(Node nodeStart){
+            if (nodeStart != null){
+                enter(nodeStart);
+            }
+        }
+
+        /*
+         * what a call to generateMaze does before its loop: shuffle the directions and mark the node
+         */
+        private void enter(Node node){
+            List<String> order = new ArrayList<>(directions);
+            Collections.shuffle(order, random);
+            node.marked = true;
+            stack.push(new Frame(node, order));
+        }
+
+        public boolean step(int maxSteps){
+            for (int i = 0; i < maxSteps && !stack.isEmpty(); i++){
+                Frame top = stack.peek();
+                if (top.next == top.directions.size()){ // every direction checked, back up
+                    stack.pop();
+                    continue;
+                }
+                stepCount++;
+                Node carved = carveToward(top.node, top.directions.get(top.next++));
+                if (carved != null){
+                    enter(carved);
                 }
             }
-            else if (directions.get(i) == "S"){
-                if (insideBounds(nodeStart.x, nodeStart.y - 1)) {
-                    nodeChecking = getNode(nodeStart.x, nodeStart.y - 1);
-                    if (!nodeChecking.marked){
-                        south[nodeStart.x][nodeStart.y] = false; // remove the wall in the direction moved
-                        north[nodeStart.x][nodeStart.y - 1] = false;
-                        edges.add(new Edge(nodeStart,nodeChecking)); // create edge between nodes
-                        System.out.println("got here __South!__");
-                        System.out.println("X:");
-                        System.out.println(nodeStart.x);
-                        System.out.println("Y:");
-                        System.out.println(nodeStart.y);
-                        nodeChecking.marked = true;
-                        generateMaze(nodeChecking);
-                    }
+            return stack.isEmpty();
+        }
+
+        public boolean isDone(){
+            return stack.isEmpty();
+        }
+
+        public MazeGrid getMazeGrid(){
+            return passages;
+        }
+    }
+
+    /*
+     * one level of the recursion: the node, its shuffled directions and the next one to check
+     */
+    private static class Frame {
+        final Node node;
+        final List<String> directions;
+        int next;
+
+        Frame(Node node, List<String> directions){
+            this.node = node;
+            this.directions = directions;
+        }
+    }
+
+    /*
+     * knocks down the wall from nodeStart in the given direction if the node on the other side
+     * is inside the maze and not marked yet
+     * returns that node (now marked) so the caller can carry on from it, or null if nothing was carved
+     */
+    private Node carveToward(Node nodeStart, String direction){
+        Node nodeChecking = null;
+        if (direction == "N"){
+            if (insideBounds(nodeStart.x, nodeStart.y + 1)) { // if it is in bounds
+                nodeChecking = getNode(nodeStart.x, nodeStart.y + 1);
+                if (!nodeChecking.marked){ // if not allready marked
+                    north[nodeStart.x][nodeStart.y] = false; // remove the wall in the direction moved
+                    south[nodeStart.x][nodeStart.y + 1] = false; // remove for ajacent node to prevent gap being drawn over
+                    addEdge(nodeStart,nodeChecking); // create edge between nodes
+                    nodeChecking.marked = true;
+                    return nodeChecking;
+                } 
+            }
+        }
+        else if (direction == "S"){
+            if (insideBounds(nodeStart.x, nodeStart.y - 1)) {
+                nodeChecking = getNode(nodeStart.x, nodeStart.y - 1);
+                if (!nodeChecking.marked){
+                    south[nodeStart.x][nodeStart.y] = false; // remove the wall in the direction moved
+                    north[nodeStart.x][nodeStart.y - 1] = false;
+                    addEdge(nodeStart,nodeChecking); // create edge between nodes
+                    nodeChecking.marked = true;
+                    return nodeChecking;
                 }
             }
-            else if (directions.get(i) == "E"){
-                if (insideBounds(nodeStart.x + 1, nodeStart.y)) {
-                    nodeChecking = getNode(nodeStart.x + 1, nodeStart.y);
-                    if (!nodeChecking.marked){
-                        east[nodeStart.x][nodeStart.y] = false; // remove the wall in the direction moved
-                        west[nodeStart.x + 1][nodeStart.y] = false;
-                        edges.add(new Edge(nodeStart,nodeChecking)); // create edge between nodes
-                        System.out.println("got here __East!__");
-                        System.out.println("X:");
-                        System.out.println(nodeStart.x);
-                        System.out.println("Y:");
-                        System.out.println(nodeStart.y);
-                        nodeChecking.marked = true;
-                        generateMaze(nodeChecking);
-                    }
+        }
+        else if (direction == "E"){
+            if (insideBounds(nodeStart.x + 1, nodeStart.y)) {
+                nodeChecking = getNode(nodeStart.x + 1, nodeStart.y);
+                if (!nodeChecking.marked){
+                    east[nodeStart.x][nodeStart.y] = false; // remove the wall in the direction moved
+                    west[nodeStart.x + 1][nodeStart.y] = false;
+                    addEdge(nodeStart,nodeChecking); // create edge between nodes
+                    nodeChecking.marked = true;
+                    return nodeChecking;
                 }
             }
-            else if (directions.get(i) == "W"){
-                if (insideBounds(nodeStart.x - 1, nodeStart.y)) {
-                    nodeChecking = getNode(nodeStart.x - 1, nodeStart.y);
-                    if (!nodeChecking.marked){
-                        west[nodeStart.x][nodeStart.y] = false; // remove the wall in the direction moved
-                        east[nodeStart.x - 1][nodeStart.y] = false;
-                        edges.add(new Edge(nodeStart,nodeChecking)); // create edge between nodes
-                        System.out.println("got here __West!__");
-                        System.out.println("X:");
-                        System.out.println(nodeStart.x);
-                        System.out.println("Y:");
-                        System.out.println(nodeStart.y);
-                        nodeChecking.marked = true;
-                        generateMaze(nodeChecking);
-                    }
+        }
+        else if (direction == "W"){
+            if (insideBounds(nodeStart.x - 1, nodeStart.y)) {
+                nodeChecking = getNode(nodeStart.x - 1, nodeStart.y);
+                if (!nodeChecking.marked){
+                    west[nodeStart.x][nodeStart.y] = false; // remove the wall in the direction moved
+                    east[nodeStart.x - 1][nodeStart.y] = false;
+                    addEdge(nodeStart,nodeChecking); // create edge between nodes
+                    nodeChecking.marked = true;
+                    return nodeChecking;
                 }
             }
         }
+        return null;
     }
 
     public ArrayList<Line> drawMaze(CanvasWindow canvas){
@@ -226,7 +306,7 @@ public class RecursiveBacktrackingAlgorithmGenerator {
                 System.out.println("box found!!");
                 System.out.println(cn.x);
                 System.out.println(cn.y);
-                Collections.shuffle(directions);
+                Collections.shuffle(directions, random);
                 cn.marked = false;
                 System.out.println(directions);
                 for (int i = 0; i < directions.size(); i++){
@@ -235,14 +315,14 @@ public class RecursiveBacktrackingAlgorithmGenerator {
                         if (insideBounds(cn.x, cn.y + 1)) {
                             north[cn.x][cn.y] = false; 
                             south[cn.x][cn.y + 1] = false;
-                            edges.add(new Edge(cn, getNode(cn.x, cn.y + 1)));
+                            addEdge(cn, getNode(cn.x, cn.y + 1));
                         }
                     }
                     else if (directions.get(i) == "S"){
                         if (insideBounds(cn.x, cn.y - 1)) {
                             north[cn.x][cn.y] = false; 
                             south[cn.x][cn.y - 1] = false;
-                            edges.add(new Edge(cn, getNode(cn.x, cn.y - 1)));
+                            addEdge(cn, getNode(cn.x, cn.y - 1));
 
                         }
                     }
@@ -250,7 +330,7 @@ public class RecursiveBacktrackingAlgorithmGenerator {
                         if (insideBounds(cn.x + 1, cn.y)) {
                             north[cn.x][cn.y] = false; 
                             south[cn.x + 1][cn.y] = false;
-                            edges.add(new Edge(cn, getNode(cn.x + 1, cn.y)));
+                            addEdge(cn, getNode(cn.x + 1, cn.y));
 
                         }
                     }
@@ -258,7 +338,7 @@ public class RecursiveBacktrackingAlgorithmGenerator {
                         if (insideBounds(cn.x - 1, cn.y)) {
                             north[cn.x][cn.y] = false; 
                             south[cn.x - 1][cn.y] = false;
-                            edges.add(new Edge(cn, getNode(cn.x - 1, cn.y)));
+                            addEdge(cn, getNode(cn.x - 1, cn.y));
 
                         }
                     }
@@ -269,6 +349,35 @@ public class RecursiveBacktrackingAlgorithmGenerator {
     }
         
 
+    /**
+     * method to add random edges to the maze after it is generated, making loops
+     * @param probability the probability of opening each remaining wall
+     */
+    public void addRandomEdges(double probability){
+        Braiding.chooseWalls(passages, probability, random, (cell, direction) -> {
+            // the grid counts rows down from the top, the nodes count y up from the bottom
+            Node node = getNode(passages.colOf(cell), size - 1 - passages.rowOf(cell));
+            if (direction == MazeGrid.EAST){
+                east[node.x][node.y] = false;
+                west[node.x + 1][node.y] = false;
+                addEdge(node, getNode(node.x + 1, node.y));
+            } else {
+                south[node.x][node.y] = false;
+                north[node.x][node.y - 1] = false;
+                addEdge(node, getNode(node.x, node.y - 1));
+            }
+        });
+    }
+
+    /*
+     * connects two nodes, both in the edge list and in the MazeGrid
+     * the MazeGrid counts rows from the top, so y is flipped
+     */
+    private void addEdge(Node nodeA, Node nodeB){
+        edges.add(new Edge(nodeA, nodeB));
+        passages.carveBetween(passages.cellAt(size - 1 - nodeA.y, nodeA.x), passages.cellAt(size - 1 - nodeB.y, nodeB.x));
+    }
+
     private boolean insideBounds(int x, int y){
         return (!(x < 0 || x >= size || y < 0 || y >= size));
     }
@@ -312,6 +421,24 @@ public class RecursiveBacktrackingAlgorithmGenerator {
         return edges;
     }
 
+    /**
+     * method to get the maze in the generator independent MazeGrid form,
+     * kept up to date as edges are added
+     * @return the carved passages
+     */
+    public MazeGrid getMazeGrid() {
+        return passages;
+    }
+
+    /**
+     * method to get the number of directions checked while carving,
+     * used to check how generation scales
+     * @return the step count since this generator was created
+     */
+    public long getStepCount() {
+        return stepCount;
+    }
+
     /**
      * class representing a node in the maze
      * each node has a x and yumn position
@@ -0,0 +1,321 @@
+package generators;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The recursive division algorithm. Unlike the other generators it adds walls
+ * instead of carving passages: it starts from an open field, splits it with a wall
+ * that has one gap in it, and does the same to the two chambers on either side
+ * until every chamber is a single row or column wide. The mazes are boxy, with long
+ * straight walls.
+ *
+ * The two chambers never overlap, so big chambers are divided in parallel as a
+ * RecursiveAction. Chambers next to each other can still share a word of the
+ * MazeGrid bitsets, so walls are added with an atomic AND on the word. Each
+ * chamber's random numbers come from a hash of the seed and the chamber's bounds,
+ * so the maze is the same however the work is scheduled.
+ */
+public class RecursiveDivisionGenerator {
+    // chambers with fewer cells than this are divided on the thread that got them
+    static final int PARALLEL_THRESHOLD = 64 * 64;
+    private static final VarHandle WORDS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final int gridSize;
+    private final long seed;
+    private final Random random;
+    private final MazeGrid passages;
+    private final LongAdder divisions = new LongAdder();
+
+    /**
+     * constructor
+     * @param gridSize the size of the grid
+     */
+    public RecursiveDivisionGenerator(int gridSize) {
+        this(gridSize, new Random().nextLong());
+    }
+
+    /**
+     * seeded constructor, the same seed always carves the same maze
+     * @param gridSize the size of the grid
+     * @param seed the seed for the random number generator
+     */
+    public RecursiveDivisionGenerator(int gridSize, long seed) {
+        this.gridSize = gridSize;
+        this.seed = seed;
+        this.random = new Random(seed);
+        this.passages = new MazeGrid(gridSize);
+    }
+
+    /**
+     * method to generate the maze in one go, big chambers are split across the common ForkJoinPool
+     */
+    public void generateMaze() {
+        generateMaze(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * method to generate the maze in one go, the carve listener is not told about passages opened this way
+     * @param pool the pool to divide big chambers on
+     */
+    public void generateMaze(ForkJoinPool pool) {
+        divisions.reset();
+        openAll(passages);
+        if (gridSize > 0) {
+            pool.invoke(new ChamberTask(passages, 0, 0, gridSize, gridSize));
+        }
+        // the walls went straight into the words, so the content hash is worked out once at the end
+        passages.rehash();
+    }
+
+    /**
+     * method to generate the maze a few steps at a time. The walls are worked out on
+     * a copy, one chamber per step, then the finished passages are carved into this
+     * generator's grid one row per step, so carve listeners see every passage.
+     * Starts over from an empty maze, like generateMaze
+     * @return a stepper that carves into this generator
+     */
+    public MazeStepper stepper() {
+        return new DivisionStepper();
+    }
+
+    /**
+     * method to add random edges to the maze after it is generated, making loops
+     * @param probability the probability of opening each remaining wall
+     */
+    public void addRandomEdges(double probability) {
+        Braiding.chooseWalls(passages, probability, random, (cell, direction) ->
+            passages.carve(passages.rowOf(cell), passages.colOf(cell), direction));
+    }
+
+    @SuppressWarnings("serial") // fork-join tasks are never serialized
+    private class ChamberTask extends RecursiveAction {
+        private final MazeGrid grid;
+        private final int row;
+        private final int col;
+        private final int height;
+        private final int width;
+
+        ChamberTask(MazeGrid grid, int row, int col, int height, int width) {
+            this.grid = grid;
+            this.row = row;
+            this.col = col;
+            this.height = height;
+            this.width = width;
+        }
+
+        @Override
+        protected void compute() {
+            if (height < 2 || width < 2 || height * width < PARALLEL_THRESHOLD) {
+                divideAll(grid, row, col, height, width);
+                return;
+            }
+            int split = divide(grid, row, col, height, width);
+            if (split > 0) {
+                invokeAll(new ChamberTask(grid, row, col, split, width),
+                          new ChamberTask(grid, row + split, col, height - split, width));
+            } else {
+                invokeAll(new ChamberTask(grid, row, col, height, -split),
+                          new ChamberTask(grid, row, col - split, height, width + split));
+            }
+        }
+    }
+
+    /*
+     * divides a chamber and everything inside it on this thread
+     */
+    private void divideAll(MazeGrid grid, int row, int col, int height, int width) {
+        if (height < 2 || width < 2) {
+            return;
+        }
+        int split = divide(grid, row, col, height, width);
+        if (split > 0) {
+            divideAll(grid, row, col, split, width);
+            divideAll(grid, row + split, col, height - split, width);
+        } else {
+            divideAll(grid, row, col, height, -split);
+            divideAll(grid, row, col - split, height, width + split);
+        }
+    }
+
+    /**
+     * method to put one wall with one gap across a chamber at least 2 by 2
+     * @return the height of the top part for a horizontal wall, or minus the width of the left part for a vertical one
+     */
+    private int divide(MazeGrid grid, int row, int col, int height, int width) {
+        divisions.increment();
+        long state = chamberState(row, col, height, width);
+        boolean horizontal = height > width || (height == width && (state & 1) == 0);
+        state += RowParallel.GOLDEN_GAMMA;
+        long wallBits = RowParallel.mix(state);
+        state += RowParallel.GOLDEN_GAMMA;
+        long gapBits = RowParallel.mix(state);
+        if (horizontal) {
+            int above = 1 + bounded(wallBits, height - 1);
+            closeSouthWalls(grid, row + above - 1, col, width, col + bounded(gapBits, width));
+            return above;
+        }
+        int left = 1 + bounded(wallBits, width - 1);
+        closeEastWalls(grid, col + left - 1, row, height, row + bounded(gapBits, height));
+        return -left;
+    }
+
+    /*
+     * closes the south side of row wallRow for columns [col, col + width), except at gapCol
+     */
+    private static void closeSouthWalls(MazeGrid grid, int wallRow, int col, int width, int gapCol) {
+        long[] south = grid.getSouthPassageWords();
+        int rowStart = wallRow * grid.getWordsPerRow();
+        int end = col + width;
+        for (int w = col >>> 6; w <= (end - 1) >>> 6; w++) {
+            int from = Math.max(col, w << 6) & 63;
+            int to = Math.min(end, (w + 1) << 6) - (w << 6);
+            long range = (to == 64 ? -1L : (1L << to) - 1) & (-1L << from);
+            if ((gapCol >>> 6) == w) {
+                range &= ~(1L << gapCol);
+            }
+            WORDS.getAndBitwiseAnd(south, rowStart + w, ~range);
+        }
+    }
+
+    /*
+     * closes the east side of column wallCol for rows [row, row + height), except at gapRow
+     */
+    private static void closeEastWalls(MazeGrid grid, int wallCol, int row, int height, int gapRow) {
+        long[] east = grid.getEastPassageWords();
+        int wordsPerRow = grid.getWordsPerRow();
+        long keep = ~(1L << wallCol);
+        for (int r = row; r < row + height; r++) {
+            if (r != gapRow) {
+                WORDS.getAndBitwiseAnd(east, r * wordsPerRow + (wallCol >>> 6), keep);
+            }
+        }
+    }
+
+    /*
+     * opens every interior wall
+     */
+    private void openAll(MazeGrid grid) {
+        long[] east = grid.getEastPassageWords();
+        long[] south = grid.getSouthPassageWords();
+        int wordsPerRow = grid.getWordsPerRow();
+        for (int row = 0; row < gridSize; row++) {
+            for (int w = 0; w < wordsPerRow; w++) {
+                long valid = RowParallel.validBits(gridSize, w);
+                east[row * wordsPerRow + w] = valid & ~RowParallel.lastColumnBit(gridSize, w);
+                south[row * wordsPerRow + w] = row < gridSize - 1 ? valid : 0;
+            }
+        }
+    }
+
+    private long chamberState(int row, int col, int height, int width) {
+        long corner = RowParallel.mix(((long) row << 32) | col);
+        return RowParallel.mix(seed + (corner ^ (((long) height << 32) | width)) * RowParallel.GOLDEN_GAMMA);
+    }
+
+    /*
+     * a number in [0, bound) from the top 32 bits
+     */
+    private static int bounded(long bits, int bound) {
+        return (int) (((bits >>> 32) * bound) >>> 32);
+    }
+
+    /**
+     * The division as a resumable loop. Chambers waiting to be divided are kept on an
+     * int stack, four ints each, and the walls go into a private grid until the last
+     * chamber is done, then its passages are copied over a row at a time.
+     */
+    private class DivisionStepper implements MazeStepper {
+        private final MazeGrid field = new MazeGrid(gridSize);
+        private int[] chambers = new int[64];
+        private int top;
+        private int copiedRows;
+        private boolean done;
+
+        DivisionStepper() {
+            passages.clear();
+            divisions.reset();
+            openAll(field);
+            if (gridSize > 0) {
+                push(0, 0, gridSize, gridSize);
+            }
+            done = gridSize == 0;
+        }
+
+        public boolean step(int maxSteps) {
+            for (int i = 0; i < maxSteps && !done; i++) {
+                if (top > 0) {
+                    top -= 4;
+                    int row = chambers[top];
+                    int col = chambers[top + 1];
+                    int height = chambers[top + 2];
+                    int width = chambers[top + 3];
+                    if (height < 2 || width < 2) {
+                        continue;
+                    }
+                    int split = divide(field, row, col, height, width);
+                    if (split > 0) {
+                        push(row + split, col, height - split, width);
+                        push(row, col, split, width);
+                    } else {
+                        push(row, col - split, height, width + split);
+                        push(row, col, height, -split);
+                    }
+                } else {
+                    copyRow(copiedRows++);
+                    done = copiedRows == gridSize;
+                }
+            }
+            return done;
+        }
+
+        private void copyRow(int row) {
+            int rowStart = row * field.getWordsPerRow();
+            for (int w = 0; w < field.getWordsPerRow(); w++) {
+                for (long bits = field.getEastPassageWords()[rowStart + w]; bits != 0; bits &= bits - 1) {
+                    passages.carve(row, (w << 6) + Long.numberOfTrailingZeros(bits), MazeGrid.EAST);
+                }
+                for (long bits = field.getSouthPassageWords()[rowStart + w]; bits != 0; bits &= bits - 1) {
+                    passages.carve(row, (w << 6) + Long.numberOfTrailingZeros(bits), MazeGrid.SOUTH);
+                }
+            }
+        }
+
+        private void push(int row, int col, int height, int width) {
+            if (top + 4 > chambers.length) {
+                chambers = Arrays.copyOf(chambers, chambers.length * 2);
+            }
+            chambers[top++] = row;
+            chambers[top++] = col;
+            chambers[top++] = height;
+            chambers[top++] = width;
+        }
+
+        public boolean isDone() {
+            return done;
+        }
+
+        public MazeGrid getMazeGrid() {
+            return passages;
+        }
+    }
+
+    /**
+     * method to get the maze in the compact form shared by every generator
+     * @return the passages carved so far
+     */
+    public MazeGrid getMazeGrid() {
+        return passages;
+    }
+
+    /**
+     * @return the number of walls added during the last generation
+     */
+    public long getStepCount() {
+        return divisions.sum();
+    }
+}
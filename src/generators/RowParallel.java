@@ -0,0 +1,173 @@
+package generators;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Shared plumbing for generators that decide each row on its own (Sidewinder and
+ * Binary Tree). A row only ever opens passages east within itself and north into
+ * the row above, so the row's task writes the row's east words and the south words
+ * of the row above, and no two rows write the same word. That lets the rows be
+ * split across a ForkJoinPool and written straight into the MazeGrid bitsets with
+ * no locking.
+ *
+ * Each row draws its random numbers from its own splitmix64 stream seeded from the
+ * maze seed and the row number, so the maze does not depend on how the rows were
+ * split between threads.
+ *
+ * Writing the words directly skips MazeGrid's content hash, so each band XORs up the
+ * keys of the passages its rows opened and carveAll adds them to the grid's hash.
+ */
+class RowParallel {
+    static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    private static final int ROWS_PER_TASK = 16;
+
+    private RowParallel() {
+    }
+
+    /**
+     * Carves one row. Bit (col & 63) of east[eastAt + (col >>> 6)] opens the passage
+     * east of (row, col), the same bit of north[northAt + ...] opens the passage north of it.
+     * The words start at zero. Row 0 must not write north, there is no row above it.
+     */
+    @FunctionalInterface
+    interface RowCarver {
+        void carveRow(int row, long[] east, int eastAt, long[] north, int northAt);
+    }
+
+    /**
+     * method to carve every row in parallel straight into a grid
+     * @param grid the grid, cleared first
+     * @param pool the pool to split the rows across
+     * @param carver the row logic
+     */
+    static void carveAll(MazeGrid grid, ForkJoinPool pool, RowCarver carver) {
+        grid.clear();
+        if (grid.getGridSize() > 0) {
+            grid.toggleHash(pool.invoke(new RowBand(grid, carver, 0, grid.getGridSize())));
+        }
+    }
+
+    @SuppressWarnings("serial") // fork-join tasks are never serialized
+    private static class RowBand extends RecursiveTask<Long> {
+        private final MazeGrid grid;
+        private final RowCarver carver;
+        private final int fromRow;
+        private final int toRow;
+
+        RowBand(MazeGrid grid, RowCarver carver, int fromRow, int toRow) {
+            this.grid = grid;
+            this.carver = carver;
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+        }
+
+        @Override
+        protected Long compute() {
+            if (toRow - fromRow > ROWS_PER_TASK) {
+                int middle = (fromRow + toRow) >>> 1;
+                RowBand upper = new RowBand(grid, carver, fromRow, middle);
+                RowBand lower = new RowBand(grid, carver, middle, toRow);
+                invokeAll(upper, lower);
+                return upper.join() ^ lower.join();
+            }
+            int wordsPerRow = grid.getWordsPerRow();
+            long[] east = grid.getEastPassageWords();
+            long[] south = grid.getSouthPassageWords();
+            long keys = 0;
+            for (int row = fromRow; row < toRow; row++) {
+                // row 0 has no row above and never writes north, the offset is just kept in range
+                int eastAt = row * wordsPerRow;
+                int northAt = Math.max(row - 1, 0) * wordsPerRow;
+                carver.carveRow(row, east, eastAt, south, northAt);
+                for (int w = 0; w < wordsPerRow; w++) {
+                    keys ^= MazeGrid.wordKeys(eastAt + w, east[eastAt + w], false);
+                    if (row > 0) {
+                        keys ^= MazeGrid.wordKeys(northAt + w, south[northAt + w], true);
+                    }
+                }
+            }
+            return keys;
+        }
+    }
+
+    /**
+     * A stepper that carves one row per step through MazeGrid.carve, so carve listeners
+     * see every passage. Carves the same maze as carveAll.
+     */
+    static class RowStepper implements MazeStepper {
+        private final MazeGrid grid;
+        private final RowCarver carver;
+        private final Runnable onRow;
+        private final long[] east;
+        private final long[] north;
+        private int nextRow;
+
+        RowStepper(MazeGrid grid, RowCarver carver, Runnable onRow) {
+            this.grid = grid;
+            this.carver = carver;
+            this.onRow = onRow;
+            this.east = new long[grid.getWordsPerRow()];
+            this.north = new long[grid.getWordsPerRow()];
+            grid.clear();
+        }
+
+        public boolean step(int maxSteps) {
+            for (int i = 0; i < maxSteps && nextRow < grid.getGridSize(); i++) {
+                int row = nextRow++;
+                Arrays.fill(east, 0L);
+                Arrays.fill(north, 0L);
+                carver.carveRow(row, east, 0, north, 0);
+                for (int w = 0; w < east.length; w++) {
+                    for (long bits = east[w]; bits != 0; bits &= bits - 1) {
+                        grid.carve(row, (w << 6) + Long.numberOfTrailingZeros(bits), MazeGrid.EAST);
+                    }
+                    for (long bits = north[w]; bits != 0; bits &= bits - 1) {
+                        grid.carve(row, (w << 6) + Long.numberOfTrailingZeros(bits), MazeGrid.NORTH);
+                    }
+                }
+                onRow.run();
+            }
+            return isDone();
+        }
+
+        public boolean isDone() {
+            return nextRow >= grid.getGridSize();
+        }
+
+        public MazeGrid getMazeGrid() {
+            return grid;
+        }
+    }
+
+    /**
+     * the starting state of a row's random stream
+     */
+    static long rowState(long seed, int row) {
+        return mix(seed + (row + 1) * GOLDEN_GAMMA);
+    }
+
+    /**
+     * the splitmix64 output function
+     */
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * the bits of word w in a row that belong to real cells, the rest is padding
+     */
+    static long validBits(int gridSize, int w) {
+        int remaining = gridSize - (w << 6);
+        return remaining >= 64 ? -1L : (1L << remaining) - 1;
+    }
+
+    /**
+     * the bit of word w for the last column, 0 if the last column is in another word
+     */
+    static long lastColumnBit(int gridSize, int w) {
+        return ((gridSize - 1) >>> 6) == w ? 1L << (gridSize - 1) : 0;
+    }
+}
@@ -0,0 +1,120 @@
+package generators;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The Sidewinder algorithm: the top row is one long corridor, and every other row
+ * is cut into runs of cells joined east to west. When a run ends (at random, or at
+ * the right edge) one of its cells, picked at random, opens north into the row
+ * above. A row only depends on its own random numbers, so every row can be carved
+ * at the same time.
+ */
+public class SidewinderGenerator {
+    private final int gridSize;
+    private final long seed;
+    private final MazeGrid passages;
+    private final Random random;
+    private long stepCount;
+
+    /**
+     * constructor
+     * @param gridSize the size of the grid
+     */
+    public SidewinderGenerator(int gridSize) {
+        this(gridSize, new Random().nextLong());
+    }
+
+    /**
+     * seeded constructor, the same seed always carves the same maze
+     * @param gridSize the size of the grid
+     * @param seed the seed for the random number generator
+     */
+    public SidewinderGenerator(int gridSize, long seed) {
+        this.gridSize = gridSize;
+        this.seed = seed;
+        this.passages = new MazeGrid(gridSize);
+        this.random = new Random(seed);
+    }
+
+    /**
+     * method to generate the maze in one go, rows are split across the common ForkJoinPool
+     */
+    public void generateMaze() {
+        generateMaze(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * method to generate the maze in one go, the carve listener is not told about passages carved this way
+     * @param pool the pool to split the rows across
+     */
+    public void generateMaze(ForkJoinPool pool) {
+        RowParallel.carveAll(passages, pool, this::carveRow);
+        stepCount = gridSize;
+    }
+
+    /**
+     * method to generate the maze a few steps at a time, one step carves one row
+     * starts over from an empty maze, like generateMaze
+     * @return a stepper that carves into this generator
+     */
+    public MazeStepper stepper() {
+        stepCount = 0;
+        return new RowParallel.RowStepper(passages, this::carveRow, () -> stepCount++);
+    }
+
+    /*
+     * a run is closed when a bit of closeBits is set, 64 cells share one random long,
+     * the cell that opens north takes a second one
+     */
+    private void carveRow(int row, long[] east, int eastAt, long[] north, int northAt) {
+        if (row == 0) {
+            for (int w = 0; w < passages.getWordsPerRow(); w++) {
+                east[eastAt + w] = RowParallel.validBits(gridSize, w) & ~RowParallel.lastColumnBit(gridSize, w);
+            }
+            return;
+        }
+        long state = RowParallel.rowState(seed, row);
+        long closeBits = 0;
+        int runStart = 0;
+        for (int col = 0; col < gridSize; col++) {
+            if ((col & 63) == 0) {
+                state += RowParallel.GOLDEN_GAMMA;
+                closeBits = RowParallel.mix(state);
+            }
+            boolean closeRun = col == gridSize - 1 || (closeBits & (1L << col)) != 0;
+            if (!closeRun) {
+                east[eastAt + (col >>> 6)] |= 1L << col;
+                continue;
+            }
+            state += RowParallel.GOLDEN_GAMMA;
+            int runLength = col - runStart + 1;
+            int up = runStart + (int) (((RowParallel.mix(state) >>> 32) * runLength) >>> 32);
+            north[northAt + (up >>> 6)] |= 1L << up;
+            runStart = col + 1;
+        }
+    }
+
+    /**
+     * method to add random edges to the maze after it is generated, making loops
+     * @param probability the probability of opening each remaining wall
+     */
+    public void addRandomEdges(double probability) {
+        Braiding.chooseWalls(passages, probability, random, (cell, direction) ->
+            passages.carve(passages.rowOf(cell), passages.colOf(cell), direction));
+    }
+
+    /**
+     * method to get the maze in the compact form shared by every generator
+     * @return the passages carved so far
+     */
+    public MazeGrid getMazeGrid() {
+        return passages;
+    }
+
+    /**
+     * @return the number of rows carved during the last generation
+     */
+    public long getStepCount() {
+        return stepCount;
+    }
+}
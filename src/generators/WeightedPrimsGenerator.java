@@ -0,0 +1,261 @@
+package generators;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * The weighted ("true") form of Prim's algorithm: every wall gets a random weight
+ * and the tree always grows through the lightest wall between a tree cell and a
+ * cell outside it, which gives a minimum spanning tree. PrimsAlgorithmGenerator
+ * instead picks any frontier wall at random, so the two have different textures.
+ *
+ * The frontier is an indexed binary min-heap kept in parallel int, float and byte
+ * arrays, with each frontier cell's place in the heap stored so a cheaper wall
+ * can lower its key in place (decrease-key). Only the heap position is kept per
+ * cell; the weights are hashed from the seed and the wall when needed, so there is
+ * no object per wall and a run is O(n log n).
+ */
+public class WeightedPrimsGenerator {
+    // heapIndex values for cells that are not on the heap
+    private static final int UNSEEN = -1;
+    private static final int IN_TREE = -2;
+
+    private final int gridSize;
+    private long seed;
+    private final Random random;
+    private final MazeGrid passages;
+    // the heap, made by the first stepper and kept for the ones after it
+    private int[] heapIndex;
+    private int[] heapCell;
+    private float[] heapKey;
+    private byte[] heapDirection;
+    private long stepCount;
+
+    /**
+     * constructor
+     * @param gridSize the size of the grid
+     */
+    public WeightedPrimsGenerator(int gridSize) {
+        this(gridSize, new Random().nextLong());
+    }
+
+    /**
+     * seeded constructor, the same seed always carves the same maze
+     * @param gridSize the size of the grid
+     * @param seed the seed for the wall weights and the starting cell
+     */
+    public WeightedPrimsGenerator(int gridSize, long seed) {
+        this.gridSize = gridSize;
+        this.seed = seed;
+        this.random = new Random(seed);
+        this.passages = new MazeGrid(gridSize);
+    }
+
+    /**
+     * method to carve the next maze from a new seed with this generator, so its heap is
+     * reused instead of making a new generator per maze; the next stepper or generateMaze
+     * carves what a new generator with that seed would
+     * @param seed the seed for the wall weights and the starting cell
+     */
+    public void reseed(long seed) {
+        this.seed = seed;
+        random.setSeed(seed);
+    }
+
+    /**
+     * method to generate the maze in one go
+     */
+    public void generateMaze() {
+        MazeStepper stepper = stepper();
+        while (!stepper.step(Integer.MAX_VALUE)) {
+            // runs to the end in one go
+        }
+    }
+
+    /**
+     * method to generate the maze a few steps at a time, one step adds one cell to the tree
+     * starts over from an empty maze, like generateMaze, and takes over the heap of any earlier stepper
+     * @return a stepper that carves into this generator
+     */
+    public MazeStepper stepper() {
+        return new WeightedPrimsStepper();
+    }
+
+    /**
+     * method to add random edges to the maze after it is generated, making loops
+     * @param probability the probability of opening each remaining wall
+     */
+    public void addRandomEdges(double probability) {
+        Braiding.chooseWalls(passages, probability, random, (cell, direction) ->
+            passages.carve(passages.rowOf(cell), passages.colOf(cell), direction));
+    }
+
+    /**
+     * the weight of the wall on one side of a cell, the same from either side
+     */
+    float wallWeight(int cell, int direction) {
+        int wall;
+        switch (direction) {
+            case MazeGrid.EAST:  wall = 2 * cell; break;
+            case MazeGrid.SOUTH: wall = 2 * cell + 1; break;
+            case MazeGrid.WEST:  wall = 2 * (cell - 1); break;
+            default:             wall = 2 * (cell - gridSize) + 1; break;
+        }
+        // 24 random bits, all a float can hold exactly
+        return (RowParallel.mix(seed + (wall + 1L) * RowParallel.GOLDEN_GAMMA) >>> 40) * 0x1.0p-24f;
+    }
+
+    /**
+     * Prim's as a resumable loop. The heap is heapCell[0 .. size), ordered by heapKey,
+     * and heapDirection is the direction from the frontier cell to the tree cell it
+     * would join through.
+     */
+    private class WeightedPrimsStepper implements MazeStepper {
+        private int size;
+        private boolean done;
+
+        WeightedPrimsStepper() {
+            passages.clear();
+            stepCount = 0;
+            if (heapIndex == null) {
+                heapIndex = new int[gridSize * gridSize];
+                heapCell = new int[64];
+                heapKey = new float[64];
+                heapDirection = new byte[64];
+            }
+            Arrays.fill(heapIndex, UNSEEN);
+            if (heapIndex.length == 0) {
+                done = true;
+                return;
+            }
+            addToTree(random.nextInt(heapIndex.length));
+        }
+
+        public boolean step(int maxSteps) {
+            for (int i = 0; i < maxSteps && size > 0; i++) {
+                stepCount++;
+                int cell = heapCell[0];
+                int direction = heapDirection[0];
+                removeTop();
+                passages.carve(passages.rowOf(cell), passages.colOf(cell), direction);
+                addToTree(cell);
+            }
+            if (size == 0) {
+                done = true;
+            }
+            return done;
+        }
+
+        /*
+         * puts a cell in the tree and offers each neighbor outside it the wall between them
+         */
+        private void addToTree(int cell) {
+            heapIndex[cell] = IN_TREE;
+            for (int d = MazeGrid.NORTH; d <= MazeGrid.WEST; d++) {
+                int neighbor = passages.neighbor(cell, d);
+                if (neighbor < 0 || heapIndex[neighbor] == IN_TREE) {
+                    continue;
+                }
+                float weight = wallWeight(cell, d);
+                int index = heapIndex[neighbor];
+                if (index == UNSEEN) {
+                    insert(neighbor, weight, (d + 2) & 3);
+                } else if (weight < heapKey[index]) {
+                    heapKey[index] = weight;
+                    heapDirection[index] = (byte) ((d + 2) & 3);
+                    siftUp(index);
+                }
+            }
+        }
+
+        private void insert(int cell, float key, int direction) {
+            if (size == heapCell.length) {
+                heapCell = Arrays.copyOf(heapCell, size * 2);
+                heapKey = Arrays.copyOf(heapKey, size * 2);
+                heapDirection = Arrays.copyOf(heapDirection, size * 2);
+            }
+            heapCell[size] = cell;
+            heapKey[size] = key;
+            heapDirection[size] = (byte) direction;
+            heapIndex[cell] = size;
+            siftUp(size++);
+        }
+
+        private void removeTop() {
+            size--;
+            if (size > 0) {
+                move(size, 0);
+                siftDown(0);
+            }
+        }
+
+        private void siftUp(int index) {
+            int cell = heapCell[index];
+            float key = heapKey[index];
+            byte direction = heapDirection[index];
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (heapKey[parent] <= key) {
+                    break;
+                }
+                move(parent, index);
+                index = parent;
+            }
+            place(index, cell, key, direction);
+        }
+
+        private void siftDown(int index) {
+            int cell = heapCell[index];
+            float key = heapKey[index];
+            byte direction = heapDirection[index];
+            while (true) {
+                int child = 2 * index + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && heapKey[child + 1] < heapKey[child]) {
+                    child++;
+                }
+                if (heapKey[child] >= key) {
+                    break;
+                }
+                move(child, index);
+                index = child;
+            }
+            place(index, cell, key, direction);
+        }
+
+        private void move(int from, int to) {
+            place(to, heapCell[from], heapKey[from], heapDirection[from]);
+        }
+
+        private void place(int index, int cell, float key, byte direction) {
+            heapCell[index] = cell;
+            heapKey[index] = key;
+            heapDirection[index] = direction;
+            heapIndex[cell] = index;
+        }
+
+        public boolean isDone() {
+            return done;
+        }
+
+        public MazeGrid getMazeGrid() {
+            return passages;
+        }
+    }
+
+    /**
+     * method to get the maze in the compact form shared by every generator
+     * @return the passages carved so far
+     */
+    public MazeGrid getMazeGrid() {
+        return passages;
+    }
+
+    /**
+     * @return the number of cells added to the tree during the last generation
+     */
+    public long getStepCount() {
+        return stepCount;
+    }
+}
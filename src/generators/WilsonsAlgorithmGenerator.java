@@ -16,14 +16,32 @@ public class WilsonsAlgorithmGenerator {
     final Cell[][] grid;
     final int gridSize;
     int remainingCells;
-    private final Random random = new Random();
+    private final Random random;
+    private final MazeGrid passages;
+    private int scanCursor;
+    private long stepCount;
 
     /**
     * constractor
     * @param gridSize the size of the grid
     */
     public WilsonsAlgorithmGenerator(int gridSize){
+        this(gridSize, new Random());
+    }
+
+    /**
+    * constractor with a fixed seed, so the same seed always gives the same maze
+    * @param gridSize the size of the grid
+    * @param seed the seed for the random number generator
+    */
+    public WilsonsAlgorithmGenerator(int gridSize, long seed){
+        this(gridSize, new Random(seed));
+    }
+
+    private WilsonsAlgorithmGenerator(int gridSize, Random random){
         this.gridSize = gridSize;
+        this.random = random;
+        this.passages = new MazeGrid(gridSize);
         this.grid = new Cell[gridSize][gridSize];
         this.remainingCells = gridSize * gridSize;
         initializeGrid();
@@ -44,15 +62,18 @@ public class WilsonsAlgorithmGenerator {
 
     /**
      * Helper to find the first unvisited cell (left-to-right, top-to-bottom)
+     * Cells never become unvisited again, so the scan picks up where the last one stopped
+     * instead of starting over from the top-left corner.
      * @return the first unvisited cell
      */ 
     private Cell chooseUnvisitedCell() {
-        for (int r = 0; r < gridSize; r++) {
-            for (int c = 0; c < gridSize; c++) {
-                if (!grid[r][c].visited) {
-                    return grid[r][c];
-                }
+        while (scanCursor < gridSize * gridSize) {
+            stepCount++;
+            Cell cell = grid[scanCursor / gridSize][scanCursor % gridSize];
+            if (!cell.visited) {
+                return cell;
             }
+            scanCursor++;
         }
         return null; 
     }
@@ -65,46 +86,93 @@ public class WilsonsAlgorithmGenerator {
      * @return A 2D array of Cell objects representing the generated maze.
      */
     public Cell[][] generateMaze() {
-        if (gridSize == 0) return grid; 
-        int startR = random.nextInt(gridSize);
-        int startC = random.nextInt(gridSize);
-        grid[startR][startC].visited = true;
-        remainingCells--;
-        if (remainingCells == 0) return grid; 
-
-        while (remainingCells > 0) {
-            Cell currentWalkStartCell = chooseUnvisitedCell();
-            if (currentWalkStartCell == null) {
-                 System.err.println("Error: No unvisited cell found, but remainingCells = " + remainingCells);
-                 break; 
-            }
-
-            List<Cell> path = performLoopErasedRandomWalk(currentWalkStartCell);
-
-            carvePath(path);
+        MazeStepper stepper = stepper();
+        while (!stepper.step(Integer.MAX_VALUE)) {
+            // runs to the end in one go
         }
         return grid;
     }
 
-
     /**
-     * Performs a loop-erased random walk starting from the given cell.
-     * The walk continues until it either returns to a visited cell or
-     * reaches a dead end. The path is then returned as a list of cells.
+     * Generates the maze a few steps at a time. One step is one move of the random
+     * walk; the step that reaches a visited cell also carves the loop-erased path.
+     * Starts over from an empty maze, like generateMaze.
      *
-     * @param startCell The starting cell for the random walk.
-     * @return A list of cells representing the path of the random walk.
+     * @return A stepper that carves into this generator's grid.
      */
-    private List<Cell> performLoopErasedRandomWalk(Cell startCell) {
-        List<Cell> currentPath = new ArrayList<>();
-        Map<Cell, Integer> pathIndices = new HashMap<>(); 
-        Cell current = startCell;
+    public MazeStepper stepper() {
+        return new WilsonsStepper();
+    }
 
-        while (!current.visited) {
+    /**
+     * Wilson's algorithm as a resumable loop. The walk in progress (its path and
+     * where each cell sits on it) is kept between calls to step.
+     */
+    private class WilsonsStepper implements MazeStepper {
+        private final List<Cell> currentPath = new ArrayList<>();
+        private final Map<Cell, Integer> pathIndices = new HashMap<>(); 
+        private Cell current;
+        private boolean done;
+
+        WilsonsStepper() {
+            passages.clear();
+            for (Cell[] row : grid) {
+                for (Cell cell : row) {
+                    cell.visited = false;
+                    cell.northWall = true;
+                    cell.southWall = true;
+                    cell.eastWall = true;
+                    cell.westWall = true;
+                }
+            }
+            remainingCells = gridSize * gridSize;
+            scanCursor = 0;
+            stepCount = 0;
+            if (gridSize == 0) {
+                done = true;
+                return;
+            }
+            int startR = random.nextInt(gridSize);
+            int startC = random.nextInt(gridSize);
+            grid[startR][startC].visited = true;
+            remainingCells--;
+            done = remainingCells <= 0;
+        }
+
+        public boolean step(int maxSteps) {
+            for (int i = 0; i < maxSteps && !done; i++) {
+                if (current == null) {
+                    current = chooseUnvisitedCell();
+                    if (current == null) {
+                        System.err.println("Error: No unvisited cell found, but remainingCells = " + remainingCells);
+                        done = true;
+                        break;
+                    }
+                }
+                walkOneStep();
+                if (current.visited) {
+                    currentPath.add(current);
+                    carvePath(currentPath);
+                    currentPath.clear();
+                    pathIndices.clear();
+                    current = null;
+                    done = remainingCells <= 0;
+                }
+            }
+            return done;
+        }
+
+        /**
+         * One move of the loop-erased random walk. Walking back onto the path erases
+         * the loop that was just closed, then the walk moves to a random neighbor.
+         */
+        private void walkOneStep() {
+            stepCount++;
             Integer existingIndex = pathIndices.get(current); 
 
             if (existingIndex != null) { 
                 while (currentPath.size() > existingIndex + 1) {
+                    stepCount++;
                     Cell removed = currentPath.remove(currentPath.size() - 1);
                     pathIndices.remove(removed);
                 }
@@ -116,7 +184,7 @@ public class WilsonsAlgorithmGenerator {
 
             List<Direction> possibleDirections = getValidDirections(current);
             if (possibleDirections.isEmpty()) {
-                 break;
+                throw new IllegalStateException("Cell " + current + " has no neighbors to walk to.");
             }
             Direction chosenDir = possibleDirections.get(random.nextInt(possibleDirections.size()));
             current = getNeighbor(current, chosenDir); 
@@ -124,8 +192,14 @@ public class WilsonsAlgorithmGenerator {
                 throw new IllegalStateException("Moved to an invalid neighbor.");
             }
         }
-        currentPath.add(current);
-        return currentPath;
+
+        public boolean isDone() {
+            return done;
+        }
+
+        public MazeGrid getMazeGrid() {
+            return passages;
+        }
     }
 
 
@@ -160,6 +234,7 @@ public class WilsonsAlgorithmGenerator {
         }
 
         for (int i = 0; i < fullPathIncludingHitCell.size() - 1; i++) {
+            stepCount++;
             Cell current = fullPathIncludingHitCell.get(i);
             Cell next = fullPathIncludingHitCell.get(i + 1); 
             removeWall(current, next);
@@ -213,6 +288,18 @@ public class WilsonsAlgorithmGenerator {
         return null; 
     }
 
+    /**
+     * method to add random edges to the maze after it is generated, making loops
+     * @param probability the probability of opening each remaining wall
+     */
+    public void addRandomEdges(double probability) {
+        Braiding.chooseWalls(passages, probability, random, (cell, direction) -> {
+            Cell c1 = grid[cell / gridSize][cell % gridSize];
+            int other = passages.neighbor(cell, direction);
+            removeWall(c1, grid[other / gridSize][other % gridSize]);
+        });
+    }
+
     /**
      * Helper to remove the wall between two adjacent cells.
      * @param c1
@@ -220,6 +307,7 @@ public class WilsonsAlgorithmGenerator {
      */
     private void removeWall(Cell c1, Cell c2) {
         if (c1 == null || c2 == null) return;
+        passages.carveBetween(c1.row * gridSize + c1.col, c2.row * gridSize + c2.col);
 
         if (c1.row == c2.row) {
             if (c1.col < c2.col) { 
@@ -318,6 +406,27 @@ public class WilsonsAlgorithmGenerator {
 
 
 
+    /**
+     * Gets the maze in the generator independent MazeGrid form,
+     * kept up to date as walls are removed.
+     *
+     * @return the carved passages
+     */
+    public MazeGrid getMazeGrid() {
+        return passages;
+    }
+
+    /**
+     * Gets the number of elementary steps the last generateMaze call took
+     * (walk steps, erased loop cells, carved cells and scanned cells),
+     * used to check how generation scales.
+     *
+     * @return the step count of the last generation
+     */
+    public long getStepCount() {
+        return stepCount;
+    }
+
     /**
      * Cell class representing a cell in the maze grid.
      * Each cell has a row and column index, wall flags, and a visited status.
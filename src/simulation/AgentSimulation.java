@@ -0,0 +1,313 @@
+package simulation;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import analysis.FlowField;
+import generators.MazeGrid;
+
+/**
+ * Headless version of the Maze game loop for many players at once: moving, stopping
+ * at walls and reaching the exit, with no canvas or Ellipse involved. Used to load
+ * test game servers and to measure how hard a maze is with thousands of bots.
+ *
+ * Positions are in cell units (x is the column, y is the row, the center of cell
+ * (row, col) is (col + 0.5, row + 0.5)) and are kept as separate arrays for x, y and
+ * the velocities rather than one object per agent. Each step advances every agent by
+ * the same fixed time step. Agents do not bump into each other, so the agents are split
+ * into chunks that are advanced in parallel, each chunk only writing its own agents.
+ * Walls are checked straight against the MazeGrid bits. An agent has finished as soon
+ * as it enters the exit cell.
+ */
+public class AgentSimulation {
+    /** how far an agent's edge is from its center, in cells */
+    public static final double AGENT_RADIUS = 0.2;
+    private static final int AGENTS_PER_TASK = 1024;
+    private static final double CENTERED = 1e-9;
+
+    private final MazeGrid grid;
+    private final int exitCell;
+    private final double speed;
+    private final double timeStep;
+    private final double[] x;
+    private final double[] y;
+    private final double[] velocityX;
+    private final double[] velocityY;
+    private final byte[] heading;
+    private final int[] finishedAtStep;
+    private Steering steering;
+    private int stepCount;
+
+    /**
+     * constructor, puts every agent at the center of the start cell, standing still
+     * @param grid the maze
+     * @param agentCount how many agents to simulate
+     * @param startCell the cell every agent starts in
+     * @param exitCell the cell agents are trying to reach
+     * @param speed how far an agent moves per unit of time, in cells
+     * @param timeStep how much time each step covers
+     */
+    public AgentSimulation(MazeGrid grid, int agentCount, int startCell, int exitCell, double speed, double timeStep) {
+        if (speed * timeStep >= 1 - 2 * AGENT_RADIUS) {
+            throw new IllegalArgumentException("Agents would move " + speed * timeStep
+                + " cells per step and could pass through walls, use a smaller time step.");
+        }
+        this.grid = grid;
+        this.exitCell = exitCell;
+        this.speed = speed;
+        this.timeStep = timeStep;
+        this.x = new double[agentCount];
+        this.y = new double[agentCount];
+        this.velocityX = new double[agentCount];
+        this.velocityY = new double[agentCount];
+        this.heading = new byte[agentCount];
+        this.finishedAtStep = new int[agentCount];
+        Arrays.fill(x, grid.colOf(startCell) + 0.5);
+        Arrays.fill(y, grid.rowOf(startCell) + 0.5);
+        Arrays.fill(heading, (byte) -1);
+        Arrays.fill(finishedAtStep, -1);
+    }
+
+    /**
+     * method to choose how agents pick their velocity, it is asked once per agent per step
+     * @param steering the steering, it is called from several threads at once
+     */
+    public void setSteering(Steering steering) {
+        this.steering = steering;
+    }
+
+    /**
+     * method to advance every agent by one time step
+     */
+    public void step() {
+        int agents = x.length;
+        int tasks = (agents + AGENTS_PER_TASK - 1) / AGENTS_PER_TASK;
+        IntStream.range(0, tasks).parallel()
+            .forEach(task -> advance(task * AGENTS_PER_TASK, Math.min(agents, (task + 1) * AGENTS_PER_TASK)));
+        stepCount++;
+    }
+
+    /**
+     * method to step until every agent has reached the exit or the step limit is hit
+     * @param maxSteps the most steps to take
+     * @return the number of agents that have reached the exit
+     */
+    public int run(int maxSteps) {
+        for (int i = 0; i < maxSteps && getFinishedCount() < x.length; i++) {
+            step();
+        }
+        return getFinishedCount();
+    }
+
+    private void advance(int from, int to) {
+        for (int agent = from; agent < to; agent++) {
+            if (finishedAtStep[agent] >= 0) {
+                continue;
+            }
+            if (steering != null) {
+                steering.steer(this, agent);
+            }
+            moveX(agent);
+            moveY(agent);
+            if (cellOf(agent) == exitCell) {
+                finishedAtStep[agent] = stepCount + 1;
+                velocityX[agent] = 0;
+                velocityY[agent] = 0;
+            }
+        }
+    }
+
+    /*
+     * the same as the player in Maze: an agent that runs into a wall stops
+     */
+    private void moveX(int agent) {
+        double next = x[agent] + velocityX[agent] * timeStep;
+        int row = (int) y[agent];
+        int col = (int) x[agent];
+        if (velocityX[agent] > 0 && next > col + 1 - AGENT_RADIUS && !grid.hasPassage(row, col, MazeGrid.EAST)) {
+            next = col + 1 - AGENT_RADIUS;
+            velocityX[agent] = 0;
+        } else if (velocityX[agent] < 0 && next < col + AGENT_RADIUS && !grid.hasPassage(row, col, MazeGrid.WEST)) {
+            next = col + AGENT_RADIUS;
+            velocityX[agent] = 0;
+        }
+        x[agent] = next;
+    }
+
+    private void moveY(int agent) {
+        double next = y[agent] + velocityY[agent] * timeStep;
+        int row = (int) y[agent];
+        int col = (int) x[agent];
+        if (velocityY[agent] > 0 && next > row + 1 - AGENT_RADIUS && !grid.hasPassage(row, col, MazeGrid.SOUTH)) {
+            next = row + 1 - AGENT_RADIUS;
+            velocityY[agent] = 0;
+        } else if (velocityY[agent] < 0 && next < row + AGENT_RADIUS && !grid.hasPassage(row, col, MazeGrid.NORTH)) {
+            next = row + AGENT_RADIUS;
+            velocityY[agent] = 0;
+        }
+        y[agent] = next;
+    }
+
+    /**
+     * method to head an agent one cell in a direction, first lining it up with the
+     * middle of its cell so it does not catch on the corner of a wall
+     * @param agent the agent
+     * @param direction one of NORTH, EAST, SOUTH, WEST
+     */
+    public void moveToward(int agent, int direction) {
+        heading[agent] = (byte) direction;
+        double centerX = (int) x[agent] + 0.5;
+        double centerY = (int) y[agent] + 0.5;
+        boolean horizontal = direction == MazeGrid.EAST || direction == MazeGrid.WEST;
+        double offAxis = horizontal ? centerY - y[agent] : centerX - x[agent];
+        if (Math.abs(offAxis) > CENTERED) {
+            // never overshoot the middle line, move at most the distance left
+            double v = Math.max(-speed, Math.min(speed, offAxis / timeStep));
+            setVelocity(agent, horizontal ? 0 : v, horizontal ? v : 0);
+            return;
+        }
+        switch (direction) {
+            case MazeGrid.NORTH: setVelocity(agent, 0, -speed); break;
+            case MazeGrid.EAST:  setVelocity(agent, speed, 0); break;
+            case MazeGrid.SOUTH: setVelocity(agent, 0, speed); break;
+            default:             setVelocity(agent, -speed, 0); break;
+        }
+    }
+
+    /**
+     * method to bring an agent to a stop in the middle of its cell
+     * @param agent the agent
+     */
+    public void moveToCenter(int agent) {
+        heading[agent] = -1;
+        double dx = (int) x[agent] + 0.5 - x[agent];
+        double dy = (int) y[agent] + 0.5 - y[agent];
+        setVelocity(agent,
+            Math.max(-speed, Math.min(speed, dx / timeStep)),
+            Math.max(-speed, Math.min(speed, dy / timeStep)));
+    }
+
+    public void setVelocity(int agent, double vx, double vy) {
+        velocityX[agent] = vx;
+        velocityY[agent] = vy;
+    }
+
+    /**
+     * @return true if the agent is in the middle of its cell
+     */
+    public boolean isCentered(int agent) {
+        return Math.abs((int) x[agent] + 0.5 - x[agent]) <= CENTERED
+            && Math.abs((int) y[agent] + 0.5 - y[agent]) <= CENTERED;
+    }
+
+    public int cellOf(int agent) {
+        return grid.cellAt((int) y[agent], (int) x[agent]);
+    }
+
+    public double getX(int agent) {
+        return x[agent];
+    }
+
+    public double getY(int agent) {
+        return y[agent];
+    }
+
+    /**
+     * @return the direction last passed to moveToward, or -1 after moveToCenter or before any move
+     */
+    public int getHeading(int agent) {
+        return heading[agent];
+    }
+
+    public boolean isStopped(int agent) {
+        return velocityX[agent] == 0 && velocityY[agent] == 0;
+    }
+
+    /**
+     * @return the step the agent reached the exit on, or -1 if it has not yet
+     */
+    public int getFinishedAtStep(int agent) {
+        return finishedAtStep[agent];
+    }
+
+    public int getFinishedCount() {
+        int count = 0;
+        for (int step : finishedAtStep) {
+            if (step >= 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public int getAgentCount() {
+        return x.length;
+    }
+
+    public int getStepCount() {
+        return stepCount;
+    }
+
+    public double getTimeStep() {
+        return timeStep;
+    }
+
+    public MazeGrid getMazeGrid() {
+        return grid;
+    }
+
+    /**
+     * Picks an agent's velocity at the start of each step. Called for many agents from
+     * several threads at once, so it should only change the agent it is given.
+     */
+    @FunctionalInterface
+    public interface Steering {
+        void steer(AgentSimulation simulation, int agent);
+
+        /**
+         * steering that follows a flow field to its target, every agent takes a shortest path
+         * @param field a field leading to the exit
+         * @return the steering
+         */
+        static Steering followFlowField(FlowField field) {
+            return (simulation, agent) -> {
+                int direction = field.directionAt(simulation.cellOf(agent));
+                if (direction == FlowField.AT_TARGET || direction == FlowField.UNREACHABLE) {
+                    simulation.moveToCenter(agent);
+                } else {
+                    simulation.moveToward(agent, direction);
+                }
+            };
+        }
+
+        /**
+         * steering that wanders like a player who does not know the maze: keep going until
+         * a wall stops you, then pick a random open direction
+         * @param seed the seed, the same seed always gives the same walk for each agent
+         * @return the steering
+         */
+        static Steering randomWalk(long seed) {
+            return (simulation, agent) -> {
+                if (!simulation.isStopped(agent) && simulation.getHeading(agent) >= 0) {
+                    simulation.moveToward(agent, simulation.getHeading(agent)); // keeps lining up, then goes on
+                    return;
+                }
+                int cell = simulation.cellOf(agent);
+                long hash = mix(seed ^ mix(agent * 0x9E3779B97F4A7C15L + simulation.getStepCount()));
+                int first = (int) (hash & 3);
+                for (int i = 0; i < 4; i++) {
+                    int direction = (first + i) & 3;
+                    if (simulation.getMazeGrid().hasPassage(cell, direction)) {
+                        simulation.moveToward(agent, direction);
+                        return;
+                    }
+                }
+            };
+        }
+
+        private static long mix(long z) {
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            return z ^ (z >>> 31);
+        }
+    }
+}
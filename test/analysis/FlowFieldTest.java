@@ -0,0 +1,87 @@
+package analysis;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import generators.Algorithm;
+import generators.MazeGrid;
+
+public class FlowFieldTest {
+
+    @Test
+    void followingTheFieldIsAShortestPath() {
+        MazeGrid grid = Algorithm.PRIMS.generate(30, 4, 0.2);
+        int exit = grid.cellAt(0, 29);
+        FlowField field = new FlowField(grid, exit);
+        GridSearch search = new GridSearch(grid);
+        for (int cell = 0; cell < grid.getCellCount(); cell++) {
+            assertEquals(search.distance(cell, exit), stepsToTarget(field, cell), "from cell " + cell);
+        }
+        assertEquals(FlowField.AT_TARGET, field.directionAt(exit));
+        assertEquals(exit, field.nextCell(exit));
+    }
+
+    @Test
+    void cellsCutOffFromTheTargetAreUnreachable() {
+        MazeGrid grid = new MazeGrid(3);
+        grid.carve(0, 0, MazeGrid.EAST);
+        FlowField field = new FlowField(grid, 0);
+        assertEquals(MazeGrid.WEST, field.directionAt(1));
+        assertTrue(field.canReachTarget(1));
+        assertFalse(field.canReachTarget(8));
+        assertEquals(FlowField.UNREACHABLE, field.directionAt(8));
+        assertEquals(-1, field.nextCell(8));
+    }
+
+    @Test
+    void manyThreadsReadTheSameField() throws Exception {
+        MazeGrid grid = Algorithm.WILSONS.generate(40, 6);
+        FlowField field = new FlowField(grid, grid.cellAt(0, 39));
+        int[] expected = new int[grid.getCellCount()];
+        for (int cell = 0; cell < expected.length; cell++) {
+            expected[cell] = stepsToTarget(field, cell);
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<int[]>> results = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                results.add(pool.submit(() -> {
+                    int[] steps = new int[grid.getCellCount()];
+                    for (int cell = 0; cell < steps.length; cell++) {
+                        steps[cell] = stepsToTarget(field, cell);
+                    }
+                    return steps;
+                }));
+            }
+            for (Future<int[]> result : results) {
+                int[] steps = result.get();
+                for (int cell = 0; cell < steps.length; cell++) {
+                    assertEquals(expected[cell], steps[cell]);
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static int stepsToTarget(FlowField field, int cell) {
+        if (!field.canReachTarget(cell)) {
+            return -1;
+        }
+        int steps = 0;
+        while (cell != field.getTarget()) {
+            cell = field.nextCell(cell);
+            steps++;
+        }
+        return steps;
+    }
+}
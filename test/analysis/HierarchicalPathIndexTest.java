@@ -0,0 +1,139 @@
+package analysis;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import generators.Algorithm;
+import generators.MazeGrid;
+
+public class HierarchicalPathIndexTest {
+
+    @Test
+    void distancesMatchSearchOnPerfectMazes() {
+        Random random = new Random(3);
+        for (int clusterSize : new int[] {1, 5, 8, 16}) {
+            MazeGrid grid = Algorithm.PRIMS.generate(37, clusterSize, 0);
+            HierarchicalPathIndex index = new HierarchicalPathIndex(grid, clusterSize);
+            GridSearch search = new GridSearch(grid);
+            for (int i = 0; i < 200; i++) {
+                int a = random.nextInt(grid.getCellCount());
+                int b = random.nextInt(grid.getCellCount());
+                assertEquals(search.distance(a, b), index.distance(a, b), "cluster size " + clusterSize + ", " + a + "->" + b);
+            }
+        }
+    }
+
+    @Test
+    void distancesOnBraidedMazesAreCloseToTheShortest() {
+        Random random = new Random(3);
+        for (int clusterSize : new int[] {1, 5, 8, 16}) {
+            MazeGrid grid = Algorithm.PRIMS.generate(37, clusterSize, 0.3);
+            HierarchicalPathIndex index = new HierarchicalPathIndex(grid, clusterSize);
+            GridSearch search = new GridSearch(grid);
+            long found = 0;
+            long shortest = 0;
+            for (int i = 0; i < 200; i++) {
+                int a = random.nextInt(grid.getCellCount());
+                int b = random.nextInt(grid.getCellCount());
+                int exact = search.distance(a, b);
+                int approximate = index.distance(a, b);
+                assertTrue(approximate >= exact, "cluster size " + clusterSize + ", " + a + "->" + b + " beat the shortest path");
+                found += approximate;
+                shortest += exact;
+            }
+            assertTrue(found <= shortest * 1.1, "cluster size " + clusterSize + " paths are " + found + " moves, shortest " + shortest);
+        }
+    }
+
+    @Test
+    void abstractGraphIsMuchSmallerThanTheGrid() {
+        MazeGrid grid = Algorithm.WEIGHTED_PRIMS.generate(256, 7, 0.1);
+        HierarchicalPathIndex index = new HierarchicalPathIndex(grid);
+        assertEquals(256, index.getClusterCount());
+        // about one entrance per merged run of crossings on each cluster border
+        assertTrue(index.getEntranceCount() * 10 < grid.getCellCount(),
+            index.getEntranceCount() + " entrances for " + grid.getCellCount() + " cells");
+
+        HierarchicalPathIndex perfect = new HierarchicalPathIndex(Algorithm.WEIGHTED_PRIMS.generate(256, 7, 0));
+        assertTrue(perfect.getEntranceCount() * 10 < grid.getCellCount());
+    }
+
+    @Test
+    void pathsMatchTheirDistanceAndGoThroughPassages() {
+        Random random = new Random(5);
+        MazeGrid grid = Algorithm.PRIMS.generate(40, 2, 0.25);
+        HierarchicalPathIndex index = new HierarchicalPathIndex(grid, 8);
+        GridSearch search = new GridSearch(grid);
+        for (int i = 0; i < 100; i++) {
+            int a = random.nextInt(grid.getCellCount());
+            int b = random.nextInt(grid.getCellCount());
+            int[] path = index.path(a, b);
+            assertEquals(index.distance(a, b) + 1, path.length);
+            assertTrue(path.length >= search.distance(a, b) + 1);
+            assertEquals(a, path[0]);
+            assertEquals(b, path[path.length - 1]);
+            for (int p = 1; p < path.length; p++) {
+                assertTrue(isOpenNeighbor(grid, path[p - 1], path[p]), "step " + p + " of " + a + "->" + b);
+            }
+        }
+    }
+
+    @Test
+    void unreachableCellsHaveNoPath() {
+        MazeGrid grid = new MazeGrid(6);
+        grid.carve(0, 0, MazeGrid.EAST);
+        HierarchicalPathIndex index = new HierarchicalPathIndex(grid, 3);
+        assertEquals(1, index.distance(0, 1));
+        assertEquals(-1, index.distance(0, 35));
+        assertEquals(0, index.path(0, 35).length);
+    }
+
+    @Test
+    void wallChangesOnlyRebuildTheirClusters() {
+        MazeGrid grid = Algorithm.PRIMS.generate(24, 6, 0.2);
+        HierarchicalPathIndex index = new HierarchicalPathIndex(grid, 6);
+        Random random = new Random(9);
+        for (int change = 0; change < 30; change++) {
+            int row = random.nextInt(24);
+            int col = random.nextInt(23);
+            if (change % 3 == 2) {
+                grid.closeBetween(grid.cellAt(row, col), grid.cellAt(row, col + 1));
+            } else {
+                grid.carve(row, col, MazeGrid.EAST);
+            }
+            index.wallChanged(grid.cellAt(row, col), grid.cellAt(row, col + 1));
+        }
+        HierarchicalPathIndex rebuilt = new HierarchicalPathIndex(grid, 6);
+        assertEquals(rebuilt.getEntranceCount(), index.getEntranceCount());
+        for (int i = 0; i < 200; i++) {
+            int a = random.nextInt(grid.getCellCount());
+            int b = random.nextInt(grid.getCellCount());
+            assertEquals(rebuilt.distance(a, b), index.distance(a, b));
+            assertArrayEquals(rebuilt.path(a, b), index.path(a, b));
+        }
+    }
+
+    @Test
+    void queriesFromManyThreadsAgreeWithOneThread() {
+        MazeGrid grid = Algorithm.WEIGHTED_PRIMS.generate(120, 4, 0.1);
+        HierarchicalPathIndex index = new HierarchicalPathIndex(grid);
+        int[] expected = IntStream.range(0, 400).map(i -> index.distance(i * 31, grid.getCellCount() - 1 - i * 17)).toArray();
+        int[] parallel = IntStream.range(0, 400).parallel().map(i -> index.distance(i * 31, grid.getCellCount() - 1 - i * 17)).toArray();
+        assertArrayEquals(expected, parallel);
+    }
+
+    private static boolean isOpenNeighbor(MazeGrid grid, int cell, int next) {
+        for (int d = MazeGrid.NORTH; d <= MazeGrid.WEST; d++) {
+            if (grid.neighbor(cell, d) == next && grid.hasPassage(cell, d)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,50 @@
+package analysis;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import generators.Algorithm;
+import generators.MazeGrid;
+
+public class MazeDiameterTest {
+
+    @Test
+    void findsBothEndsOfASerpentine() {
+        MazeGrid grid = new MazeGrid(3);
+        for (int row = 0; row < 3; row++) {
+            grid.carve(row, 0, MazeGrid.EAST);
+            grid.carve(row, 1, MazeGrid.EAST);
+        }
+        grid.carve(0, 2, MazeGrid.SOUTH);
+        grid.carve(1, 0, MazeGrid.SOUTH);
+        MazeDiameter diameter = MazeDiameter.of(grid);
+        assertEquals(8, diameter.getLength());
+        assertEquals(grid.cellAt(0, 0) + grid.cellAt(2, 2), diameter.getStartCell() + diameter.getEndCell());
+    }
+
+    @Test
+    void matchesTheLongestPathFoundFromEveryCell() {
+        for (Algorithm algorithm : Algorithm.values()) {
+            for (long seed = 1; seed <= 3; seed++) {
+                MazeGrid grid = algorithm.generate(15, seed);
+                GridSearch search = new GridSearch(grid);
+                int longest = 0;
+                for (int cell = 0; cell < grid.getCellCount(); cell++) {
+                    longest = Math.max(longest, search.eccentricity(cell));
+                }
+                MazeDiameter diameter = MazeDiameter.of(grid);
+                assertEquals(longest, diameter.getLength(), algorithm + " seed " + seed);
+                assertEquals(longest, search.distance(diameter.getStartCell(), diameter.getEndCell()));
+            }
+        }
+    }
+
+    @Test
+    void singleCellMazeHasNoLength() {
+        MazeDiameter diameter = MazeDiameter.of(new MazeGrid(1));
+        assertEquals(0, diameter.getLength());
+        assertEquals(0, diameter.getStartCell());
+        assertEquals(0, diameter.getEndCell());
+    }
+}
@@ -0,0 +1,106 @@
+package analysis;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import generators.Algorithm;
+import generators.MazeGrid;
+
+public class MazeSelectorTest {
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void returnsTheFirstCandidateThatMeetsTheTarget() throws InterruptedException {
+        MazeSelector.Target target = new MazeSelector.Target(120, 1000);
+        MazeSelector parallel = new MazeSelector(Algorithm.WILSONS, 30, 0, executor, 4);
+        MazeSelector serial = new MazeSelector(Algorithm.WILSONS, 30, 0, executor, 1);
+
+        MazeSelector.Selection selection = parallel.select(99, target, 50);
+        assertTrue(selection.meetsTarget());
+        assertTrue(selection.getStatistics().getSolutionLength() >= 120);
+        assertEquals(serial.select(99, target, 50).getSeed(), selection.getSeed());
+
+        // every candidate before it fell short
+        for (int candidate = 0; candidate < selection.getCandidate(); candidate++) {
+            MazeGrid grid = Algorithm.WILSONS.generate(30, MazeSelector.candidateSeed(99, candidate));
+            assertTrue(MazeStatistics.of(grid).getSolutionLength() < 120);
+        }
+    }
+
+    @Test
+    void keepsTheClosestCandidateWhenNoneMeetsTheTarget() throws InterruptedException {
+        MazeSelector.Target impossible = new MazeSelector.Target(10_000, 0);
+        MazeSelector selector = new MazeSelector(Algorithm.PRIMS, 20, 0, executor, 3);
+        MazeSelector.Selection selection = selector.select(5, impossible, 12);
+        assertFalse(selection.meetsTarget());
+        assertEquals(12, selection.getCandidatesTried());
+        assertEquals(new MazeSelector(Algorithm.PRIMS, 20, 0, executor, 1).select(5, impossible, 12).getSeed(),
+            selection.getSeed());
+    }
+
+    @Test
+    void workersDropThrownAwayMazesWhenSelectReturns() throws Exception {
+        MazeSelector selector = new MazeSelector(Algorithm.GROWING_TREE, 30, 0, executor, 4);
+        selector.select(8, new MazeSelector.Target(10_000, 0), 20);
+        // one task on each of the pool's four threads, held until all four are running
+        CyclicBarrier everyThread = new CyclicBarrier(4);
+        List<Callable<Boolean>> checks = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            checks.add(() -> {
+                everyThread.await();
+                return selector.holdsSpare();
+            });
+        }
+        for (Future<Boolean> holds : executor.invokeAll(checks)) {
+            assertFalse(holds.get());
+        }
+    }
+
+    @Test
+    void seedRegeneratesTheSelectedMaze() throws InterruptedException {
+        MazeSelector selector = new MazeSelector(Algorithm.RECURSIVE_BACKTRACKING, 25, 0, executor, 4);
+        MazeSelector.Selection selection = selector.select(3, new MazeSelector.Target(60, 200), 40);
+        MazeGrid again = Algorithm.RECURSIVE_BACKTRACKING.generate(25, selection.getSeed());
+        assertArrayEquals(again.getEastPassageWords(), selection.getMazeGrid().getEastPassageWords());
+        assertArrayEquals(again.getSouthPassageWords(), selection.getMazeGrid().getSouthPassageWords());
+    }
+
+    @Test
+    void reusedGeneratorsStillGiveTheSeedsMaze() throws InterruptedException {
+        MazeSelector selector = new MazeSelector(Algorithm.GROWING_TREE, 30, 0.05, executor, 2);
+        MazeSelector.Selection[] selections = new MazeSelector.Selection[3];
+        for (int i = 0; i < selections.length; i++) {
+            selections[i] = selector.select(i, new MazeSelector.Target(10_000, 0), 20);
+        }
+        // the later selections must not have carved over the mazes returned earlier
+        for (MazeSelector.Selection selection : selections) {
+            MazeGrid again = Algorithm.GROWING_TREE.generate(30, selection.getSeed(), 0.05);
+            assertArrayEquals(again.getEastPassageWords(), selection.getMazeGrid().getEastPassageWords());
+            assertArrayEquals(again.getSouthPassageWords(), selection.getMazeGrid().getSouthPassageWords());
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package analysis;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import generators.Algorithm;
+import generators.MazeGrid;
+
+public class MazeStatisticsTest {
+
+    @Test
+    void serpentineIsOneLongCorridor() {
+        // row 0 left to right, down, row 1 right to left, down, row 2 left to right
+        MazeGrid grid = new MazeGrid(3);
+        grid.carve(0, 0, MazeGrid.EAST);
+        grid.carve(0, 1, MazeGrid.EAST);
+        grid.carve(0, 2, MazeGrid.SOUTH);
+        grid.carve(1, 2, MazeGrid.WEST);
+        grid.carve(1, 1, MazeGrid.WEST);
+        grid.carve(1, 0, MazeGrid.SOUTH);
+        grid.carve(2, 0, MazeGrid.EAST);
+        grid.carve(2, 1, MazeGrid.EAST);
+
+        MazeStatistics stats = MazeStatistics.of(grid);
+        assertEquals(2, stats.getDeadEnds());
+        assertEquals(0, stats.getJunctions());
+        assertEquals(7, stats.getCorridorCells());
+        assertEquals(7, stats.getLongestCorridor());
+        assertEquals(1, stats.getCorridorLengthHistogram()[7]);
+        assertEquals(7 / 9.0, stats.getRiverFactor(), 1e-9);
+        // start (2,0) is two cells from the end of the snake, exit (0,2) is in row 0
+        assertEquals(4, stats.getSolutionLength());
+    }
+
+    @Test
+    void combHasOneJunctionPerTooth() {
+        // a corridor along row 0 with a tooth hanging down from every column
+        MazeGrid grid = new MazeGrid(4);
+        for (int col = 0; col < 4; col++) {
+            if (col < 3) {
+                grid.carve(0, col, MazeGrid.EAST);
+            }
+            for (int row = 0; row < 3; row++) {
+                grid.carve(row, col, MazeGrid.SOUTH);
+            }
+        }
+
+        MazeStatistics stats = MazeStatistics.of(grid);
+        assertEquals(4, stats.getDeadEnds());
+        assertEquals(2, stats.getJunctions());
+        assertEquals(3 + 3 + 2 + 2, stats.getCorridorCells());
+        long[] histogram = stats.getCorridorLengthHistogram();
+        assertEquals(2, histogram[3]); // the outer teeth, corners (0,0) and (0,3) included
+        assertEquals(2, histogram[2]); // the inner teeth, hanging from a junction
+        assertEquals(6, stats.getSolutionLength());
+    }
+
+    @Test
+    void unreachableExitHasNoSolution() {
+        MazeGrid grid = new MazeGrid(4);
+        grid.carve(3, 0, MazeGrid.EAST);
+        assertEquals(-1, MazeStatistics.of(grid).getSolutionLength());
+        assertEquals(0, MazeStatistics.of(new MazeGrid(1)).getSolutionLength());
+    }
+
+    @Test
+    void matchesCellByCellCountsForEveryGenerator() {
+        // 70 columns so each row spans two words
+        for (Algorithm algorithm : Algorithm.values()) {
+            for (long seed = 1; seed <= 3; seed++) {
+                MazeGrid grid = algorithm.generate(70, seed);
+                checkAgainstReference(grid, algorithm + " seed " + seed);
+            }
+        }
+        checkAgainstReference(Algorithm.PRIMS.generate(70, 9, 0.3), "braided Prim's");
+    }
+
+    @Test
+    void perfectMazeSolutionMatchesSearch() {
+        MazeGrid grid = Algorithm.WILSONS.generate(40, 5);
+        MazeStatistics stats = MazeStatistics.of(grid);
+        int expected = new GridSearch(grid).distance(grid.cellAt(39, 0), grid.cellAt(0, 39));
+        assertEquals(expected, stats.getSolutionLength());
+        assertEquals(grid.getCellCount(), stats.getDeadEnds() + stats.getJunctions() + stats.getCorridorCells());
+    }
+
+    private static void checkAgainstReference(MazeGrid grid, String label) {
+        int deadEnds = 0;
+        int junctions = 0;
+        int corridorCells = 0;
+        for (int cell = 0; cell < grid.getCellCount(); cell++) {
+            int degree = MazeStatistics.degree(grid, cell);
+            if (degree == 1) {
+                deadEnds++;
+            } else if (degree == 2) {
+                corridorCells++;
+            } else if (degree >= 3) {
+                junctions++;
+            }
+        }
+        MazeStatistics stats = MazeStatistics.of(grid);
+        assertEquals(deadEnds, stats.getDeadEnds(), label);
+        assertEquals(junctions, stats.getJunctions(), label);
+        assertEquals(corridorCells, stats.getCorridorCells(), label);
+
+        long[] histogram = stats.getCorridorLengthHistogram();
+        long inCorridors = 0;
+        for (int length = 1; length < histogram.length; length++) {
+            inCorridors += length * histogram[length];
+        }
+        assertEquals(corridorCells, inCorridors, label + ": every corridor cell belongs to exactly one corridor");
+        assertArrayEquals(histogram, MazeStatistics.of(grid).getCorridorLengthHistogram(), label);
+    }
+}
@@ -0,0 +1,94 @@
+package analysis;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import generators.Algorithm;
+import generators.MazeGrid;
+
+public class TreeDistanceIndexTest {
+
+    @Test
+    void distancesMatchSearchOnEveryPerfectMaze() {
+        Random random = new Random(7);
+        for (Algorithm algorithm : Algorithm.values()) {
+            MazeGrid grid = algorithm.generate(37, 3);
+            TreeDistanceIndex index = new TreeDistanceIndex(grid);
+            GridSearch search = new GridSearch(grid);
+            for (int i = 0; i < 300; i++) {
+                int a = random.nextInt(grid.getCellCount());
+                int b = random.nextInt(grid.getCellCount());
+                assertEquals(search.distance(a, b), index.distance(a, b), algorithm + " " + a + "->" + b);
+            }
+        }
+    }
+
+    @Test
+    void followingNextStepWalksTheShortestPath() {
+        Random random = new Random(11);
+        MazeGrid grid = Algorithm.WILSONS.generate(25, 8);
+        TreeDistanceIndex index = new TreeDistanceIndex(grid);
+        for (int i = 0; i < 100; i++) {
+            int from = random.nextInt(grid.getCellCount());
+            int to = random.nextInt(grid.getCellCount());
+            int steps = 0;
+            int cell = from;
+            while (cell != to) {
+                int next = index.nextStepToward(cell, to);
+                assertTrue(isOpenNeighbor(grid, cell, next), "each step must go through a passage");
+                cell = next;
+                steps++;
+            }
+            assertEquals(index.distance(from, to), steps);
+        }
+    }
+
+    @Test
+    void ancestorsAndDepthsFollowTheTree() {
+        // 0-1-2-5-8 with a branch 5-4-3 and 4-7-6
+        MazeGrid grid = new MazeGrid(3);
+        grid.carve(0, 0, MazeGrid.EAST);
+        grid.carve(0, 1, MazeGrid.EAST);
+        grid.carve(0, 2, MazeGrid.SOUTH);
+        grid.carve(1, 2, MazeGrid.SOUTH);
+        grid.carve(1, 2, MazeGrid.WEST);
+        grid.carve(1, 1, MazeGrid.WEST);
+        grid.carve(1, 1, MazeGrid.SOUTH);
+        grid.carve(2, 1, MazeGrid.WEST);
+        TreeDistanceIndex index = new TreeDistanceIndex(grid);
+        assertEquals(4, index.depthOf(8));
+        assertEquals(5, index.lowestCommonAncestor(8, 6));
+        assertEquals(4, index.distance(8, 6)); // 8-5-4-7-6
+        assertTrue(index.isAncestor(2, 6));
+        assertEquals(5, index.nextStepToward(2, 6));
+        assertEquals(2, index.nextStepToward(5, 0));
+    }
+
+    @Test
+    void rejectsMazesThatAreNotTrees() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new TreeDistanceIndex(Algorithm.PRIMS.generate(20, 4, 0.5)));
+        MazeGrid disconnected = new MazeGrid(3);
+        for (int row = 0; row < 3; row++) {
+            disconnected.carve(row, 0, MazeGrid.EAST);
+            disconnected.carve(row, 1, MazeGrid.EAST);
+        }
+        disconnected.carve(0, 0, MazeGrid.SOUTH);
+        disconnected.carve(0, 1, MazeGrid.SOUTH);
+        assertThrows(IllegalArgumentException.class, () -> new TreeDistanceIndex(disconnected));
+    }
+
+    private static boolean isOpenNeighbor(MazeGrid grid, int cell, int next) {
+        for (int d = MazeGrid.NORTH; d <= MazeGrid.WEST; d++) {
+            if (grid.neighbor(cell, d) == next && grid.hasPassage(cell, d)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,184 @@
+package export;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.Adler32;
+
+import javax.imageio.ImageIO;
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Element;
+
+import generators.Algorithm;
+import generators.MazeGrid;
+
+public class MazeImageExporterTest {
+    private static final int CELL = 7;
+    private static final int WALL = 2;
+
+    static {
+        System.setProperty("java.awt.headless", "true");
+    }
+
+    @Test
+    void pngShowsEveryWallAndPassage() throws IOException {
+        MazeGrid grid = Algorithm.PRIMS.generate(23, 4, 0.2);
+        // 3 cell rows per strip, so the image is many strips in several batches
+        MazeImageExporter exporter = new MazeImageExporter(CELL, WALL, 3);
+        ForkJoinPool pool = new ForkJoinPool(2);
+        BufferedImage image;
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            exporter.writePng(grid, out, pool);
+            image = ImageIO.read(new ByteArrayInputStream(out.toByteArray()));
+        } finally {
+            pool.shutdown();
+        }
+        assertNotNull(image, "The PNG should decode.");
+        assertEquals(23 * CELL + WALL, image.getWidth());
+        assertEquals(23 * CELL + WALL, image.getHeight());
+
+        for (int row = 0; row < 23; row++) {
+            for (int col = 0; col < 23; col++) {
+                int left = col * CELL;
+                int top = row * CELL;
+                assertTrue(isWhite(image, left + CELL / 2 + 1, top + CELL / 2 + 1), "Cell centers are open.");
+                assertTrue(!isWhite(image, left, top), "Posts are always drawn.");
+                // the middle of the wall on the east side of the cell
+                boolean eastOpen = isWhite(image, left + CELL, top + CELL / 2 + 1);
+                boolean southOpen = isWhite(image, left + CELL / 2 + 1, top + CELL);
+                assertEquals(grid.hasPassage(row, col, MazeGrid.EAST), eastOpen, "east of " + row + "," + col);
+                assertEquals(grid.hasPassage(row, col, MazeGrid.SOUTH), southOpen, "south of " + row + "," + col);
+            }
+        }
+    }
+
+    @Test
+    void stripSizeDoesNotChangeTheImage() throws IOException {
+        MazeGrid grid = Algorithm.WILSONS.generate(30, 2);
+        BufferedImage one = read(new MazeImageExporter(CELL, WALL, 1000), grid);
+        BufferedImage many = read(new MazeImageExporter(CELL, WALL, 1), grid);
+        for (int y = 0; y < one.getHeight(); y++) {
+            for (int x = 0; x < one.getWidth(); x++) {
+                assertEquals(one.getRGB(x, y), many.getRGB(x, y));
+            }
+        }
+    }
+
+    @Test
+    void wideImagesGetStripsThatFitTheByteBudget() throws IOException {
+        MazeGrid grid = Algorithm.SIDEWINDER.generate(200, 6);
+        // a row is 177 bytes: 1000 bytes gives 5 pixel rows a strip, 10 bytes still gives 1
+        BufferedImage whole = read(new MazeImageExporter(CELL, WALL, 1000), grid);
+        for (int budget : new int[] {1000, 10}) {
+            BufferedImage cut = read(new MazeImageExporter(CELL, WALL, 1000, budget), grid);
+            assertEquals(whole.getHeight(), cut.getHeight());
+            for (int y = 0; y < whole.getHeight(); y++) {
+                for (int x = 0; x < whole.getWidth(); x++) {
+                    assertEquals(whole.getRGB(x, y), cut.getRGB(x, y), "budget " + budget);
+                }
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> new MazeImageExporter(CELL, WALL, 1, 0));
+    }
+
+    @Test
+    void combinedChecksumMatchesOneChecksum() {
+        byte[] first = "walls and passages".getBytes(StandardCharsets.US_ASCII);
+        byte[] second = new byte[100_000];
+        for (int i = 0; i < second.length; i++) {
+            second[i] = (byte) (i * 31);
+        }
+        Adler32 whole = new Adler32();
+        whole.update(first);
+        whole.update(second);
+        Adler32 a = new Adler32();
+        a.update(first);
+        Adler32 b = new Adler32();
+        b.update(second);
+        assertEquals(whole.getValue(), MazeImageExporter.combineAdler(a.getValue(), b.getValue(), second.length));
+    }
+
+    @Test
+    void svgIsWellFormed() throws Exception {
+        MazeGrid grid = Algorithm.RECURSIVE_DIVISION.generate(12, 6);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new MazeImageExporter(CELL, WALL).writeSvg(grid, out);
+        Element svg = DocumentBuilderFactory.newInstance().newDocumentBuilder()
+            .parse(new ByteArrayInputStream(out.toByteArray())).getDocumentElement();
+        assertEquals("svg", svg.getTagName());
+        assertEquals(String.valueOf(12 * CELL + WALL), svg.getAttribute("width"));
+        assertEquals(1, svg.getElementsByTagName("path").getLength());
+        String path = ((Element) svg.getElementsByTagName("path").item(0)).getAttribute("d");
+
+        // the top and left borders are each one full-length run from the first corner
+        double half = WALL / 2.0;
+        String corner = "M" + format(half) + " " + format(half);
+        assertTrue(path.startsWith(corner + "h" + 12 * CELL), path);
+        assertTrue(path.contains(corner + "v" + 12 * CELL), path);
+
+        int horizontal = 0;
+        int vertical = 0;
+        for (String segment : path.split("M")) {
+            if (segment.contains("h")) {
+                horizontal++;
+            } else if (segment.contains("v")) {
+                vertical++;
+            }
+        }
+        assertEquals(wallRuns(grid, true), horizontal);
+        assertEquals(wallRuns(grid, false), vertical);
+    }
+
+    /*
+     * the number of straight runs of wall, counted along each row or column boundary
+     */
+    private static int wallRuns(MazeGrid grid, boolean horizontal) {
+        int size = grid.getGridSize();
+        int runs = 0;
+        for (int boundary = 0; boundary <= size; boundary++) {
+            boolean inRun = false;
+            for (int i = 0; i < size; i++) {
+                boolean inside = boundary > 0 && boundary < size;
+                boolean wall = !inside || (horizontal
+                    ? !grid.hasPassage(boundary - 1, i, MazeGrid.SOUTH)
+                    : !grid.hasPassage(i, boundary - 1, MazeGrid.EAST));
+                if (wall && !inRun) {
+                    runs++;
+                }
+                inRun = wall;
+            }
+        }
+        return runs;
+    }
+
+    private static String format(double value) {
+        return value == Math.rint(value) ? Long.toString((long) value) : Double.toString(value);
+    }
+
+    @Test
+    void rejectsWallsThickerThanCells() {
+        assertThrows(IllegalArgumentException.class, () -> new MazeImageExporter(3, 3));
+        assertThrows(IllegalArgumentException.class, () -> new MazeImageExporter(5, 1, 0));
+    }
+
+    private static BufferedImage read(MazeImageExporter exporter, MazeGrid grid) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporter.writePng(grid, out);
+        return ImageIO.read(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    private static boolean isWhite(BufferedImage image, int x, int y) {
+        return (image.getRGB(x, y) & 0xFFFFFF) == 0xFFFFFF;
+    }
+}
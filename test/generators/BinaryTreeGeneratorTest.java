@@ -0,0 +1,107 @@
+package generators;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+public class BinaryTreeGeneratorTest {
+    // over 64 columns, so rows span more than one word
+    private static final int GRID_SIZE = 130;
+
+    @Test
+    void carvesAPerfectMaze() {
+        BinaryTreeGenerator generator = new BinaryTreeGenerator(GRID_SIZE, 3);
+        generator.generateMaze();
+        MazeGrid grid = generator.getMazeGrid();
+        assertEquals(GRID_SIZE * GRID_SIZE - 1, grid.countPassages());
+        assertEquals(GRID_SIZE * GRID_SIZE, reachableFrom(grid, 0));
+        assertEquals(GRID_SIZE, generator.getStepCount());
+    }
+
+    @Test
+    void everyCellOpensNorthOrEast() {
+        BinaryTreeGenerator generator = new BinaryTreeGenerator(GRID_SIZE, 8);
+        generator.generateMaze();
+        MazeGrid grid = generator.getMazeGrid();
+        for (int row = 0; row < GRID_SIZE; row++) {
+            for (int col = 0; col < GRID_SIZE; col++) {
+                boolean north = grid.hasPassage(row, col, MazeGrid.NORTH);
+                boolean east = grid.hasPassage(row, col, MazeGrid.EAST);
+                if (row == 0 && col == GRID_SIZE - 1) {
+                    assertTrue(!north && !east, "The top right cell is the root.");
+                } else {
+                    assertTrue(north != east, "(" + row + "," + col + ") should open exactly one of north and east.");
+                }
+            }
+        }
+    }
+
+    @Test
+    void sameMazeWhateverThePool() {
+        BinaryTreeGenerator common = new BinaryTreeGenerator(GRID_SIZE, 21);
+        common.generateMaze();
+        ForkJoinPool single = new ForkJoinPool(1);
+        try {
+            BinaryTreeGenerator serial = new BinaryTreeGenerator(GRID_SIZE, 21);
+            serial.generateMaze(single);
+            assertArrayEquals(common.getMazeGrid().getEastPassageWords(), serial.getMazeGrid().getEastPassageWords());
+            assertArrayEquals(common.getMazeGrid().getSouthPassageWords(), serial.getMazeGrid().getSouthPassageWords());
+        } finally {
+            single.shutdown();
+        }
+    }
+
+    @Test
+    void stepperCarvesTheSameMazeAsGenerateMaze() {
+        BinaryTreeGenerator whole = new BinaryTreeGenerator(GRID_SIZE, 5);
+        whole.generateMaze();
+
+        BinaryTreeGenerator stepped = new BinaryTreeGenerator(GRID_SIZE, 5);
+        int[] carved = new int[1];
+        stepped.getMazeGrid().setCarveListener((cell, direction) -> carved[0]++);
+        MazeStepper stepper = stepped.stepper();
+        int calls = 1;
+        while (!stepper.step(7)) {
+            calls++;
+        }
+        assertTrue(calls > 1);
+        assertEquals(GRID_SIZE * GRID_SIZE - 1, carved[0], "The stepper should tell the listener about every passage.");
+        assertArrayEquals(whole.getMazeGrid().getEastPassageWords(), stepped.getMazeGrid().getEastPassageWords());
+        assertArrayEquals(whole.getMazeGrid().getSouthPassageWords(), stepped.getMazeGrid().getSouthPassageWords());
+    }
+
+    @Test
+    void handlesTinyGrids() {
+        BinaryTreeGenerator empty = new BinaryTreeGenerator(0, 1);
+        empty.generateMaze();
+        assertEquals(0, empty.getMazeGrid().countPassages());
+        BinaryTreeGenerator single = new BinaryTreeGenerator(1, 1);
+        single.generateMaze();
+        assertEquals(0, single.getMazeGrid().countPassages());
+    }
+
+    static int reachableFrom(MazeGrid grid, int start) {
+        boolean[] seen = new boolean[grid.getCellCount()];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        queue.add(start);
+        seen[start] = true;
+        int count = 0;
+        while (!queue.isEmpty()) {
+            int cell = queue.poll();
+            count++;
+            for (int d = MazeGrid.NORTH; d <= MazeGrid.WEST; d++) {
+                int next = grid.neighbor(cell, d);
+                if (next >= 0 && grid.hasPassage(cell, d) && !seen[next]) {
+                    seen[next] = true;
+                    queue.add(next);
+                }
+            }
+        }
+        return count;
+    }
+}
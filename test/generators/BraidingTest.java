@@ -0,0 +1,67 @@
+package generators;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class BraidingTest {
+
+    @Test
+    void zeroProbabilityChoosesNothing() {
+        MazeGrid grid = new MazeGrid(20);
+        CountingRandom random = new CountingRandom(1);
+        assertEquals(0, Braiding.chooseWalls(grid, 0, random, (cell, direction) -> { }));
+        assertEquals(0, random.draws);
+    }
+
+    @Test
+    void fullProbabilityChoosesEveryClosedWall() {
+        MazeGrid grid = new MazeGrid(9);
+        grid.carve(0, 0, MazeGrid.EAST);
+        grid.carve(4, 4, MazeGrid.SOUTH);
+        int opened = Braiding.chooseWalls(grid, 1.0, new Random(2), (cell, direction) ->
+            grid.carve(grid.rowOf(cell), grid.colOf(cell), direction));
+        assertEquals(2 * 9 * 8 - 2, opened);
+        assertEquals(2 * 9 * 8, grid.countPassages());
+    }
+
+    @Test
+    void opensAboutTheRightShareAndDrawsOncePerChosenWall() {
+        MazeGrid grid = new MazeGrid(300);
+        CountingRandom random = new CountingRandom(3);
+        double probability = 0.01;
+        int opened = Braiding.chooseWalls(grid, probability, random, (cell, direction) ->
+            grid.carve(grid.rowOf(cell), grid.colOf(cell), direction));
+        double walls = 2.0 * 300 * 299;
+        double expected = walls * probability;
+        assertTrue(Math.abs(opened - expected) < 5 * Math.sqrt(expected), "opened " + opened + ", expected about " + expected);
+        // one draw to reach each chosen wall plus one that jumps past the end
+        assertEquals(opened + 1, random.draws);
+    }
+
+    @Test
+    void onlyReportsEastAndSouthWallsInsideTheGrid() {
+        MazeGrid grid = new MazeGrid(7);
+        Braiding.chooseWalls(grid, 0.5, new Random(4), (cell, direction) -> {
+            assertTrue(direction == MazeGrid.EAST || direction == MazeGrid.SOUTH);
+            assertTrue(grid.neighbor(cell, direction) >= 0, "wall " + cell + "/" + direction + " is on the boundary");
+        });
+    }
+
+    private static class CountingRandom extends Random {
+        int draws;
+
+        CountingRandom(long seed) {
+            super(seed);
+        }
+
+        @Override
+        public double nextDouble() {
+            draws++;
+            return super.nextDouble();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package generators;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import generators.CarvePublisher.CarveBatch;
+
+public class CarvePublisherTest {
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void subscribersRebuildTheSameMaze() throws InterruptedException {
+        for (Algorithm algorithm : Algorithm.values()) {
+            CarvePublisher publisher = new CarvePublisher(algorithm, 20, 9, 16, executor, 4);
+            CarvePublisher.GridBuilder first = new CarvePublisher.GridBuilder(20);
+            CarvePublisher.GridBuilder second = new CarvePublisher.GridBuilder(20);
+            publisher.subscribe(first);
+            publisher.subscribe(second);
+            publisher.run();
+
+            MazeGrid expected = algorithm.generate(20, 9);
+            for (CarvePublisher.GridBuilder builder : new CarvePublisher.GridBuilder[] {first, second}) {
+                waitForCompletion(builder);
+                assertNull(builder.getError());
+                assertArrayEquals(expected.getEastPassageWords(), builder.getGrid().getEastPassageWords(), algorithm.name());
+                assertArrayEquals(expected.getSouthPassageWords(), builder.getGrid().getSouthPassageWords(), algorithm.name());
+            }
+        }
+    }
+
+    @Test
+    void everyPassageIsPublishedOnceAsEastOrSouth() throws InterruptedException {
+        CarvePublisher publisher = new CarvePublisher(Algorithm.PRIMS, 15, 4, 10, executor, 2);
+        AtomicInteger passages = new AtomicInteger();
+        AtomicInteger badDirections = new AtomicInteger();
+        CarvePublisher.GridBuilder counter = new CarvePublisher.GridBuilder(15) {
+            @Override
+            protected void carved(CarveBatch batch) {
+                passages.addAndGet(batch.size());
+                for (int i = 0; i < batch.size(); i++) {
+                    if (batch.directionAt(i) != MazeGrid.EAST && batch.directionAt(i) != MazeGrid.SOUTH) {
+                        badDirections.incrementAndGet();
+                    }
+                }
+            }
+        };
+        publisher.subscribe(counter);
+        publisher.run();
+        waitForCompletion(counter);
+        assertEquals(15 * 15 - 1, passages.get());
+        assertEquals(0, badDirections.get());
+    }
+
+    @Test
+    void slowSubscriberHoldsGenerationBack() throws InterruptedException {
+        CarvePublisher publisher = new CarvePublisher(Algorithm.WILSONS, 30, 2, 8, executor, 1);
+        CountDownLatch firstBatch = new CountDownLatch(1);
+        AtomicInteger received = new AtomicInteger();
+        Flow.Subscription[] subscription = new Flow.Subscription[1];
+        publisher.subscribe(new Flow.Subscriber<CarveBatch>() {
+            public void onSubscribe(Flow.Subscription s) {
+                subscription[0] = s;
+                s.request(1);
+            }
+            public void onNext(CarveBatch batch) {
+                received.incrementAndGet();
+                firstBatch.countDown();
+            }
+            public void onError(Throwable throwable) {
+            }
+            public void onComplete() {
+            }
+        });
+
+        Thread generator = new Thread(publisher::run);
+        generator.start();
+        assertTrue(firstBatch.await(10, TimeUnit.SECONDS));
+        generator.join(200);
+        assertTrue(generator.isAlive(), "Generation should wait while the subscriber has not asked for more.");
+        assertEquals(1, received.get());
+
+        subscription[0].request(Long.MAX_VALUE);
+        generator.join(10_000);
+        assertTrue(!generator.isAlive(), "Generation should finish once the subscriber catches up.");
+    }
+
+    private static void waitForCompletion(CarvePublisher.GridBuilder builder) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!builder.isComplete() && builder.getError() == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(2);
+        }
+        assertTrue(builder.isComplete(), "The subscriber should have been completed.");
+    }
+}
@@ -0,0 +1,168 @@
+package generators;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+
+import org.junit.jupiter.api.Test;
+
+public class ChunkedWorldTest {
+    private static final int CHUNK_SIZE = 8;
+
+    @Test
+    void sameSeedSameWorldInAnyOrder() {
+        ChunkedWorld forward = new ChunkedWorld(Algorithm.WILSONS, CHUNK_SIZE, 42, 1, 9, 1);
+        ChunkedWorld backward = new ChunkedWorld(Algorithm.WILSONS, CHUNK_SIZE, 42, 1, 9, 1);
+        int span = 3 * CHUNK_SIZE;
+        boolean[] seen = new boolean[span * span * 2];
+        for (int row = -CHUNK_SIZE; row < 2 * CHUNK_SIZE; row++) {
+            for (int col = -CHUNK_SIZE; col < 2 * CHUNK_SIZE; col++) {
+                int i = ((row + CHUNK_SIZE) * span + col + CHUNK_SIZE) * 2;
+                seen[i] = forward.hasPassage(row, col, MazeGrid.EAST);
+                seen[i + 1] = forward.hasPassage(row, col, MazeGrid.SOUTH);
+            }
+        }
+        for (int row = 2 * CHUNK_SIZE - 1; row >= -CHUNK_SIZE; row--) {
+            for (int col = 2 * CHUNK_SIZE - 1; col >= -CHUNK_SIZE; col--) {
+                int i = ((row + CHUNK_SIZE) * span + col + CHUNK_SIZE) * 2;
+                assertEquals(seen[i], backward.hasPassage(row, col, MazeGrid.EAST));
+                assertEquals(seen[i + 1], backward.hasPassage(row, col, MazeGrid.SOUTH));
+            }
+        }
+        forward.shutdown();
+        backward.shutdown();
+    }
+
+    @Test
+    void neighborsAgreeOnEverySide() {
+        ChunkedWorld world = new ChunkedWorld(Algorithm.PRIMS, CHUNK_SIZE, 7, 1, 9, 1);
+        for (int row = -20; row < 20; row++) {
+            for (int col = -20; col < 20; col++) {
+                assertEquals(world.hasPassage(row, col, MazeGrid.EAST), world.hasPassage(row, col + 1, MazeGrid.WEST));
+                assertEquals(world.hasPassage(row, col, MazeGrid.SOUTH), world.hasPassage(row + 1, col, MazeGrid.NORTH));
+            }
+        }
+        world.shutdown();
+    }
+
+    @Test
+    void chunksAcrossTheOriginConnect() {
+        for (Algorithm algorithm : Algorithm.values()) {
+            ChunkedWorld world = new ChunkedWorld(algorithm, CHUNK_SIZE, 3, 1, 9, 1);
+            // 3 by 3 chunks centered on the chunk at (-1, -1), reached without leaving them
+            long top = -2 * CHUNK_SIZE;
+            int span = 3 * CHUNK_SIZE;
+            assertEquals(span * span, reachableWithin(world, top, top, span), algorithm + " should connect every chunk.");
+            world.shutdown();
+        }
+    }
+
+    @Test
+    void everyBorderHasExactlyOneOpening() {
+        ChunkedWorld world = new ChunkedWorld(Algorithm.SIDEWINDER, CHUNK_SIZE, 11, 0, 4, 1);
+        int east = 0;
+        int south = 0;
+        for (int i = 0; i < CHUNK_SIZE; i++) {
+            east += world.hasPassage(-CHUNK_SIZE + i, -1, MazeGrid.EAST) ? 1 : 0;
+            south += world.hasPassage(-1, -CHUNK_SIZE + i, MazeGrid.SOUTH) ? 1 : 0;
+        }
+        assertEquals(1, east);
+        assertEquals(1, south);
+        world.shutdown();
+    }
+
+    @Test
+    void cacheStaysBoundedWalkingFar() {
+        ChunkedWorld world = new ChunkedWorld(Algorithm.BINARY_TREE, CHUNK_SIZE, 5, 1, 12, 1);
+        for (long col = 0; col < 200L * CHUNK_SIZE; col++) {
+            world.hasPassage(col, col, MazeGrid.EAST);
+            assertTrue(world.getCachedChunkCount() <= 12);
+        }
+        assertTrue(world.getGeneratedCount() >= 200);
+        // far from the origin now, so its chunk was dropped
+        assertFalse(world.isCached(0, 0));
+        world.shutdown();
+    }
+
+    @Test
+    void prefetchFillsTheNeighborhood() throws InterruptedException {
+        ChunkedWorld world = new ChunkedWorld(Algorithm.RECURSIVE_BACKTRACKING, CHUNK_SIZE, 9, 1, 9, 2);
+        world.prefetchAround(1000, -1000);
+        int centerX = world.chunkOf(-1000);
+        int centerY = world.chunkOf(1000);
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (world.getCachedChunkCount() < 9 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        for (int dy = -1; dy <= 1; dy++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                assertTrue(world.isCached(centerX + dx, centerY + dy));
+            }
+        }
+        long generated = world.getGeneratedCount();
+        world.hasPassage(1000, -1000, MazeGrid.NORTH);
+        world.prefetchAround(1000, -1000);
+        assertEquals(generated, world.getGeneratedCount(), "Prefetched chunks should not be generated twice.");
+        world.shutdown();
+    }
+
+    @Test
+    void chunksStillComeAfterShutdown() {
+        ChunkedWorld world = new ChunkedWorld(Algorithm.WILSONS, 64, 5, 2, 25, 1);
+        ChunkedWorld reference = new ChunkedWorld(Algorithm.WILSONS, 64, 5, 0, 25, 1);
+        // one thread and 25 chunks, so most prefetches are still queued when they are dropped
+        world.prefetchAround(0, 0);
+        world.shutdown();
+        world.prefetchAround(5000, 5000);
+        assertTimeoutPreemptively(Duration.ofSeconds(30), () -> {
+            for (int dy = -2; dy <= 2; dy++) {
+                for (int dx = -2; dx <= 2; dx++) {
+                    assertArrayEquals(reference.getChunk(dx, dy).getGrid().getEastPassageWords(),
+                        world.getChunk(dx, dy).getGrid().getEastPassageWords());
+                }
+            }
+            world.getChunk(world.chunkOf(5000), world.chunkOf(5000));
+        });
+        reference.shutdown();
+    }
+
+    @Test
+    void rejectsACacheSmallerThanThePrefetch() {
+        assertThrows(IllegalArgumentException.class, () -> new ChunkedWorld(Algorithm.PRIMS, CHUNK_SIZE, 0, 2, 24, 1));
+    }
+
+    private static int reachableWithin(ChunkedWorld world, long top, long left, int span) {
+        boolean[] seen = new boolean[span * span];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        queue.add(0);
+        seen[0] = true;
+        int count = 0;
+        int[] rowStep = {-1, 0, 1, 0};
+        int[] colStep = {0, 1, 0, -1};
+        while (!queue.isEmpty()) {
+            int cell = queue.poll();
+            count++;
+            int row = cell / span;
+            int col = cell % span;
+            for (int d = MazeGrid.NORTH; d <= MazeGrid.WEST; d++) {
+                int nextRow = row + rowStep[d];
+                int nextCol = col + colStep[d];
+                if (nextRow < 0 || nextCol < 0 || nextRow >= span || nextCol >= span) {
+                    continue;
+                }
+                int next = nextRow * span + nextCol;
+                if (!seen[next] && world.hasPassage(top + row, left + col, d)) {
+                    seen[next] = true;
+                    queue.add(next);
+                }
+            }
+        }
+        return count;
+    }
+}
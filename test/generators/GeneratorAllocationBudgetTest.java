@@ -0,0 +1,133 @@
+package generators;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.jupiter.api.Test;
+
+import com.sun.management.ThreadMXBean;
+
+/**
+ * Measures the bytes each generator allocates per carved passage and fails when
+ * a generator goes over its declared budget. The budgets are set a little above
+ * what the generators allocate today; when a hot path gets cheaper, lower its
+ * budget here so it cannot quietly get expensive again.
+ */
+public class GeneratorAllocationBudgetTest {
+    private static final int GRID_SIZE = 64;
+    private static final long[] SEEDS = {11, 23, 47};
+
+    // bytes allocated per carved passage
+    // Prim's: one Edge per frontier wall plus a String key per passage in connections
+    private static final double PRIMS_BUDGET = 400;
+    // Wilson's: boxed Integer and HashMap entry per walk step, so it follows the walk length
+    private static final double WILSONS_BUDGET = 2048;
+    // recursive backtracking: a shuffled copy of the direction list and an Edge per cell
+    private static final double RECURSIVE_BACKTRACKING_BUDGET = 128;
+    // growing tree: only its int and boolean arrays, a few bytes per cell
+    private static final double GROWING_TREE_BUDGET = 32;
+    // hunt and kill: only its visited bitset, under a bit per cell
+    private static final double HUNT_AND_KILL_BUDGET = 8;
+    // weighted Prim's: the heap position per cell plus the heap arrays, no object per wall
+    private static final double WEIGHTED_PRIMS_BUDGET = 32;
+    // braiding: an Edge and a String key per opened wall, nothing for the walls it skips
+    private static final double PRIMS_BRAIDING_BUDGET = 64;
+
+    private final ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Test
+    void primsStaysWithinBudget() {
+        assertWithinBudget("Prim's", PRIMS_BUDGET, seed -> {
+            PrimsAlgorithmGenerator gen = new PrimsAlgorithmGenerator(GRID_SIZE, seed);
+            long bytes = allocatedBytes(() -> gen.generateMaze());
+            return bytes / (double) gen.getEdges().size();
+        });
+    }
+
+    @Test
+    void wilsonsStaysWithinBudget() {
+        assertWithinBudget("Wilson's", WILSONS_BUDGET, seed -> {
+            WilsonsAlgorithmGenerator gen = new WilsonsAlgorithmGenerator(GRID_SIZE, seed);
+            long bytes = allocatedBytes(() -> gen.generateMaze());
+            return bytes / (double) (GRID_SIZE * GRID_SIZE - 1);
+        });
+    }
+
+    @Test
+    void recursiveBacktrackingStaysWithinBudget() {
+        assertWithinBudget("Recursive backtracking", RECURSIVE_BACKTRACKING_BUDGET, seed -> {
+            RecursiveBacktrackingAlgorithmGenerator gen = new RecursiveBacktrackingAlgorithmGenerator(GRID_SIZE, seed);
+            long bytes = allocatedBytes(() -> gen.generateMaze(null));
+            return bytes / (double) gen.getEdges().size();
+        });
+    }
+
+    @Test
+    void growingTreeStaysWithinBudget() {
+        for (GrowingTreeGenerator.Policy policy : GrowingTreeGenerator.Policy.values()) {
+            assertWithinBudget("Growing tree " + policy, GROWING_TREE_BUDGET, seed -> {
+                GrowingTreeGenerator gen = new GrowingTreeGenerator(GRID_SIZE, policy, seed);
+                long bytes = allocatedBytes(() -> gen.generateMaze());
+                return bytes / (double) (GRID_SIZE * GRID_SIZE - 1);
+            });
+        }
+    }
+
+    @Test
+    void huntAndKillStaysWithinBudget() {
+        assertWithinBudget("Hunt and kill", HUNT_AND_KILL_BUDGET, seed -> {
+            HuntAndKillGenerator gen = new HuntAndKillGenerator(GRID_SIZE, seed);
+            long bytes = allocatedBytes(() -> gen.generateMaze());
+            return bytes / (double) (GRID_SIZE * GRID_SIZE - 1);
+        });
+    }
+
+    @Test
+    void weightedPrimsStaysWithinBudget() {
+        assertWithinBudget("Weighted Prim's", WEIGHTED_PRIMS_BUDGET, seed -> {
+            WeightedPrimsGenerator gen = new WeightedPrimsGenerator(GRID_SIZE, seed);
+            long bytes = allocatedBytes(() -> gen.generateMaze());
+            return bytes / (double) (GRID_SIZE * GRID_SIZE - 1);
+        });
+    }
+
+    @Test
+    void primsBraidingStaysWithinBudget() {
+        assertWithinBudget("Prim's braiding", PRIMS_BRAIDING_BUDGET, seed -> {
+            PrimsAlgorithmGenerator gen = new PrimsAlgorithmGenerator(GRID_SIZE, seed);
+            gen.generateMaze();
+            int treeEdges = gen.getEdges().size();
+            long bytes = allocatedBytes(() -> gen.addRandomEdges(0.10));
+            // charged per cell so a braiding that walks every cell would show up
+            return bytes / (double) (treeEdges + 1);
+        });
+    }
+
+    /**
+     * Runs the measurement once to warm up, then averages it over the seeds and
+     * compares the result to the budget.
+     */
+    private void assertWithinBudget(String what, double budget, BytesPerCarve measurement) {
+        measurement.measure(SEEDS[0]);
+        double total = 0;
+        for (long seed : SEEDS) {
+            total += measurement.measure(seed);
+        }
+        double bytesPerCarve = total / SEEDS.length;
+        assertTrue(bytesPerCarve <= budget,
+            () -> String.format("%s allocated %.1f bytes per carved passage, budget is %.1f",
+                what, bytesPerCarve, budget));
+    }
+
+    private long allocatedBytes(Runnable work) {
+        long before = threads.getCurrentThreadAllocatedBytes();
+        work.run();
+        return threads.getCurrentThreadAllocatedBytes() - before;
+    }
+
+    @FunctionalInterface
+    private interface BytesPerCarve {
+        double measure(long seed);
+    }
+}
@@ -0,0 +1,196 @@
+package generators;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import com.sun.management.ThreadMXBean;
+
+/**
+ * Runs every generator over a geometric sweep of grid sizes and fits how the
+ * work grows with the number of cells. Work is measured with the generators'
+ * own step counters and the bytes allocated by the generating thread, never
+ * with wall-clock time, so the results are the same on every machine.
+ *
+ * A generator fails when its growth is worse than O(n log n) in cells.
+ */
+public class GeneratorComplexityTest {
+    // grid sizes double each time, so the cell count grows 4x per step
+    private static final int[] SWEEP = {8, 16, 32, 64};
+    private static final long[] SEEDS = {11, 23, 47};
+
+    // log-log slope left over after dividing by n log n; n log n itself gives 0,
+    // n^2 gives about 0.9 over this sweep and n^3 about 1.9
+    private static final double MAX_EXCESS_STEP_SLOPE = 0.2;
+    // allocations are a bit noisier (class loading, JIT), so allow some more slack
+    private static final double MAX_EXCESS_ALLOCATION_SLOPE = 0.3;
+
+    private final ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Test
+    void primsStepsScaleNoWorseThanNLogN() {
+        assertScalesNoWorseThanNLogN("Prim's steps", MAX_EXCESS_STEP_SLOPE, (size, seed) -> {
+            PrimsAlgorithmGenerator gen = new PrimsAlgorithmGenerator(size, seed);
+            gen.generateMaze();
+            return gen.getStepCount();
+        });
+    }
+
+    @Test
+    void wilsonsStepsScaleNoWorseThanNLogN() {
+        assertScalesNoWorseThanNLogN("Wilson's steps", MAX_EXCESS_STEP_SLOPE, (size, seed) -> {
+            WilsonsAlgorithmGenerator gen = new WilsonsAlgorithmGenerator(size, seed);
+            gen.generateMaze();
+            return gen.getStepCount();
+        });
+    }
+
+    @Test
+    void recursiveBacktrackingStepsScaleNoWorseThanNLogN() {
+        assertScalesNoWorseThanNLogN("Recursive backtracking steps", MAX_EXCESS_STEP_SLOPE, (size, seed) -> {
+            RecursiveBacktrackingAlgorithmGenerator gen = new RecursiveBacktrackingAlgorithmGenerator(size, seed);
+            gen.generateMaze(null);
+            return gen.getStepCount();
+        });
+    }
+
+    @Test
+    void growingTreeStepsScaleNoWorseThanNLogN() {
+        for (GrowingTreeGenerator.Policy policy : GrowingTreeGenerator.Policy.values()) {
+            assertScalesNoWorseThanNLogN("Growing tree " + policy + " steps", MAX_EXCESS_STEP_SLOPE, (size, seed) -> {
+                GrowingTreeGenerator gen = new GrowingTreeGenerator(size, policy, seed);
+                gen.generateMaze();
+                return gen.getStepCount();
+            });
+        }
+    }
+
+    @Test
+    void huntAndKillStepsScaleNoWorseThanNLogN() {
+        assertScalesNoWorseThanNLogN("Hunt and kill steps", MAX_EXCESS_STEP_SLOPE, (size, seed) -> {
+            HuntAndKillGenerator gen = new HuntAndKillGenerator(size, seed);
+            gen.generateMaze();
+            return gen.getStepCount();
+        });
+    }
+
+    @Test
+    void recursiveDivisionStepsScaleNoWorseThanNLogN() {
+        assertScalesNoWorseThanNLogN("Recursive division steps", MAX_EXCESS_STEP_SLOPE, (size, seed) -> {
+            RecursiveDivisionGenerator gen = new RecursiveDivisionGenerator(size, seed);
+            gen.generateMaze();
+            return gen.getStepCount();
+        });
+    }
+
+    @Test
+    void parallelWilsonsStepsScaleNoWorseThanNLogN() {
+        // one walker, so the count does not depend on how the threads interleave
+        assertScalesNoWorseThanNLogN("Parallel Wilson's steps", MAX_EXCESS_STEP_SLOPE, (size, seed) -> {
+            ParallelWilsonsGenerator gen = new ParallelWilsonsGenerator(size, seed);
+            gen.generateMaze(ForkJoinPool.commonPool(), 1);
+            return gen.getStepCount();
+        });
+    }
+
+    @Test
+    void primsAllocationsScaleNoWorseThanNLogN() {
+        assertScalesNoWorseThanNLogN("Prim's allocations", MAX_EXCESS_ALLOCATION_SLOPE, (size, seed) -> {
+            PrimsAlgorithmGenerator gen = new PrimsAlgorithmGenerator(size, seed);
+            return allocatedBytes(() -> gen.generateMaze());
+        });
+    }
+
+    @Test
+    void wilsonsAllocationsScaleNoWorseThanNLogN() {
+        assertScalesNoWorseThanNLogN("Wilson's allocations", MAX_EXCESS_ALLOCATION_SLOPE, (size, seed) -> {
+            WilsonsAlgorithmGenerator gen = new WilsonsAlgorithmGenerator(size, seed);
+            return allocatedBytes(() -> gen.generateMaze());
+        });
+    }
+
+    @Test
+    void recursiveBacktrackingAllocationsScaleNoWorseThanNLogN() {
+        assertScalesNoWorseThanNLogN("Recursive backtracking allocations", MAX_EXCESS_ALLOCATION_SLOPE, (size, seed) -> {
+            RecursiveBacktrackingAlgorithmGenerator gen = new RecursiveBacktrackingAlgorithmGenerator(size, seed);
+            return allocatedBytes(() -> gen.generateMaze(null));
+        });
+    }
+
+    @Test
+    void weightedPrimsAllocationsScaleNoWorseThanNLogN() {
+        assertScalesNoWorseThanNLogN("Weighted Prim's allocations", MAX_EXCESS_ALLOCATION_SLOPE, (size, seed) -> {
+            WeightedPrimsGenerator gen = new WeightedPrimsGenerator(size, seed);
+            return allocatedBytes(() -> gen.generateMaze());
+        });
+    }
+
+    @Test
+    void excessSlopeCatchesCubicGrowth() {
+        // sanity check of the fit itself, so a broken fit cannot pass everything
+        double[] nLogN = new double[SWEEP.length];
+        double[] cubic = new double[SWEEP.length];
+        for (int i = 0; i < SWEEP.length; i++) {
+            double cells = (double) SWEEP[i] * SWEEP[i];
+            nLogN[i] = 5 * cells * Math.log(cells);
+            cubic[i] = cells * cells * cells;
+        }
+        assertTrue(Math.abs(excessSlope(nLogN)) < 1e-9, "n log n should fit with no excess slope.");
+        assertTrue(excessSlope(cubic) > 1.5, "n^3 should be flagged.");
+    }
+
+    /**
+     * Measures the given generator over the size sweep (averaging the seeds) and
+     * fails if the growth is worse than n log n.
+     */
+    private void assertScalesNoWorseThanNLogN(String what, double maxExcessSlope, Measurement measurement) {
+        // one throwaway run so class loading and the first JIT pass are not counted
+        measurement.measure(SWEEP[0], SEEDS[0]);
+
+        double[] counts = new double[SWEEP.length];
+        for (int i = 0; i < SWEEP.length; i++) {
+            for (long seed : SEEDS) {
+                counts[i] += measurement.measure(SWEEP[i], seed);
+            }
+            counts[i] /= SEEDS.length;
+        }
+        double slope = excessSlope(counts);
+        assertTrue(slope <= maxExcessSlope,
+            () -> String.format("%s grow faster than n log n: excess log-log slope %.2f (limit %.2f), counts %s",
+                what, slope, maxExcessSlope, Arrays.toString(counts)));
+    }
+
+    /**
+     * Least-squares slope of log(count / (n log n)) against log n, where n is the
+     * number of cells at each sweep size.
+     */
+    private static double excessSlope(double[] counts) {
+        double sumX = 0, sumY = 0, sumXX = 0, sumXY = 0;
+        int points = counts.length;
+        for (int i = 0; i < points; i++) {
+            double cells = (double) SWEEP[i] * SWEEP[i];
+            double x = Math.log(cells);
+            double y = Math.log(counts[i] / (cells * Math.log(cells)));
+            sumX += x;
+            sumY += y;
+            sumXX += x * x;
+            sumXY += x * y;
+        }
+        return (points * sumXY - sumX * sumY) / (points * sumXX - sumX * sumX);
+    }
+
+    private long allocatedBytes(Runnable work) {
+        long before = threads.getCurrentThreadAllocatedBytes();
+        work.run();
+        return threads.getCurrentThreadAllocatedBytes() - before;
+    }
+
+    @FunctionalInterface
+    private interface Measurement {
+        long measure(int gridSize, long seed);
+    }
+}
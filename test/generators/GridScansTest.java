@@ -0,0 +1,94 @@
+package generators;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class GridScansTest {
+
+    @Test
+    void degreeCountsMatchCellByCell() {
+        // sizes around word boundaries, so rows have 1, 2 and many words
+        for (int size : new int[] {1, 2, 63, 64, 65, 130, 600}) {
+            MazeGrid grid = randomGrid(size, size);
+            long[] expected = new long[5];
+            for (int cell = 0; cell < grid.getCellCount(); cell++) {
+                int degree = 0;
+                for (int d = MazeGrid.NORTH; d <= MazeGrid.WEST; d++) {
+                    if (grid.hasPassage(cell, d)) {
+                        degree++;
+                    }
+                }
+                expected[degree]++;
+            }
+            assertArrayEquals(expected, GridScans.degreeCounts(grid), "size " + size);
+            assertArrayEquals(expected, GridScans.degreeCountsScalar(grid), "size " + size);
+        }
+    }
+
+    @Test
+    void nonCorridorBitsMarkEveryCellWithoutTwoSides() {
+        for (int size : new int[] {1, 63, 65, 130}) {
+            MazeGrid grid = randomGrid(size, size + 1);
+            for (int row = 0; row < size; row++) {
+                for (int w = 0; w < grid.getWordsPerRow(); w++) {
+                    long expected = 0;
+                    for (int bit = 0; bit < 64 && (w << 6) + bit < size; bit++) {
+                        int cell = grid.cellAt(row, (w << 6) + bit);
+                        int degree = 0;
+                        for (int d = MazeGrid.NORTH; d <= MazeGrid.WEST; d++) {
+                            if (grid.hasPassage(cell, d)) {
+                                degree++;
+                            }
+                        }
+                        if (degree != 2) {
+                            expected |= 1L << bit;
+                        }
+                    }
+                    assertEquals(expected, GridScans.nonCorridorBits(grid, row, w), "size " + size + " row " + row);
+                }
+            }
+        }
+    }
+
+    @Test
+    void countBitsMatchesScalar() {
+        Random random = new Random(4);
+        for (int length : new int[] {0, 1, 7, 64, 1001}) {
+            long[] words = new long[length];
+            for (int i = 0; i < length; i++) {
+                words[i] = random.nextLong();
+            }
+            long expected = GridScans.countBitsScalar(words);
+            assertEquals(expected, GridScans.countBits(words));
+        }
+    }
+
+    @Test
+    void perfectMazeHasNoIsolatedCells() {
+        MazeGrid grid = Algorithm.SIDEWINDER.generate(300, 5);
+        long[] counts = GridScans.degreeCounts(grid);
+        assertEquals(0, counts[0]);
+        assertEquals(300L * 300, counts[0] + counts[1] + counts[2] + counts[3] + counts[4]);
+        assertEquals(300 * 300 - 1, grid.countPassages());
+    }
+
+    private static MazeGrid randomGrid(int size, long seed) {
+        MazeGrid grid = new MazeGrid(size);
+        Random random = new Random(seed);
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                if (col < size - 1 && random.nextBoolean()) {
+                    grid.carve(row, col, MazeGrid.EAST);
+                }
+                if (row < size - 1 && random.nextBoolean()) {
+                    grid.carve(row, col, MazeGrid.SOUTH);
+                }
+            }
+        }
+        return grid;
+    }
+}
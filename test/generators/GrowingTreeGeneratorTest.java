@@ -0,0 +1,161 @@
+package generators;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import generators.GrowingTreeGenerator.Policy;
+
+public class GrowingTreeGeneratorTest {
+    private static final int GRID_SIZE = 23;
+
+    @Test
+    void everyPolicyCarvesAPerfectMaze() {
+        for (Policy policy : Policy.values()) {
+            GrowingTreeGenerator generator = new GrowingTreeGenerator(GRID_SIZE, policy, 4);
+            generator.generateMaze();
+            MazeGrid grid = generator.getMazeGrid();
+            assertEquals(GRID_SIZE * GRID_SIZE - 1, grid.countPassages(), policy + " should carve a spanning tree");
+            assertEquals(GRID_SIZE * GRID_SIZE, reachableFrom(grid, 0), policy + " should reach every cell");
+        }
+    }
+
+    @Test
+    void takesTwoStepsPerCell() {
+        // every step either carves a passage or retires a cell, so steps are exactly 2n - 1
+        for (Policy policy : Policy.values()) {
+            GrowingTreeGenerator generator = new GrowingTreeGenerator(GRID_SIZE, policy, 9);
+            generator.generateMaze();
+            assertEquals(2L * GRID_SIZE * GRID_SIZE - 1, generator.getStepCount(), policy.toString());
+        }
+    }
+
+    @Test
+    void newestMakesLongerCorridorsThanRandom() {
+        assertTrue(deadEnds(Policy.NEWEST) < deadEnds(Policy.RANDOM),
+            "Newest-cell mazes should have fewer dead ends than random-cell ones.");
+    }
+
+    @Test
+    void stepperCarvesTheSameMazeAsGenerateMaze() {
+        GrowingTreeGenerator whole = new GrowingTreeGenerator(GRID_SIZE, Policy.MIXED, 0.3, 12);
+        whole.generateMaze();
+
+        GrowingTreeGenerator stepped = new GrowingTreeGenerator(GRID_SIZE, Policy.MIXED, 0.3, 12);
+        MazeStepper stepper = stepped.stepper();
+        int calls = 1;
+        while (!stepper.step(5)) {
+            calls++;
+        }
+        assertTrue(calls > 1);
+        assertArrayEquals(whole.getMazeGrid().getEastPassageWords(), stepped.getMazeGrid().getEastPassageWords());
+        assertArrayEquals(whole.getMazeGrid().getSouthPassageWords(), stepped.getMazeGrid().getSouthPassageWords());
+    }
+
+    @Test
+    void mixedNewestPicksStayOnTheNewestCell() {
+        // a newest pick always carves from the newest cell that can still grow, a random
+        // pick only now and then, so with a high ratio almost every carve starts there
+        double fraction = carvesFromNewestCell(0.9);
+        assertTrue(fraction > 0.9, "Only " + fraction + " of the carves started from the newest cell.");
+        assertTrue(carvesFromNewestCell(0.2) < fraction);
+    }
+
+    @Test
+    void handlesTinyGridsAndRejectsBadRatios() {
+        GrowingTreeGenerator empty = new GrowingTreeGenerator(0, Policy.NEWEST, 1);
+        empty.generateMaze();
+        assertEquals(0, empty.getMazeGrid().countPassages());
+        GrowingTreeGenerator single = new GrowingTreeGenerator(1, Policy.OLDEST, 1);
+        single.generateMaze();
+        assertEquals(0, single.getMazeGrid().countPassages());
+        assertThrows(IllegalArgumentException.class, () -> new GrowingTreeGenerator(5, Policy.MIXED, 1.5, 1));
+    }
+
+    /*
+     * the share of carves that start from the most recently visited cell that still has an unvisited neighbor
+     */
+    private static double carvesFromNewestCell(double newestRatio) {
+        int size = 30;
+        GrowingTreeGenerator generator = new GrowingTreeGenerator(size, Policy.MIXED, newestRatio, 6);
+        MazeGrid grid = generator.getMazeGrid();
+        boolean[] visited = new boolean[size * size];
+        int[] order = new int[size * size];
+        // the stepper's first draw is the start cell
+        int start = new Random(6).nextInt(size * size);
+        visited[start] = true;
+        order[0] = start;
+        int[] visitedCount = {1};
+        int[] fromNewest = {0};
+        grid.setCarveListener((cell, direction) -> {
+            int other = grid.neighbor(cell, direction);
+            int from = visited[cell] ? cell : other;
+            int to = from == cell ? other : cell;
+            int newest = -1;
+            for (int i = visitedCount[0] - 1; i >= 0 && newest < 0; i--) {
+                for (int d = MazeGrid.NORTH; d <= MazeGrid.WEST; d++) {
+                    int next = grid.neighbor(order[i], d);
+                    if (next >= 0 && !visited[next] && next != to) {
+                        newest = order[i];
+                        break;
+                    }
+                }
+                if (newest < 0 && order[i] == from) {
+                    newest = from; // its last unvisited neighbor is the one being carved to
+                }
+            }
+            if (from == newest) {
+                fromNewest[0]++;
+            }
+            visited[to] = true;
+            order[visitedCount[0]++] = to;
+        });
+        generator.generateMaze();
+        return fromNewest[0] / (double) (size * size - 1);
+    }
+
+    private static int deadEnds(Policy policy) {
+        GrowingTreeGenerator generator = new GrowingTreeGenerator(40, policy, 2);
+        generator.generateMaze();
+        MazeGrid grid = generator.getMazeGrid();
+        int deadEnds = 0;
+        for (int cell = 0; cell < grid.getCellCount(); cell++) {
+            int open = 0;
+            for (int d = MazeGrid.NORTH; d <= MazeGrid.WEST; d++) {
+                if (grid.hasPassage(cell, d)) {
+                    open++;
+                }
+            }
+            if (open == 1) {
+                deadEnds++;
+            }
+        }
+        return deadEnds;
+    }
+
+    private static int reachableFrom(MazeGrid grid, int start) {
+        boolean[] seen = new boolean[grid.getCellCount()];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        queue.add(start);
+        seen[start] = true;
+        int count = 0;
+        while (!queue.isEmpty()) {
+            int cell = queue.poll();
+            count++;
+            for (int d = MazeGrid.NORTH; d <= MazeGrid.WEST; d++) {
+                int next = grid.neighbor(cell, d);
+                if (next >= 0 && grid.hasPassage(cell, d) && !seen[next]) {
+                    seen[next] = true;
+                    queue.add(next);
+                }
+            }
+        }
+        return count;
+    }
+}
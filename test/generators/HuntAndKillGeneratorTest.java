@@ -0,0 +1,64 @@
+package generators;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class HuntAndKillGeneratorTest {
+    // over 64 columns, so the hunt has to carry across word boundaries
+    private static final int GRID_SIZE = 131;
+
+    @Test
+    void carvesAPerfectMaze() {
+        for (long seed = 0; seed < 4; seed++) {
+            HuntAndKillGenerator generator = new HuntAndKillGenerator(GRID_SIZE, seed);
+            generator.generateMaze();
+            MazeGrid grid = generator.getMazeGrid();
+            assertEquals(GRID_SIZE * GRID_SIZE - 1, grid.countPassages());
+            assertEquals(GRID_SIZE * GRID_SIZE, BinaryTreeGeneratorTest.reachableFrom(grid, 0));
+        }
+    }
+
+    @Test
+    void walksMostOfTheMazeBeforeHunting() {
+        // n - 1 steps carve, every other step is a walk getting stuck or a hunt, one of
+        // each per walk, so few extra steps means few long walks
+        HuntAndKillGenerator generator = new HuntAndKillGenerator(60, 3);
+        generator.generateMaze();
+        long cells = 60 * 60;
+        long extraSteps = generator.getStepCount() - (cells - 1);
+        assertTrue(extraSteps > 0 && extraSteps < cells / 4, "Expected few walks, got " + extraSteps / 2);
+    }
+
+    @Test
+    void stepperCarvesTheSameMazeAsGenerateMaze() {
+        HuntAndKillGenerator whole = new HuntAndKillGenerator(GRID_SIZE, 14);
+        whole.generateMaze();
+
+        HuntAndKillGenerator stepped = new HuntAndKillGenerator(GRID_SIZE, 14);
+        MazeStepper stepper = stepped.stepper();
+        int calls = 1;
+        while (!stepper.step(50)) {
+            calls++;
+        }
+        assertTrue(calls > 1);
+        assertEquals(whole.getStepCount(), stepped.getStepCount());
+        assertArrayEquals(whole.getMazeGrid().getEastPassageWords(), stepped.getMazeGrid().getEastPassageWords());
+        assertArrayEquals(whole.getMazeGrid().getSouthPassageWords(), stepped.getMazeGrid().getSouthPassageWords());
+    }
+
+    @Test
+    void handlesTinyGrids() {
+        HuntAndKillGenerator empty = new HuntAndKillGenerator(0, 1);
+        empty.generateMaze();
+        assertEquals(0, empty.getMazeGrid().countPassages());
+        HuntAndKillGenerator single = new HuntAndKillGenerator(1, 1);
+        single.generateMaze();
+        assertEquals(0, single.getMazeGrid().countPassages());
+        HuntAndKillGenerator two = new HuntAndKillGenerator(2, 1);
+        two.generateMaze();
+        assertEquals(3, two.getMazeGrid().countPassages());
+    }
+}
@@ -0,0 +1,138 @@
+package generators;
+
+import static generators.BinaryTreeGeneratorTest.reachableFrom;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import generators.LivingMaze.WallSwap;
+
+public class LivingMazeTest {
+    private static final int GRID_SIZE = 20;
+
+    @Test
+    void staysAPerfectMazeAfterEverySwap() {
+        for (Algorithm algorithm : Algorithm.values()) {
+            LivingMaze living = new LivingMaze(algorithm.generate(GRID_SIZE, 4, 0), 8);
+            MazeGrid grid = living.getMazeGrid();
+            for (int i = 0; i < 200; i++) {
+                WallSwap swap = living.swap(-1);
+                assertTrue(grid.hasPassage(swap.getOpenedCell(), swap.getOpenedDirection()));
+                assertFalse(grid.hasPassage(swap.getClosedCell(), swap.getClosedDirection()));
+                assertEquals(GRID_SIZE * GRID_SIZE - 1, grid.countPassages(), algorithm + " swap " + i + " should keep a tree.");
+                assertEquals(GRID_SIZE * GRID_SIZE, reachableFrom(grid, 0), algorithm + " swap " + i + " should keep every cell connected.");
+            }
+            assertEquals(200, living.getSwapCount());
+        }
+    }
+
+    @Test
+    void pathLengthsMatchABreadthFirstSearch() {
+        LivingMaze living = new LivingMaze(Algorithm.PRIMS.generate(GRID_SIZE, 12, 0), 3);
+        Random random = new Random(5);
+        for (int i = 0; i < 100; i++) {
+            living.swap(-1);
+            int a = random.nextInt(GRID_SIZE * GRID_SIZE);
+            int b = random.nextInt(GRID_SIZE * GRID_SIZE);
+            assertEquals(distances(living.getMazeGrid(), a)[b], living.pathLength(a, b));
+        }
+    }
+
+    @Test
+    void leavesTheKeptCellAlone() {
+        LivingMaze living = new LivingMaze(Algorithm.WILSONS.generate(GRID_SIZE, 1, 0), 2);
+        MazeGrid grid = living.getMazeGrid();
+        int keep = grid.cellAt(GRID_SIZE / 2, GRID_SIZE / 2);
+        boolean[] open = new boolean[4];
+        for (int d = MazeGrid.NORTH; d <= MazeGrid.WEST; d++) {
+            open[d] = grid.hasPassage(keep, d);
+        }
+        for (int i = 0; i < 500; i++) {
+            WallSwap swap = living.swap(keep);
+            assertNotEquals(keep, swap.getClosedCell());
+            assertNotEquals(keep, grid.neighbor(swap.getClosedCell(), swap.getClosedDirection()));
+            for (int d = MazeGrid.NORTH; d <= MazeGrid.WEST; d++) {
+                assertTrue(!open[d] || grid.hasPassage(keep, d), "A passage of the kept cell was closed.");
+            }
+        }
+    }
+
+    @Test
+    void sameSeedSameSwaps() {
+        MazeGrid maze = Algorithm.HUNT_AND_KILL.generate(GRID_SIZE, 6, 0);
+        LivingMaze first = new LivingMaze(maze, 77);
+        LivingMaze second = new LivingMaze(maze, 77);
+        for (int i = 0; i < 50; i++) {
+            first.swap(0);
+            second.swap(0);
+        }
+        assertArrayEquals(first.getMazeGrid().getEastPassageWords(), second.getMazeGrid().getEastPassageWords());
+        assertArrayEquals(first.getMazeGrid().getSouthPassageWords(), second.getMazeGrid().getSouthPassageWords());
+    }
+
+    @Test
+    void neverChangesTheMazeItWasGiven() {
+        MazeGrid maze = Algorithm.SIDEWINDER.generate(GRID_SIZE, 9, 0);
+        long[] east = maze.getEastPassageWords().clone();
+        long[] south = maze.getSouthPassageWords().clone();
+        LivingMaze living = new LivingMaze(maze, 1);
+        for (int i = 0; i < 100; i++) {
+            living.swap(-1);
+        }
+        assertArrayEquals(east, maze.getEastPassageWords());
+        assertArrayEquals(south, maze.getSouthPassageWords());
+    }
+
+    @Test
+    void contentHashFollowsTheSwaps() {
+        MazeGrid maze = Algorithm.BINARY_TREE.generate(GRID_SIZE, 2, 0);
+        LivingMaze living = new LivingMaze(maze, 4);
+        assertEquals(maze.getContentHash(), living.getMazeGrid().getContentHash());
+        living.swap(-1);
+        MazeGrid swapped = living.getMazeGrid();
+        assertNotEquals(maze.getContentHash(), swapped.getContentHash());
+        MazeGrid copy = new MazeGrid(GRID_SIZE);
+        for (int cell = 0; cell < copy.getCellCount(); cell++) {
+            for (int d = MazeGrid.NORTH; d <= MazeGrid.WEST; d++) {
+                if (swapped.hasPassage(cell, d)) {
+                    copy.carveBetween(cell, swapped.neighbor(cell, d));
+                }
+            }
+        }
+        assertEquals(copy.getContentHash(), swapped.getContentHash());
+    }
+
+    @Test
+    void rejectsMazesWithLoops() {
+        MazeGrid braided = Algorithm.PRIMS.generate(GRID_SIZE, 3, 0.3);
+        assertThrows(IllegalArgumentException.class, () -> new LivingMaze(braided, 0));
+    }
+
+    private static int[] distances(MazeGrid grid, int start) {
+        int[] distance = new int[grid.getCellCount()];
+        Arrays.fill(distance, -1);
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        distance[start] = 0;
+        queue.add(start);
+        while (!queue.isEmpty()) {
+            int cell = queue.poll();
+            for (int d = MazeGrid.NORTH; d <= MazeGrid.WEST; d++) {
+                int next = grid.neighbor(cell, d);
+                if (next >= 0 && grid.hasPassage(cell, d) && distance[next] < 0) {
+                    distance[next] = distance[cell] + 1;
+                    queue.add(next);
+                }
+            }
+        }
+        return distance;
+    }
+}
@@ -0,0 +1,114 @@
+package generators;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import generators.MazeCache.CachedMaze;
+
+public class MazeCacheTest {
+    private static final long ONE_MEGABYTE = 1024 * 1024;
+
+    @Test
+    void repeatRequestIsALookup() {
+        MazeCache cache = new MazeCache(ONE_MEGABYTE);
+        CachedMaze first = cache.get(Algorithm.WILSONS, 10, 800, 600, 5, 0);
+        CachedMaze second = cache.get(Algorithm.WILSONS, 10, 800, 600, 5, 0);
+        assertSame(first, second, "The same key should return the cached maze.");
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    void everyPartOfTheKeyMatters() {
+        MazeCache cache = new MazeCache(ONE_MEGABYTE);
+        CachedMaze maze = cache.get(Algorithm.PRIMS, 10, 800, 600, 5, 0);
+        assertNotSame(maze, cache.get(Algorithm.WILSONS, 10, 800, 600, 5, 0));
+        assertNotSame(maze, cache.get(Algorithm.PRIMS, 11, 800, 600, 5, 0));
+        assertNotSame(maze, cache.get(Algorithm.PRIMS, 10, 400, 600, 5, 0));
+        assertNotSame(maze, cache.get(Algorithm.PRIMS, 10, 800, 600, 6, 0));
+        assertNotSame(maze, cache.get(Algorithm.PRIMS, 10, 800, 600, 5, 0.2));
+        assertEquals(6, cache.size());
+    }
+
+    @Test
+    void evictedMazesAreRebuiltTheSame() {
+        MazeCache cache = new MazeCache(ONE_MEGABYTE);
+        CachedMaze first = cache.get(Algorithm.PRIMS, 8, 800, 600, 99, 0.1);
+        cache.clear();
+        CachedMaze again = cache.get(Algorithm.PRIMS, 8, 800, 600, 99, 0.1);
+        assertNotSame(first, again);
+        assertArrayEquals(first.getWallSegments(), again.getWallSegments());
+    }
+
+    @Test
+    void dropsLeastRecentlyUsedOverTheByteLimit() {
+        MazeCache probe = new MazeCache(ONE_MEGABYTE);
+        probe.get(Algorithm.WILSONS, 10, 800, 600, 1, 0);
+        long oneMaze = probe.getBytes();
+
+        MazeCache cache = new MazeCache(oneMaze * 2 + oneMaze / 2);
+        CachedMaze a = cache.get(Algorithm.WILSONS, 10, 800, 600, 1, 0);
+        cache.get(Algorithm.WILSONS, 10, 800, 600, 2, 0);
+        cache.get(Algorithm.WILSONS, 10, 800, 600, 1, 0); // a is now the most recently used
+        cache.get(Algorithm.WILSONS, 10, 800, 600, 3, 0); // so seed 2 has to go
+
+        assertEquals(2, cache.size());
+        assertTrue(cache.getBytes() <= oneMaze * 2 + oneMaze / 2);
+        assertSame(a, cache.get(Algorithm.WILSONS, 10, 800, 600, 1, 0));
+        long missesBefore = cache.getMisses();
+        cache.get(Algorithm.WILSONS, 10, 800, 600, 2, 0);
+        assertEquals(missesBefore + 1, cache.getMisses(), "Seed 2 should have been evicted.");
+    }
+
+    @Test
+    void mazesBiggerThanTheLimitAreNotKept() {
+        MazeCache cache = new MazeCache(64);
+        cache.get(Algorithm.PRIMS, 10, 800, 600, 1, 0);
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getBytes());
+    }
+
+    @Test
+    void everyAlgorithmCanBraid() {
+        MazeCache cache = new MazeCache(ONE_MEGABYTE);
+        for (Algorithm algorithm : Algorithm.values()) {
+            MazeGrid braided = cache.get(algorithm, 10, 800, 600, 1, 0.2).getGrid();
+            assertTrue(braided.countPassages() > 99, algorithm + " should have loops");
+        }
+    }
+
+    @Test
+    void cachedMazesCanBeFoundByContent() {
+        MazeCache cache = new MazeCache(ONE_MEGABYTE);
+        CachedMaze maze = cache.get(Algorithm.HUNT_AND_KILL, 10, 800, 600, 3, 0);
+        MazeGrid copy = new MazeGrid(10);
+        for (int cell = 0; cell < copy.getCellCount(); cell++) {
+            for (int d = MazeGrid.NORTH; d <= MazeGrid.WEST; d++) {
+                if (maze.getGrid().hasPassage(cell, d)) {
+                    copy.carveBetween(cell, maze.getGrid().neighbor(cell, d));
+                }
+            }
+        }
+        assertSame(maze, cache.getByContent(copy.getContentHash()), "A maze carved the same way should find the cached one.");
+        assertEquals(1, cache.getHits());
+        assertNull(cache.getByContent(new MazeGrid(10).getContentHash()));
+        cache.clear();
+        assertNull(cache.getByContent(copy.getContentHash()));
+    }
+
+    @Test
+    void evictedMazesAreNotFoundByContent() {
+        long oneMaze = new MazeCache(ONE_MEGABYTE).get(Algorithm.WILSONS, 10, 800, 600, 1, 0).estimateBytes();
+        MazeCache cache = new MazeCache(oneMaze + oneMaze / 2);
+        MazeGrid first = cache.get(Algorithm.WILSONS, 10, 800, 600, 1, 0).getGrid();
+        CachedMaze second = cache.get(Algorithm.WILSONS, 10, 800, 600, 2, 0);
+        assertNull(cache.getByContent(first.getContentHash()));
+        assertSame(second, cache.getByContent(second.getGrid().getContentHash()));
+    }
+}
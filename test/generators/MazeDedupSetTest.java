@@ -0,0 +1,55 @@
+package generators;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.Test;
+
+public class MazeDedupSetTest {
+
+    @Test
+    void rejectsTheSameMazeFromAnotherGenerator() {
+        MazeDedupSet set = new MazeDedupSet();
+        MazeGrid maze = Algorithm.PRIMS.generate(12, 3, 0);
+        MazeGrid copy = new MazeGrid(12);
+        for (int cell = 0; cell < copy.getCellCount(); cell++) {
+            for (int d : new int[] {MazeGrid.SOUTH, MazeGrid.EAST}) {
+                if (maze.hasPassage(cell, d)) {
+                    copy.carveBetween(cell, maze.neighbor(cell, d));
+                }
+            }
+        }
+        assertTrue(set.add(maze));
+        assertTrue(set.contains(copy));
+        assertFalse(set.add(copy));
+        assertTrue(set.add(Algorithm.PRIMS.generate(12, 4, 0)));
+        assertEquals(2, set.size());
+        assertEquals(1, set.getRepeatCount());
+    }
+
+    @Test
+    void countsDistinctMazesInAParallelBatch() {
+        // a 3 by 3 grid has only 192 spanning trees, so 3000 mazes are mostly repeats
+        int batch = 3000;
+        MazeDedupSet set = new MazeDedupSet();
+        long kept = LongStream.range(0, batch).parallel()
+            .mapToObj(seed -> Algorithm.WILSONS.generate(3, seed, 0))
+            .filter(set::add)
+            .count();
+
+        Set<String> distinct = new HashSet<>();
+        for (long seed = 0; seed < batch; seed++) {
+            MazeGrid maze = Algorithm.WILSONS.generate(3, seed, 0);
+            distinct.add(Arrays.toString(maze.getEastPassageWords()) + Arrays.toString(maze.getSouthPassageWords()));
+        }
+        assertEquals(distinct.size(), kept);
+        assertEquals(distinct.size(), set.size());
+        assertEquals(batch - distinct.size(), set.getRepeatCount());
+    }
+}
@@ -0,0 +1,209 @@
+package generators;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import edu.macalester.graphics.Line;
+
+public class MazeGridTest {
+
+    @Test
+    void startsWithEveryWall() {
+        MazeGrid grid = new MazeGrid(5);
+        assertEquals(0, grid.countPassages());
+        for (int cell = 0; cell < grid.getCellCount(); cell++) {
+            for (int dir = MazeGrid.NORTH; dir <= MazeGrid.WEST; dir++) {
+                assertFalse(grid.hasPassage(cell, dir), "New grid should have no passages.");
+            }
+        }
+    }
+
+    @Test
+    void carvingOpensBothSidesOfTheWall() {
+        MazeGrid grid = new MazeGrid(3);
+        grid.carve(1, 1, MazeGrid.EAST);
+        grid.carve(1, 1, MazeGrid.NORTH);
+        assertTrue(grid.hasPassage(1, 1, MazeGrid.EAST));
+        assertTrue(grid.hasPassage(1, 2, MazeGrid.WEST));
+        assertTrue(grid.hasPassage(1, 1, MazeGrid.NORTH));
+        assertTrue(grid.hasPassage(0, 1, MazeGrid.SOUTH));
+        assertFalse(grid.hasPassage(1, 1, MazeGrid.SOUTH));
+        assertEquals(2, grid.countPassages());
+    }
+
+    @Test
+    void carveBetweenRejectsCellsThatAreNotNeighbors() {
+        MazeGrid grid = new MazeGrid(3);
+        // cells 2 and 3 are consecutive numbers but sit on different rows
+        assertThrows(IllegalArgumentException.class, () -> grid.carveBetween(2, 3));
+        assertThrows(IllegalArgumentException.class, () -> grid.carveBetween(0, 4));
+        assertThrows(IllegalArgumentException.class, () -> grid.carve(0, 0, MazeGrid.NORTH));
+    }
+
+    @Test
+    void closeBetweenPutsOnlyThatWallBack() {
+        MazeGrid grid = new MazeGrid(3);
+        grid.carveBetween(0, 1);
+        grid.carveBetween(1, 4);
+        grid.closeBetween(4, 1);
+        assertTrue(grid.hasPassage(0, MazeGrid.EAST));
+        assertFalse(grid.hasPassage(1, MazeGrid.SOUTH));
+        assertEquals(1, grid.countPassages());
+        assertThrows(IllegalArgumentException.class, () -> grid.closeBetween(2, 3));
+    }
+
+    @Test
+    void rowsStartOnTheirOwnWord() {
+        MazeGrid grid = new MazeGrid(65);
+        assertEquals(2, grid.getWordsPerRow());
+        grid.carve(1, 0, MazeGrid.EAST);
+        assertEquals(1L, grid.getEastPassageWords()[2], "Row 1 should start at word 2.");
+    }
+
+    @Test
+    void everyAlgorithmCarvesASpanningTree() {
+        int size = 12;
+        for (Algorithm algorithm : Algorithm.values()) {
+            MazeGrid grid = algorithm.generate(size, 7);
+            assertEquals(size * size - 1, grid.countPassages(), algorithm + " should carve V-1 passages.");
+            assertEquals(size * size, reachableCells(grid), algorithm + " should connect every cell.");
+        }
+    }
+
+    @Test
+    void sameSeedGivesSameMaze() {
+        for (Algorithm algorithm : Algorithm.values()) {
+            MazeGrid first = algorithm.generate(9, 42);
+            MazeGrid second = algorithm.generate(9, 42);
+            assertArrayEquals(first.getEastPassageWords(), second.getEastPassageWords());
+            assertArrayEquals(first.getSouthPassageWords(), second.getSouthPassageWords());
+        }
+    }
+
+    @Test
+    void wallSegmentsMatchPrimsLines() {
+        PrimsAlgorithmGenerator gen = new PrimsAlgorithmGenerator(6, 3);
+        gen.generateMaze();
+        gen.addRandomEdges(0.2);
+        List<Line> expected = gen.generateMazeLines(600, 300, 2);
+        double[] segments = gen.getMazeGrid().wallSegments(600, 300);
+
+        assertEquals(expected.size() * 4, segments.length);
+        for (int i = 0; i < expected.size(); i++) {
+            Line line = expected.get(i);
+            assertEquals(line.getX1(), segments[4 * i], 1e-9);
+            assertEquals(line.getY1(), segments[4 * i + 1], 1e-9);
+            assertEquals(line.getX2(), segments[4 * i + 2], 1e-9);
+            assertEquals(line.getY2(), segments[4 * i + 3], 1e-9);
+        }
+        assertEquals(expected.size(), MazeGrid.toLines(segments, 2).size());
+    }
+
+    @Test
+    void contentHashFollowsThePassagesNotTheOrder() {
+        MazeGrid forward = new MazeGrid(4);
+        MazeGrid backward = new MazeGrid(4);
+        long empty = forward.getContentHash();
+        forward.carveBetween(0, 1);
+        forward.carveBetween(5, 9);
+        forward.carveBetween(14, 15);
+        backward.carveBetween(15, 14);
+        backward.carveBetween(9, 5);
+        backward.carveBetween(1, 0);
+        backward.carveBetween(1, 0); // already open, so the hash does not change
+        assertEquals(forward.getContentHash(), backward.getContentHash());
+
+        forward.closeBetween(5, 9);
+        assertNotEquals(forward.getContentHash(), backward.getContentHash());
+        backward.closeBetween(5, 9);
+        assertEquals(forward.getContentHash(), backward.getContentHash());
+
+        forward.clear();
+        assertEquals(empty, forward.getContentHash());
+        assertNotEquals(empty, new MazeGrid(5).getContentHash(), "Empty grids of different sizes should differ.");
+    }
+
+    @Test
+    void everyAlgorithmKeepsItsContentHashUpToDate() {
+        for (Algorithm algorithm : Algorithm.values()) {
+            MazeGrid generated = algorithm.generate(70, 5, 0.1);
+            assertEquals(rebuilt(generated).getContentHash(), generated.getContentHash(), algorithm + " generate");
+
+            MazeStepper stepper = algorithm.stepper(70, 5);
+            while (!stepper.step(1000)) {
+                // runs to the end
+            }
+            MazeGrid stepped = stepper.getMazeGrid();
+            assertEquals(rebuilt(stepped).getContentHash(), stepped.getContentHash(), algorithm + " stepper");
+        }
+    }
+
+    @Test
+    void startedGenerationsMatchGenerateEvenWhenReused() {
+        for (Algorithm algorithm : Algorithm.values()) {
+            Algorithm.Generation previous = null;
+            for (long seed = 1; seed <= 3; seed++) {
+                Algorithm.Generation generation = algorithm.start(40, seed, previous);
+                if (seed == 2) {
+                    // given up part way, the next maze must not see what it left behind
+                    generation.getStepper().step(50);
+                    previous = generation;
+                    continue;
+                }
+                while (!generation.getStepper().step(1000)) {
+                    // runs to the end
+                }
+                generation.braid(0.1);
+                MazeGrid expected = algorithm.generate(40, seed, 0.1);
+                assertEquals(expected.getContentHash(), generation.getMazeGrid().getContentHash(), algorithm + " seed " + seed);
+                assertArrayEquals(expected.getEastPassageWords(), generation.getMazeGrid().getEastPassageWords(), algorithm + " seed " + seed);
+                assertArrayEquals(expected.getSouthPassageWords(), generation.getMazeGrid().getSouthPassageWords(), algorithm + " seed " + seed);
+                previous = generation;
+            }
+        }
+    }
+
+    /*
+     * a copy made one carve at a time
+     */
+    private static MazeGrid rebuilt(MazeGrid grid) {
+        MazeGrid copy = new MazeGrid(grid.getGridSize());
+        for (int cell = 0; cell < grid.getCellCount(); cell++) {
+            for (int dir : new int[] {MazeGrid.EAST, MazeGrid.SOUTH}) {
+                if (grid.hasPassage(cell, dir)) {
+                    copy.carve(grid.rowOf(cell), grid.colOf(cell), dir);
+                }
+            }
+        }
+        return copy;
+    }
+
+    private static int reachableCells(MazeGrid grid) {
+        boolean[] seen = new boolean[grid.getCellCount()];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        queue.add(0);
+        seen[0] = true;
+        int count = 0;
+        while (!queue.isEmpty()) {
+            int cell = queue.poll();
+            count++;
+            for (int dir = MazeGrid.NORTH; dir <= MazeGrid.WEST; dir++) {
+                int next = grid.neighbor(cell, dir);
+                if (next >= 0 && grid.hasPassage(cell, dir) && !seen[next]) {
+                    seen[next] = true;
+                    queue.add(next);
+                }
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,79 @@
+package generators;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import generators.NextMazePipeline.PreparedMaze;
+
+public class NextMazePipelineTest {
+    private MazeCache cache;
+    private NextMazePipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        cache = new MazeCache(1024 * 1024);
+        pipeline = new NextMazePipeline(cache, Algorithm.WILSONS, 10, 800, 600, 0, 30);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pipeline.shutdown();
+    }
+
+    @Test
+    void nothingToPollBeforePrepare() {
+        assertNull(pipeline.poll());
+        assertFalse(pipeline.isReady());
+    }
+
+    @Test
+    void pollHandsOverThePreparedMazeOnce() throws InterruptedException {
+        pipeline.prepare(7);
+        PreparedMaze maze = pollUntilReady();
+
+        assertEquals(7, maze.getSeed());
+        assertEquals(maze.getMaze().getWallSegments().length / 4, maze.getWalls().size(),
+                     "Every wall segment should have a Line ready.");
+        assertNull(pipeline.poll(), "A prepared maze should only be handed out once.");
+    }
+
+    @Test
+    void preparedMazeIsTheCachedMaze() throws InterruptedException {
+        pipeline.prepare(3);
+        PreparedMaze maze = pipeline.take();
+        assertSame(cache.get(Algorithm.WILSONS, 10, 800, 600, 3, 0), maze.getMaze());
+        assertArrayEquals(Algorithm.WILSONS.generate(10, 3).getEastPassageWords(),
+                          maze.getMaze().getGrid().getEastPassageWords());
+    }
+
+    @Test
+    void preparingAgainReplacesTheWaitingMaze() throws InterruptedException {
+        pipeline.prepare(1);
+        pipeline.prepare(2);
+        PreparedMaze maze = pipeline.take();
+        assertNotNull(maze);
+        assertEquals(2, maze.getSeed());
+    }
+
+    private PreparedMaze pollUntilReady() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            PreparedMaze maze = pipeline.poll();
+            if (maze != null) {
+                return maze;
+            }
+            Thread.sleep(5);
+        }
+        assertTrue(false, "The next maze was not ready in time.");
+        return null;
+    }
+}
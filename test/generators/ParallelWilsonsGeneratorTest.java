@@ -0,0 +1,103 @@
+package generators;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+public class ParallelWilsonsGeneratorTest {
+    private static final int GRID_SIZE = 70;
+
+    @Test
+    void carvesAPerfectMaze() {
+        ParallelWilsonsGenerator generator = new ParallelWilsonsGenerator(GRID_SIZE, 5);
+        generator.generateMaze();
+        MazeGrid grid = generator.getMazeGrid();
+        assertEquals(GRID_SIZE * GRID_SIZE - 1, grid.countPassages());
+        assertEquals(GRID_SIZE * GRID_SIZE, BinaryTreeGeneratorTest.reachableFrom(grid, 0));
+    }
+
+    @Test
+    void sameMazeForAnyNumberOfWalkers() {
+        ForkJoinPool pool = new ForkJoinPool(8);
+        try {
+            MazeGrid expected = null;
+            for (int walkers : new int[] {1, 2, 8, 32}) {
+                for (int run = 0; run < 3; run++) {
+                    ParallelWilsonsGenerator generator = new ParallelWilsonsGenerator(GRID_SIZE, 77);
+                    generator.generateMaze(pool, walkers);
+                    MazeGrid grid = generator.getMazeGrid();
+                    if (expected == null) {
+                        expected = grid;
+                    }
+                    assertArrayEquals(expected.getEastPassageWords(), grid.getEastPassageWords(), walkers + " walkers");
+                    assertArrayEquals(expected.getSouthPassageWords(), grid.getSouthPassageWords(), walkers + " walkers");
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void stepperCarvesTheSameMazeAsGenerateMaze() {
+        ParallelWilsonsGenerator whole = new ParallelWilsonsGenerator(GRID_SIZE, 3);
+        whole.generateMaze();
+
+        ParallelWilsonsGenerator stepped = new ParallelWilsonsGenerator(GRID_SIZE, 3);
+        int[] carved = new int[1];
+        stepped.getMazeGrid().setCarveListener((cell, direction) -> carved[0]++);
+        MazeStepper stepper = stepped.stepper();
+        int calls = 1;
+        while (!stepper.step(500)) {
+            calls++;
+        }
+        assertTrue(calls > 1);
+        assertEquals(GRID_SIZE * GRID_SIZE - 1, carved[0]);
+        assertArrayEquals(whole.getMazeGrid().getEastPassageWords(), stepped.getMazeGrid().getEastPassageWords());
+        assertArrayEquals(whole.getMazeGrid().getSouthPassageWords(), stepped.getMazeGrid().getSouthPassageWords());
+    }
+
+    @Test
+    void everySpanningTreeIsEquallyLikely() {
+        // a 3 by 3 grid has 192 spanning trees, a chi-squared test over them with
+        // 191 degrees of freedom has mean 191 and standard deviation about 19.5
+        int trees = 192;
+        int perTree = 100;
+        Map<String, Integer> counts = new HashMap<>();
+        for (int seed = 0; seed < trees * perTree; seed++) {
+            ParallelWilsonsGenerator generator = new ParallelWilsonsGenerator(3, seed);
+            MazeStepper stepper = generator.stepper();
+            while (!stepper.step(Integer.MAX_VALUE)) {
+                // runs to the end
+            }
+            MazeGrid grid = generator.getMazeGrid();
+            String key = Arrays.toString(grid.getEastPassageWords()) + Arrays.toString(grid.getSouthPassageWords());
+            counts.merge(key, 1, Integer::sum);
+        }
+        assertEquals(trees, counts.size(), "Every spanning tree should turn up.");
+        double chiSquared = 0;
+        for (int count : counts.values()) {
+            chiSquared += (count - perTree) * (double) (count - perTree) / perTree;
+        }
+        assertTrue(chiSquared < 300, "Tree frequencies are not uniform, chi-squared " + chiSquared);
+    }
+
+    @Test
+    void handlesTinyGridsAndRejectsNoWalkers() {
+        ParallelWilsonsGenerator empty = new ParallelWilsonsGenerator(0, 1);
+        empty.generateMaze();
+        assertEquals(0, empty.getMazeGrid().countPassages());
+        ParallelWilsonsGenerator single = new ParallelWilsonsGenerator(1, 1);
+        single.generateMaze();
+        assertEquals(0, single.getMazeGrid().countPassages());
+        assertThrows(IllegalArgumentException.class, () -> single.generateMaze(ForkJoinPool.commonPool(), 0));
+    }
+}
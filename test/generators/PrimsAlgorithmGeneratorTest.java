@@ -174,4 +174,37 @@ public class PrimsAlgorithmGeneratorTest {
         assertDoesNotThrow(() -> emptyGen.generateMazeLines(100, 100, 2));
     }
 
-}
\ No newline at end of file
+    @Test
+    void stepperCarvesTheSameMazeAsGenerateMaze() {
+        PrimsAlgorithmGenerator whole = new PrimsAlgorithmGenerator(8, 21);
+        whole.generateMaze();
+
+        PrimsAlgorithmGenerator stepped = new PrimsAlgorithmGenerator(8, 21);
+        MazeStepper stepper = stepped.stepper();
+        int calls = 1;
+        while (!stepper.step(3)) {
+            calls++;
+        }
+        assertTrue(calls > 1, "A few steps at a time should take several calls.");
+        assertTrue(stepper.isDone());
+        assertEquals(whole.getEdges().size(), stepped.getEdges().size());
+        assertArrayEquals(whole.getMazeGrid().getEastPassageWords(), stepped.getMazeGrid().getEastPassageWords());
+        assertArrayEquals(whole.getMazeGrid().getSouthPassageWords(), stepped.getMazeGrid().getSouthPassageWords());
+    }
+
+    @Test
+    void stepForStopsAtTheStepLimitOrTimeBudget() {
+        PrimsAlgorithmGenerator gen = new PrimsAlgorithmGenerator(64, 1);
+        MazeStepper stepper = gen.stepper();
+
+        assertFalse(stepper.stepFor(5, Long.MAX_VALUE));
+        assertTrue(gen.getMazeGrid().countPassages() <= 5, "Should stop after 5 steps.");
+
+        assertFalse(stepper.stepFor(Integer.MAX_VALUE, 0), "A spent budget should stop after one batch.");
+        assertFalse(stepper.isDone());
+
+        assertTrue(stepper.stepFor(Integer.MAX_VALUE, Long.MAX_VALUE));
+        assertEquals(64 * 64 - 1, gen.getMazeGrid().countPassages());
+    }
+
+}
@@ -4,6 +4,7 @@ import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -157,4 +158,36 @@ public class RecursiveBacktrackingAlgorithmTest {
         }
     }
 
+    // the stepper keeps the recursion on its own stack, it should carve exactly what the recursive version does
+    @Test
+    void stepperCarvesTheSameMazeAsGenerateMaze(){
+        RecursiveBacktrackingAlgorithmGenerator whole = new RecursiveBacktrackingAlgorithmGenerator(size, 5);
+        whole.generateMaze(null);
+
+        RecursiveBacktrackingAlgorithmGenerator stepped = new RecursiveBacktrackingAlgorithmGenerator(size, 5);
+        MazeStepper stepper = stepped.stepper(null);
+        int calls = 1;
+        while (!stepper.step(7)){
+            calls++;
+        }
+        assertTrue(calls > 1);
+        assertEquals(whole.getEdges().size(), stepped.getEdges().size());
+        assertArrayEquals(whole.getMazeGrid().getEastPassageWords(), stepped.getMazeGrid().getEastPassageWords());
+        assertArrayEquals(whole.getMazeGrid().getSouthPassageWords(), stepped.getMazeGrid().getSouthPassageWords());
+    }
+
+    @Test
+    void addRandomEdgesAddsAnEdgePerOpenedWall(){
+        RecursiveBacktrackingAlgorithmGenerator braided = new RecursiveBacktrackingAlgorithmGenerator(size, 6);
+        braided.generateMaze(null);
+        braided.addRandomEdges(1.0);
+        assertEquals(2 * size * (size - 1), braided.getEdges().size());
+        assertEquals(braided.getEdges().size(), braided.getMazeGrid().countPassages());
+
+        RecursiveBacktrackingAlgorithmGenerator unchanged = new RecursiveBacktrackingAlgorithmGenerator(size, 6);
+        unchanged.generateMaze(null);
+        unchanged.addRandomEdges(0.0);
+        assertEquals(size * size - 1, unchanged.getEdges().size());
+    }
+
 }
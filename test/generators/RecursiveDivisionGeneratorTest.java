@@ -0,0 +1,74 @@
+package generators;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+public class RecursiveDivisionGeneratorTest {
+
+    @Test
+    void carvesAPerfectMaze() {
+        for (int size : new int[] {2, 3, 17, 70}) {
+            RecursiveDivisionGenerator generator = new RecursiveDivisionGenerator(size, size);
+            generator.generateMaze();
+            MazeGrid grid = generator.getMazeGrid();
+            assertEquals(size * size - 1, grid.countPassages(), "size " + size);
+            assertEquals(size * size, BinaryTreeGeneratorTest.reachableFrom(grid, 0), "size " + size);
+        }
+    }
+
+    @Test
+    void bigChambersDividedInParallelGiveTheSameMaze() {
+        // big enough that several chambers are over the threshold and share words with their neighbors
+        int size = 200;
+        assertTrue(size * size > 4 * RecursiveDivisionGenerator.PARALLEL_THRESHOLD);
+        RecursiveDivisionGenerator common = new RecursiveDivisionGenerator(size, 31);
+        common.generateMaze();
+        ForkJoinPool single = new ForkJoinPool(1);
+        try {
+            RecursiveDivisionGenerator serial = new RecursiveDivisionGenerator(size, 31);
+            serial.generateMaze(single);
+            assertEquals(size * size - 1, common.getMazeGrid().countPassages());
+            assertArrayEquals(common.getMazeGrid().getEastPassageWords(), serial.getMazeGrid().getEastPassageWords());
+            assertArrayEquals(common.getMazeGrid().getSouthPassageWords(), serial.getMazeGrid().getSouthPassageWords());
+            assertEquals(common.getStepCount(), serial.getStepCount());
+        } finally {
+            single.shutdown();
+        }
+    }
+
+    @Test
+    void stepperCarvesTheSameMazeAsGenerateMaze() {
+        RecursiveDivisionGenerator whole = new RecursiveDivisionGenerator(90, 2);
+        whole.generateMaze();
+
+        RecursiveDivisionGenerator stepped = new RecursiveDivisionGenerator(90, 2);
+        int[] carved = new int[1];
+        stepped.getMazeGrid().setCarveListener((cell, direction) -> carved[0]++);
+        MazeStepper stepper = stepped.stepper();
+        int calls = 1;
+        while (!stepper.step(40)) {
+            calls++;
+        }
+        assertTrue(calls > 1);
+        assertEquals(90 * 90 - 1, carved[0], "The stepper should tell the listener about every passage.");
+        assertEquals(whole.getStepCount(), stepped.getStepCount());
+        assertArrayEquals(whole.getMazeGrid().getEastPassageWords(), stepped.getMazeGrid().getEastPassageWords());
+        assertArrayEquals(whole.getMazeGrid().getSouthPassageWords(), stepped.getMazeGrid().getSouthPassageWords());
+    }
+
+    @Test
+    void handlesTinyGrids() {
+        RecursiveDivisionGenerator empty = new RecursiveDivisionGenerator(0, 1);
+        empty.generateMaze();
+        assertEquals(0, empty.getMazeGrid().countPassages());
+        assertTrue(empty.stepper().step(1));
+        RecursiveDivisionGenerator single = new RecursiveDivisionGenerator(1, 1);
+        single.generateMaze();
+        assertEquals(0, single.getMazeGrid().countPassages());
+    }
+}
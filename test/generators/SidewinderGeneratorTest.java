@@ -0,0 +1,87 @@
+package generators;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+public class SidewinderGeneratorTest {
+    // over 64 columns, so runs can cross a word boundary
+    private static final int GRID_SIZE = 130;
+
+    @Test
+    void carvesAPerfectMaze() {
+        for (long seed = 0; seed < 4; seed++) {
+            SidewinderGenerator generator = new SidewinderGenerator(GRID_SIZE, seed);
+            generator.generateMaze();
+            MazeGrid grid = generator.getMazeGrid();
+            assertEquals(GRID_SIZE * GRID_SIZE - 1, grid.countPassages());
+            assertEquals(GRID_SIZE * GRID_SIZE, BinaryTreeGeneratorTest.reachableFrom(grid, 0));
+        }
+    }
+
+    @Test
+    void topRowIsOneCorridorAndEveryRunOpensNorthOnce() {
+        SidewinderGenerator generator = new SidewinderGenerator(GRID_SIZE, 17);
+        generator.generateMaze();
+        MazeGrid grid = generator.getMazeGrid();
+        for (int col = 0; col < GRID_SIZE - 1; col++) {
+            assertTrue(grid.hasPassage(0, col, MazeGrid.EAST));
+        }
+        for (int row = 1; row < GRID_SIZE; row++) {
+            int northInRun = 0;
+            for (int col = 0; col < GRID_SIZE; col++) {
+                if (grid.hasPassage(row, col, MazeGrid.NORTH)) {
+                    northInRun++;
+                }
+                if (!grid.hasPassage(row, col, MazeGrid.EAST)) {
+                    assertEquals(1, northInRun, "Run ending at (" + row + "," + col + ") should open north once.");
+                    northInRun = 0;
+                }
+            }
+        }
+    }
+
+    @Test
+    void sameMazeWhateverThePool() {
+        SidewinderGenerator common = new SidewinderGenerator(GRID_SIZE, 33);
+        common.generateMaze();
+        ForkJoinPool single = new ForkJoinPool(1);
+        try {
+            SidewinderGenerator serial = new SidewinderGenerator(GRID_SIZE, 33);
+            serial.generateMaze(single);
+            assertArrayEquals(common.getMazeGrid().getEastPassageWords(), serial.getMazeGrid().getEastPassageWords());
+            assertArrayEquals(common.getMazeGrid().getSouthPassageWords(), serial.getMazeGrid().getSouthPassageWords());
+        } finally {
+            single.shutdown();
+        }
+    }
+
+    @Test
+    void stepperCarvesTheSameMazeAsGenerateMaze() {
+        SidewinderGenerator whole = new SidewinderGenerator(GRID_SIZE, 6);
+        whole.generateMaze();
+
+        SidewinderGenerator stepped = new SidewinderGenerator(GRID_SIZE, 6);
+        MazeStepper stepper = stepped.stepper();
+        int calls = 1;
+        while (!stepper.step(9)) {
+            calls++;
+        }
+        assertTrue(calls > 1);
+        assertEquals(GRID_SIZE, stepped.getStepCount());
+        assertArrayEquals(whole.getMazeGrid().getEastPassageWords(), stepped.getMazeGrid().getEastPassageWords());
+        assertArrayEquals(whole.getMazeGrid().getSouthPassageWords(), stepped.getMazeGrid().getSouthPassageWords());
+    }
+
+    @Test
+    void addRandomEdgesOpensExtraWalls() {
+        SidewinderGenerator generator = new SidewinderGenerator(30, 2);
+        generator.generateMaze();
+        generator.addRandomEdges(0.2);
+        assertTrue(generator.getMazeGrid().countPassages() > 30 * 30 - 1);
+    }
+}
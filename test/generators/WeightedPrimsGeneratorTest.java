@@ -0,0 +1,123 @@
+package generators;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+import org.junit.jupiter.api.Test;
+
+public class WeightedPrimsGeneratorTest {
+    private static final int GRID_SIZE = 41;
+
+    @Test
+    void carvesAPerfectMaze() {
+        WeightedPrimsGenerator generator = new WeightedPrimsGenerator(GRID_SIZE, 6);
+        generator.generateMaze();
+        MazeGrid grid = generator.getMazeGrid();
+        assertEquals(GRID_SIZE * GRID_SIZE - 1, grid.countPassages());
+        assertEquals(GRID_SIZE * GRID_SIZE, BinaryTreeGeneratorTest.reachableFrom(grid, 0));
+        assertEquals(GRID_SIZE * GRID_SIZE - 1, generator.getStepCount());
+    }
+
+    @Test
+    void carvesTheMinimumSpanningTreeOfTheWallWeights() {
+        WeightedPrimsGenerator generator = new WeightedPrimsGenerator(GRID_SIZE, 19);
+        generator.generateMaze();
+        MazeGrid grid = generator.getMazeGrid();
+
+        // Kruskal's over the same weights, with a small union-find
+        int cells = GRID_SIZE * GRID_SIZE;
+        Integer[] walls = new Integer[2 * cells];
+        int count = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            if (grid.neighbor(cell, MazeGrid.EAST) >= 0) {
+                walls[count++] = 2 * cell;
+            }
+            if (grid.neighbor(cell, MazeGrid.SOUTH) >= 0) {
+                walls[count++] = 2 * cell + 1;
+            }
+        }
+        Integer[] sorted = Arrays.copyOf(walls, count);
+        Arrays.sort(sorted, Comparator.comparingDouble(wall -> weight(generator, wall)));
+        int[] parent = new int[cells];
+        for (int i = 0; i < cells; i++) {
+            parent[i] = i;
+        }
+        double expected = 0;
+        for (int wall : sorted) {
+            int cell = wall / 2;
+            int direction = wall % 2 == 0 ? MazeGrid.EAST : MazeGrid.SOUTH;
+            int a = find(parent, cell);
+            int b = find(parent, grid.neighbor(cell, direction));
+            if (a != b) {
+                parent[a] = b;
+                expected += generator.wallWeight(cell, direction);
+            }
+        }
+
+        double carved = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            for (int direction : new int[] {MazeGrid.EAST, MazeGrid.SOUTH}) {
+                if (grid.hasPassage(cell, direction)) {
+                    carved += generator.wallWeight(cell, direction);
+                }
+            }
+        }
+        assertEquals(expected, carved, 1e-6);
+    }
+
+    @Test
+    void wallWeightIsTheSameFromEitherSide() {
+        WeightedPrimsGenerator generator = new WeightedPrimsGenerator(10, 1);
+        MazeGrid grid = generator.getMazeGrid();
+        for (int cell = 0; cell < 100; cell++) {
+            for (int d = MazeGrid.NORTH; d <= MazeGrid.WEST; d++) {
+                int neighbor = grid.neighbor(cell, d);
+                if (neighbor >= 0) {
+                    assertEquals(generator.wallWeight(cell, d), generator.wallWeight(neighbor, (d + 2) & 3));
+                }
+            }
+        }
+    }
+
+    @Test
+    void stepperCarvesTheSameMazeAsGenerateMaze() {
+        WeightedPrimsGenerator whole = new WeightedPrimsGenerator(GRID_SIZE, 8);
+        whole.generateMaze();
+
+        WeightedPrimsGenerator stepped = new WeightedPrimsGenerator(GRID_SIZE, 8);
+        MazeStepper stepper = stepped.stepper();
+        int calls = 1;
+        while (!stepper.step(30)) {
+            calls++;
+        }
+        assertTrue(calls > 1);
+        assertArrayEquals(whole.getMazeGrid().getEastPassageWords(), stepped.getMazeGrid().getEastPassageWords());
+        assertArrayEquals(whole.getMazeGrid().getSouthPassageWords(), stepped.getMazeGrid().getSouthPassageWords());
+    }
+
+    @Test
+    void handlesTinyGrids() {
+        WeightedPrimsGenerator empty = new WeightedPrimsGenerator(0, 1);
+        empty.generateMaze();
+        assertEquals(0, empty.getMazeGrid().countPassages());
+        WeightedPrimsGenerator single = new WeightedPrimsGenerator(1, 1);
+        single.generateMaze();
+        assertEquals(0, single.getMazeGrid().countPassages());
+    }
+
+    private static double weight(WeightedPrimsGenerator generator, int wall) {
+        return generator.wallWeight(wall / 2, wall % 2 == 0 ? MazeGrid.EAST : MazeGrid.SOUTH);
+    }
+
+    private static int find(int[] parent, int cell) {
+        while (parent[cell] != cell) {
+            parent[cell] = parent[parent[cell]];
+            cell = parent[cell];
+        }
+        return cell;
+    }
+}
@@ -6,6 +6,7 @@ import org.junit.jupiter.api.RepeatedTest; // For tests involving randomness
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
 import java.util.Set;
@@ -154,12 +155,19 @@ public class WilsonsAlgorithmGeneratorTest {
     @Test
     void loopErasedRandomWalkReachesVisitedCell() {
         // Will have errors if run the test individually since some necessary set up are outside this test.
-        WilsonsAlgorithmGenerator gen = new WilsonsAlgorithmGenerator(2);
-        gen.grid[0][0].visited = true; 
-        gen.remainingCells--;
+        WilsonsAlgorithmGenerator gen = new WilsonsAlgorithmGenerator(2, 2);
+        // a stepper starts over from a fresh grid, so [0][0] is made the only visited cell after it
+        MazeStepper stepper = gen.stepper();
+        for (Cell[] row : gen.grid) {
+            for (Cell cell : row) {
+                cell.visited = false;
+            }
+        }
+        gen.grid[0][0].visited = true;
+        gen.remainingCells = 3;
 
         Cell startWalk = gen.grid[0][1]; 
-        assertDoesNotThrow(() -> gen.generateMaze(), "Maze generation should complete even with pre-visited cell.");
+        assertDoesNotThrow(() -> stepper.step(Integer.MAX_VALUE), "Maze generation should complete even with pre-visited cell.");
         assertTrue(gen.grid[0][1].visited, "Cell from which walk started should become visited.");
         assertFalse(gen.grid[0][0].eastWall || gen.grid[0][1].westWall, 
                     "Wall between startWalk and initially visited cell should be carved.");
@@ -209,4 +217,62 @@ public class WilsonsAlgorithmGeneratorTest {
         assertEquals(Direction.WEST, Direction.EAST.opposite());
         assertEquals(Direction.EAST, Direction.WEST.opposite());
     }
+
+    @Test
+    void stepperCarvesTheSameMazeAsGenerateMaze() {
+        WilsonsAlgorithmGenerator whole = new WilsonsAlgorithmGenerator(LARGER_GRID_SIZE, 8);
+        whole.generateMaze();
+
+        WilsonsAlgorithmGenerator stepped = new WilsonsAlgorithmGenerator(LARGER_GRID_SIZE, 8);
+        MazeStepper stepper = stepped.stepper();
+        int calls = 1;
+        while (!stepper.step(2)) {
+            calls++;
+        }
+        assertTrue(calls > 1, "A few steps at a time should take several calls.");
+        assertEquals(0, stepped.remainingCells);
+        assertArrayEquals(whole.getMazeGrid().getEastPassageWords(), stepped.getMazeGrid().getEastPassageWords());
+        assertArrayEquals(whole.getMazeGrid().getSouthPassageWords(), stepped.getMazeGrid().getSouthPassageWords());
+    }
+
+    @Test
+    void secondStepperStartsOver() {
+        WilsonsAlgorithmGenerator gen = new WilsonsAlgorithmGenerator(LARGER_GRID_SIZE, 3);
+        gen.generateMaze();
+        gen.addRandomEdges(0.3);
+        long[] firstEast = gen.getMazeGrid().getEastPassageWords().clone();
+
+        MazeStepper again = gen.stepper();
+        assertFalse(again.isDone(), "A new stepper should not start out finished.");
+        int calls = 1;
+        while (!again.step(5)) {
+            calls++;
+        }
+        assertTrue(calls > 1);
+        assertEquals(0, gen.remainingCells);
+        int cells = LARGER_GRID_SIZE * LARGER_GRID_SIZE;
+        assertEquals(cells - 1, gen.getMazeGrid().countPassages(), "The braided walls should be gone and a new tree carved.");
+        assertEquals(cells, BinaryTreeGeneratorTest.reachableFrom(gen.getMazeGrid(), 0));
+        assertFalse(Arrays.equals(firstEast, gen.getMazeGrid().getEastPassageWords()));
+    }
+
+    @Test
+    void addRandomEdgesKeepsCellWallsInStepWithTheGrid() {
+        WilsonsAlgorithmGenerator braided = new WilsonsAlgorithmGenerator(LARGER_GRID_SIZE, 4);
+        braided.generateMaze();
+        int treePassages = braided.getMazeGrid().countPassages();
+        braided.addRandomEdges(0.3);
+        MazeGrid grid = braided.getMazeGrid();
+        assertTrue(grid.countPassages() > treePassages, "Braiding should open extra walls.");
+        for (int r = 0; r < LARGER_GRID_SIZE; r++) {
+            for (int c = 0; c < LARGER_GRID_SIZE; c++) {
+                Cell cell = braided.grid[r][c];
+                assertEquals(!cell.northWall, grid.hasPassage(r, c, MazeGrid.NORTH));
+                assertEquals(!cell.eastWall, grid.hasPassage(r, c, MazeGrid.EAST));
+                assertEquals(!cell.southWall, grid.hasPassage(r, c, MazeGrid.SOUTH));
+                assertEquals(!cell.westWall, grid.hasPassage(r, c, MazeGrid.WEST));
+            }
+        }
+    }
+
 }
@@ -0,0 +1,83 @@
+package simulation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import analysis.FlowField;
+import analysis.GridSearch;
+import generators.Algorithm;
+import generators.MazeGrid;
+
+public class AgentSimulationTest {
+
+    @Test
+    void flowFieldAgentsAllReachTheExit() {
+        MazeGrid grid = Algorithm.RECURSIVE_BACKTRACKING.generate(20, 3);
+        int start = grid.cellAt(19, 0);
+        int exit = grid.cellAt(0, 19);
+        AgentSimulation simulation = new AgentSimulation(grid, 3000, start, exit, 2.0, 0.1);
+        simulation.setSteering(AgentSimulation.Steering.followFlowField(new FlowField(grid, exit)));
+
+        assertEquals(3000, simulation.run(100_000));
+        // at least half a cell per move to get into the exit cell, 0.2 cells per step
+        int fewestSteps = (int) ((new GridSearch(grid).distance(start, exit) - 0.5) / 0.2);
+        for (int agent = 0; agent < simulation.getAgentCount(); agent++) {
+            assertTrue(simulation.getFinishedAtStep(agent) >= fewestSteps);
+            assertEquals(simulation.getFinishedAtStep(0), simulation.getFinishedAtStep(agent));
+        }
+    }
+
+    @Test
+    void randomWalkersNeverPassThroughWalls() {
+        MazeGrid grid = Algorithm.PRIMS.generate(15, 8, 0.2);
+        AgentSimulation simulation = new AgentSimulation(grid, 2500, grid.cellAt(14, 0), grid.cellAt(0, 14), 3.0, 0.1);
+        simulation.setSteering(AgentSimulation.Steering.randomWalk(42));
+        int[] cells = new int[simulation.getAgentCount()];
+        for (int agent = 0; agent < cells.length; agent++) {
+            cells[agent] = simulation.cellOf(agent);
+        }
+        for (int step = 0; step < 400; step++) {
+            simulation.step();
+            for (int agent = 0; agent < cells.length; agent++) {
+                int cell = simulation.cellOf(agent);
+                assertTrue(cell == cells[agent] || isOpenNeighbor(grid, cells[agent], cell),
+                    "agent " + agent + " went from " + cells[agent] + " to " + cell);
+                cells[agent] = cell;
+            }
+        }
+    }
+
+    @Test
+    void sameSeedGivesTheSameRun() {
+        MazeGrid grid = Algorithm.WILSONS.generate(12, 2);
+        AgentSimulation first = new AgentSimulation(grid, 5000, 0, 143, 2.5, 0.1);
+        AgentSimulation second = new AgentSimulation(grid, 5000, 0, 143, 2.5, 0.1);
+        first.setSteering(AgentSimulation.Steering.randomWalk(7));
+        second.setSteering(AgentSimulation.Steering.randomWalk(7));
+        first.run(300);
+        second.run(300);
+        for (int agent = 0; agent < first.getAgentCount(); agent++) {
+            assertEquals(first.getX(agent), second.getX(agent), 0);
+            assertEquals(first.getY(agent), second.getY(agent), 0);
+            assertEquals(first.getFinishedAtStep(agent), second.getFinishedAtStep(agent));
+        }
+    }
+
+    @Test
+    void rejectsStepsLongEnoughToSkipWalls() {
+        MazeGrid grid = new MazeGrid(3);
+        assertThrows(IllegalArgumentException.class, () -> new AgentSimulation(grid, 1, 0, 8, 10, 0.1));
+    }
+
+    private static boolean isOpenNeighbor(MazeGrid grid, int cell, int next) {
+        for (int d = MazeGrid.NORTH; d <= MazeGrid.WEST; d++) {
+            if (grid.neighbor(cell, d) == next && grid.hasPassage(cell, d)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,98 @@
+package generators;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The Vector API side of GridScans. It lives in its own source set, compiled with
+ * --add-modules jdk.incubator.vector, so that the rest of the code compiles without
+ * the flag; GridScans loads it by name and falls back to plain loops if it fails to load.
+ *
+ * In the degree scan, the first word of a row has no west neighbor word and the
+ * last word holds the row's padding, so those two are left to the scalar code and
+ * the vectors only cover full words in between. The west passages are the east
+ * words shifted left by one with the top bit of the word before carried in, which
+ * is a second load one word back.
+ */
+class VectorScans implements GridScans.Scans {
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+
+    VectorScans() {
+        if (SPECIES.length() < 2) {
+            throw new UnsupportedOperationException("no vector shape wider than one long");
+        }
+    }
+
+    public long countBits(long[] words) {
+        int lanes = SPECIES.length();
+        int upper = SPECIES.loopBound(words.length);
+        LongVector counts = LongVector.zero(SPECIES);
+        int i = 0;
+        for (; i < upper; i += lanes) {
+            counts = counts.add(LongVector.fromArray(SPECIES, words, i).lanewise(VectorOperators.BIT_COUNT));
+        }
+        long count = counts.reduceLanes(VectorOperators.ADD);
+        for (; i < words.length; i++) {
+            count += Long.bitCount(words[i]);
+        }
+        return count;
+    }
+
+    public long[] degreeCounts(MazeGrid grid) {
+        long[] counts = new long[5];
+        long[] east = grid.getEastPassageWords();
+        long[] south = grid.getSouthPassageWords();
+        int wordsPerRow = grid.getWordsPerRow();
+        int lanes = SPECIES.length();
+        LongVector zero = LongVector.zero(SPECIES);
+        LongVector one = zero;
+        LongVector two = zero;
+        LongVector three = zero;
+        LongVector four = zero;
+
+        for (int row = 0; row < grid.getGridSize(); row++) {
+            int rowStart = row * wordsPerRow;
+            // words 1 .. wordsPerRow - 2 are full and have a word to their west
+            int w = 1;
+            for (; w + lanes <= wordsPerRow - 1; w += lanes) {
+                int word = rowStart + w;
+                LongVector e = LongVector.fromArray(SPECIES, east, word);
+                LongVector before = LongVector.fromArray(SPECIES, east, word - 1);
+                LongVector west = e.lanewise(VectorOperators.LSHL, 1)
+                    .or(before.lanewise(VectorOperators.LSHR, 63));
+                LongVector s = LongVector.fromArray(SPECIES, south, word);
+                LongVector north = row > 0 ? LongVector.fromArray(SPECIES, south, word - wordsPerRow) : zero;
+
+                LongVector sum1 = e.lanewise(VectorOperators.XOR, west);
+                LongVector carry1 = e.and(west);
+                LongVector sum2 = s.lanewise(VectorOperators.XOR, north);
+                LongVector carry2 = s.and(north);
+                LongVector bit0 = sum1.lanewise(VectorOperators.XOR, sum2);
+                LongVector carry0 = sum1.and(sum2);
+                LongVector carries = carry1.lanewise(VectorOperators.XOR, carry2);
+                LongVector bit1 = carries.lanewise(VectorOperators.XOR, carry0);
+                LongVector bit2 = carry1.and(carry2).or(carries.and(carry0));
+
+                LongVector notBit2 = bit2.not();
+                one = one.add(bit0.and(bit1.not()).and(notBit2).lanewise(VectorOperators.BIT_COUNT));
+                two = two.add(bit1.and(bit0.not()).and(notBit2).lanewise(VectorOperators.BIT_COUNT));
+                three = three.add(bit0.and(bit1).and(notBit2).lanewise(VectorOperators.BIT_COUNT));
+                four = four.add(bit2.lanewise(VectorOperators.BIT_COUNT));
+            }
+            GridScans.addWord(grid, row, 0, counts);
+            for (; w < wordsPerRow; w++) {
+                GridScans.addWord(grid, row, w, counts);
+            }
+        }
+
+        counts[1] += one.reduceLanes(VectorOperators.ADD);
+        counts[2] += two.reduceLanes(VectorOperators.ADD);
+        counts[3] += three.reduceLanes(VectorOperators.ADD);
+        counts[4] += four.reduceLanes(VectorOperators.ADD);
+        // every full word holds 64 cells, the ones not in counts 1 to 4 have no open side
+        int fullWordsPerRow = Math.max(0, wordsPerRow - 2);
+        long vectorCells = 64L * (fullWordsPerRow - fullWordsPerRow % lanes) * grid.getGridSize();
+        counts[0] += vectorCells - one.add(two).add(three).add(four).reduceLanes(VectorOperators.ADD);
+        return counts;
+    }
+}